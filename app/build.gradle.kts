@@ -29,6 +29,18 @@ android {
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_17
         targetCompatibility = JavaVersion.VERSION_17
+        // java.time below API 26
+        isCoreLibraryDesugaringEnabled = true
+    }
+    testOptions {
+        unitTests.all {
+            // Benchmarks only run on demand: ./gradlew test -Pbenchmarks
+            it.useJUnit {
+                if (!project.hasProperty("benchmarks")) {
+                    excludeCategories("com.example.unifyu2.Benchmark")
+                }
+            }
+        }
     }
 }
 
@@ -42,6 +54,8 @@ dependencies {
     implementation("com.google.firebase:firebase-analytics")
     implementation("com.google.firebase:firebase-auth")
     implementation("androidx.swiperefreshlayout:swiperefreshlayout:1.2.0-alpha01")
+    implementation("androidx.work:work-runtime:2.9.0")
+    coreLibraryDesugaring("com.android.tools:desugar_jdk_libs:2.0.4")
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
@@ -0,0 +1,165 @@
+package com.example.unifyu2.utils;
+
+import android.content.Context;
+import android.util.Base64;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Simulated devices for tests against the Firebase emulators: one app per client with
+ * its own database connection and signed-in user, plus a reader that never writes, so
+ * its reads come from the server rather than local state. Every client starts signed in
+ * anonymously.
+ *
+ * Start the emulators on the host with the project's rules before running:
+ * {@code firebase emulators:start --only auth,database}
+ */
+final class EmulatorClients {
+    // The host machine as seen from the Android emulator
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int DATABASE_PORT = 9000;
+    private static final int AUTH_PORT = 9099;
+    private static final long SIGN_IN_TIMEOUT_SECONDS = 120;
+    // Clients' work only starts tasks, so a few threads can start them all at once
+    private static final int MAX_THREADS = 32;
+
+    /** Starts one client's writes, returning their tasks. */
+    interface ClientWork<T> {
+        List<Task<T>> run(int client) throws Exception;
+    }
+
+    private final List<FirebaseApp> apps = new ArrayList<>();
+    private final List<FirebaseDatabase> databases = new ArrayList<>();
+    private final FirebaseDatabase reader;
+
+    EmulatorClients(String name, int clients) throws Exception {
+        List<Task<?>> signIns = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            databases.add(connect(name + "-" + i, signIns));
+        }
+        reader = connect(name + "-reader", signIns);
+        Tasks.await(Tasks.whenAll(signIns), SIGN_IN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    int size() {
+        return databases.size();
+    }
+
+    FirebaseDatabase database(int client) {
+        return databases.get(client);
+    }
+
+    FirebaseDatabase reader() {
+        return reader;
+    }
+
+    /** Switches the client to the given user, which the auth emulator creates on first use. */
+    void signIn(int client, String uid) throws Exception {
+        Tasks.await(startSignIn(client, uid), SIGN_IN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /** Signs every client in as its own user at once, see {@link #signIn}. */
+    void signInEach(IntFunction<String> uidForClient) throws Exception {
+        List<Task<?>> signIns = new ArrayList<>();
+        for (int client = 0; client < size(); client++) {
+            signIns.add(startSignIn(client, uidForClient.apply(client)));
+        }
+        Tasks.await(Tasks.whenAll(signIns), SIGN_IN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Runs every client's work at once, and only waits for the tasks once all of them are started.
+     * @return The results of all the clients' tasks, client by client
+     */
+    <T> List<T> runConcurrently(ClientWork<T> work, long timeoutSeconds) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(size(), MAX_THREADS));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Task<T>>>> futures = new ArrayList<>();
+
+        for (int client = 0; client < size(); client++) {
+            int clientIndex = client;
+            futures.add(executor.submit(() -> {
+                start.await();
+                return work.run(clientIndex);
+            }));
+        }
+
+        start.countDown();
+        List<Task<T>> allTasks = new ArrayList<>();
+        try {
+            for (Future<List<Task<T>>> future : futures) {
+                allTasks.addAll(future.get(timeoutSeconds, TimeUnit.SECONDS));
+            }
+            Tasks.await(Tasks.whenAll(allTasks), timeoutSeconds, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        List<T> results = new ArrayList<>();
+        for (Task<T> task : allTasks) {
+            results.add(task.getResult());
+        }
+        return results;
+    }
+
+    void delete() {
+        for (FirebaseApp app : apps) {
+            app.delete();
+        }
+    }
+
+    private Task<?> startSignIn(int client, String uid) throws Exception {
+        return FirebaseAuth.getInstance(apps.get(client)).signInWithCustomToken(unsignedToken(uid));
+    }
+
+    private FirebaseDatabase connect(String appName, List<Task<?>> signIns) {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        FirebaseOptions options = FirebaseApp.getInstance().getOptions();
+        FirebaseApp app = FirebaseApp.initializeApp(context, options, appName);
+        apps.add(app);
+
+        FirebaseAuth auth = FirebaseAuth.getInstance(app);
+        auth.useEmulator(EMULATOR_HOST, AUTH_PORT);
+        signIns.add(auth.signInAnonymously());
+
+        FirebaseDatabase database = FirebaseDatabase.getInstance(app);
+        database.useEmulator(EMULATOR_HOST, DATABASE_PORT);
+        return database;
+    }
+
+    /** The auth emulator accepts custom tokens without a signature. */
+    private static String unsignedToken(String uid) throws Exception {
+        long now = System.currentTimeMillis() / 1000;
+        JSONObject header = new JSONObject().put("alg", "none").put("typ", "JWT");
+        JSONObject payload = new JSONObject()
+            .put("aud", "https://identitytoolkit.googleapis.com/google.identity.identitytoolkit.v1.IdentityToolkit")
+            .put("iat", now)
+            .put("exp", now + 3600)
+            .put("uid", uid);
+        return encode(header) + "." + encode(payload) + ".";
+    }
+
+    private static String encode(JSONObject json) {
+        return Base64.encodeToString(json.toString().getBytes(StandardCharsets.UTF_8),
+            Base64.URL_SAFE | Base64.NO_WRAP | Base64.NO_PADDING);
+    }
+}
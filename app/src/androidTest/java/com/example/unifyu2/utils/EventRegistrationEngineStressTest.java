@@ -0,0 +1,173 @@
+package com.example.unifyu2.utils;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.unifyu2.utils.EventRegistrationEngine.Outcome;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Registers 1,000 users for a 100-seat event concurrently against the Realtime
+ * Database emulator and checks that no seat is overbooked. Seat claims rely on the
+ * database rules, so every registrant is a client of their own, signed in as
+ * themselves, and all registrations are in flight at once. See
+ * {@link EmulatorClients} for starting the emulators.
+ */
+@RunWith(AndroidJUnit4.class)
+public class EventRegistrationEngineStressTest {
+    private static final int REGISTRANTS = 1000;
+    private static final int CAPACITY = 100;
+    private static final int CANCELLATIONS = 30;
+    private static final long TIMEOUT_SECONDS = 300;
+
+    private EmulatorClients clients;
+    private String clubId;
+    private String eventId;
+
+    @Before
+    public void setUp() throws Exception {
+        clients = new EmulatorClients("registration-test", REGISTRANTS);
+        clubId = "registration-test-" + UUID.randomUUID();
+        eventId = "registration-test-" + UUID.randomUUID();
+        clients.signIn(0, adminId());
+
+        Map<String, Object> club = new HashMap<>();
+        club.put("name", "Registration test");
+        club.put("adminId", adminId());
+
+        Map<String, Object> event = new HashMap<>();
+        event.put("eventId", eventId);
+        event.put("clubId", clubId);
+        event.put("title", "Registration test");
+        event.put("description", "");
+        event.put("venue", "");
+        event.put("date", System.currentTimeMillis());
+        event.put("maxParticipants", CAPACITY);
+        event.put("registrationOpen", true);
+        event.put("registeredCount", 0);
+        event.put("full", false);
+
+        Map<String, Object> setup = new HashMap<>();
+        setup.put("clubs/" + clubId, club);
+        setup.put("events/" + eventId, event);
+        Tasks.await(clients.database(0).getReference().updateChildren(setup), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        clients.signInEach(this::userId);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        clients.signIn(0, adminId());
+        Map<String, Object> cleanup = new HashMap<>();
+        cleanup.put("events/" + eventId, null);
+        cleanup.put("event_registrations/" + eventId, null);
+        cleanup.put("event_waitlist/" + eventId, null);
+        for (int i = 0; i < REGISTRANTS; i++) {
+            cleanup.put("user_registrations/" + userId(i) + "/" + eventId, null);
+        }
+        Tasks.await(clients.database(0).getReference().updateChildren(cleanup), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Tasks.await(clients.database(0).getReference("clubs").child(clubId).removeValue(),
+            TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        clients.delete();
+    }
+
+    @Test
+    public void concurrentRegistrations_neverOverbook() throws Exception {
+        List<Outcome> outcomes = registerAll();
+
+        assertEquals(CAPACITY, count(outcomes, Outcome.REGISTERED));
+        assertEquals(REGISTRANTS - CAPACITY, count(outcomes, Outcome.WAITLISTED));
+        assertEquals(CAPACITY, readRegisteredCount());
+        assertEquals(CAPACITY, read("event_registrations").getChildrenCount());
+        assertEquals(REGISTRANTS - CAPACITY, read("event_waitlist").getChildrenCount());
+        assertTrue(read("events").child("full").getValue(Boolean.class));
+    }
+
+    @Test
+    public void concurrentCancellations_promoteFromHeadOfWaitlist() throws Exception {
+        registerAll();
+        DataSnapshot waitlistBefore = read("event_waitlist");
+        Set<String> cancelling = new HashSet<>();
+        for (DataSnapshot registration : read("event_registrations").getChildren()) {
+            if (cancelling.size() == CANCELLATIONS) break;
+            cancelling.add(registration.getKey());
+        }
+
+        List<Outcome> outcomes = clients.runConcurrently(client -> {
+            if (!cancelling.contains(userId(client))) return Collections.emptyList();
+            EventRegistrationEngine engine = new EventRegistrationEngine(clients.database(client));
+            return Collections.singletonList(engine.cancel(eventId, userId(client)));
+        }, TIMEOUT_SECONDS);
+        assertEquals(Collections.nCopies(CANCELLATIONS, Outcome.UNREGISTERED), outcomes);
+
+        // Every seat was handed over rather than released
+        DataSnapshot registrations = read("event_registrations");
+        DataSnapshot waitlistAfter = read("event_waitlist");
+        assertEquals(CAPACITY, readRegisteredCount());
+        assertEquals(CAPACITY, registrations.getChildrenCount());
+        assertEquals(REGISTRANTS - CAPACITY - CANCELLATIONS, waitlistAfter.getChildrenCount());
+
+        long latestPromoted = Long.MIN_VALUE;
+        long earliestWaiting = Long.MAX_VALUE;
+        for (DataSnapshot entry : waitlistBefore.getChildren()) {
+            long joinedAt = entry.child("joinedAt").getValue(Long.class);
+            if (registrations.hasChild(entry.getKey())) {
+                assertFalse(waitlistAfter.hasChild(entry.getKey()));
+                latestPromoted = Math.max(latestPromoted, joinedAt);
+            } else {
+                earliestWaiting = Math.min(earliestWaiting, joinedAt);
+            }
+        }
+        assertTrue("Promoted users must have joined the waitlist first", latestPromoted <= earliestWaiting);
+    }
+
+    /** Registers every user, each from their own client, all at once. */
+    private List<Outcome> registerAll() throws Exception {
+        return clients.runConcurrently(client -> {
+            EventRegistrationEngine engine = new EventRegistrationEngine(clients.database(client));
+            return Collections.singletonList(engine.register(eventId, userId(client), null));
+        }, TIMEOUT_SECONDS);
+    }
+
+    private static int count(List<Outcome> outcomes, Outcome outcome) {
+        int count = 0;
+        for (Outcome o : outcomes) {
+            if (o == outcome) count++;
+        }
+        return count;
+    }
+
+    private int readRegisteredCount() throws Exception {
+        return read("events").child("registeredCount").getValue(Integer.class);
+    }
+
+    private DataSnapshot read(String root) throws Exception {
+        return Tasks.await(clients.reader().getReference(root).child(eventId).get(),
+            TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private String userId(int index) {
+        return eventId + "-user-" + index;
+    }
+
+    private String adminId() {
+        return eventId + "-admin";
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.unifyu2.utils;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.unifyu2.models.Club;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs concurrent joins against the Realtime Database emulator and checks that
+ * no increments are lost. See {@link EmulatorClients} for starting the emulators.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MemberCounterEmulatorTest {
+    private static final int CLIENTS = 4;
+    private static final int JOINS_PER_CLIENT = 50;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private EmulatorClients clients;
+    private String clubId;
+
+    @Before
+    public void setUp() throws Exception {
+        clients = new EmulatorClients("counter-test", CLIENTS);
+        clubId = "counter-test-" + UUID.randomUUID();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Tasks.await(clients.database(0).getReference("clubs").child(clubId).removeValue(),
+            TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        clients.delete();
+    }
+
+    @Test
+    public void concurrentIncrements_loseNoUpdates() throws Exception {
+        Tasks.await(clients.database(0).getReference("clubs").child(clubId).child("memberCount")
+            .setValue(0), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        runConcurrently((counter, client) -> counter.adjust(clubId, 1));
+
+        Club club = readClub();
+        assertEquals(CLIENTS * JOINS_PER_CLIENT, club.getMemberCount());
+    }
+
+    @Test
+    public void concurrentShardedIncrements_loseNoUpdates() throws Exception {
+        MemberCounter setup = new MemberCounter(clients.database(0));
+        Tasks.await(clients.database(0).getReference("clubs").child(clubId).child("memberCount")
+            .setValue(0), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Tasks.await(setup.enableSharding(clubId, MemberCounter.DEFAULT_SHARD_COUNT),
+            TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Club shardedClub = readClub();
+
+        runConcurrently((counter, client) -> counter.adjust(shardedClub, 1));
+
+        Club club = readClub();
+        assertEquals(MemberCounter.DEFAULT_SHARD_COUNT, club.getMemberCountShards().size());
+        assertEquals(CLIENTS * JOINS_PER_CLIENT, club.getTotalMemberCount());
+    }
+
+    @Test
+    public void concurrentJoinsAndExits_balanceOut() throws Exception {
+        Tasks.await(clients.database(0).getReference("clubs").child(clubId).child("memberCount")
+            .setValue(JOINS_PER_CLIENT), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        // Half the clients join while the other half leave
+        runConcurrently((counter, client) -> counter.adjust(clubId, client % 2 == 0 ? 1 : -1));
+
+        Club club = readClub();
+        assertEquals(JOINS_PER_CLIENT, club.getMemberCount());
+    }
+
+    private interface Write {
+        Task<Void> run(MemberCounter counter, int client);
+    }
+
+    private void runConcurrently(Write write) throws Exception {
+        clients.runConcurrently(client -> {
+            MemberCounter counter = new MemberCounter(clients.database(client));
+            List<Task<Void>> writes = new ArrayList<>();
+            for (int i = 0; i < JOINS_PER_CLIENT; i++) {
+                writes.add(write.run(counter, client));
+            }
+            return writes;
+        }, TIMEOUT_SECONDS);
+    }
+
+    private Club readClub() throws Exception {
+        DataSnapshot snapshot = Tasks.await(clients.reader().getReference("clubs").child(clubId).get(),
+            TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Club club = snapshot.getValue(Club.class);
+        club.setId(clubId);
+        return club;
+    }
+}
@@ -13,7 +13,12 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.unifyu2.adapters.EventAdapter;
+import com.example.unifyu2.mapping.EventMapper;
+import com.example.unifyu2.mapping.SnapshotCache;
+import com.example.unifyu2.mapping.SnapshotDecoder;
 import com.example.unifyu2.models.Event;
+import com.example.unifyu2.utils.RegistrationTracker;
+import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
@@ -21,7 +26,6 @@ import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
-import java.util.List;
 
 public class AllEventsActivity extends AppCompatActivity {
     private static final String TAG = "AllEventsActivity";
@@ -31,6 +35,8 @@ public class AllEventsActivity extends AppCompatActivity {
     private TextView noEventsText;
     private DatabaseReference eventsRef;
     private ValueEventListener eventsListener;
+    private final SnapshotCache<Event> eventCache = new SnapshotCache<>(EventMapper.INSTANCE);
+    private RegistrationTracker registrationTracker;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -54,6 +60,10 @@ public class AllEventsActivity extends AppCompatActivity {
         eventAdapter = new EventAdapter(this, new ArrayList<>());
         eventsRecyclerView.setAdapter(eventAdapter);
 
+        // Registration state comes from the user's index rather than the events themselves
+        registrationTracker = new RegistrationTracker(FirebaseAuth.getInstance().getCurrentUser().getUid());
+        registrationTracker.start(eventAdapter::setRegisteredEventIds);
+
         // Setup SwipeRefreshLayout
         swipeRefreshLayout.setOnRefreshListener(this::loadEvents);
 
@@ -92,39 +102,25 @@ public class AllEventsActivity extends AppCompatActivity {
             public void onDataChange(@NonNull DataSnapshot snapshot) {
                 Log.d(TAG, "Query returned " + snapshot.getChildrenCount() + " events");
                 
-                List<Event> events = new ArrayList<>();
-                for (DataSnapshot eventSnapshot : snapshot.getChildren()) {
-                    Log.d(TAG, "Processing event: " + eventSnapshot.getKey());
-                    try {
-                        Event event = eventSnapshot.getValue(Event.class);
-                        if (event != null) {
-                            Log.d(TAG, "Event parsed successfully: " + event.getTitle());
-                            event.setEventId(eventSnapshot.getKey());
-                            events.add(event);
-                        } else {
-                            Log.e(TAG, "Failed to parse event: " + eventSnapshot.getKey());
-                        }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error parsing event: " + e.getMessage());
+                SnapshotDecoder.decodeChildren(snapshot, eventCache, events -> {
+                    if (isFinishing() || isDestroyed()) return;
+                    Log.d(TAG, "Total events found: " + events.size());
+                    
+                    // Update UI
+                    eventAdapter.updateEvents(events);
+                    swipeRefreshLayout.setRefreshing(false);
+                    
+                    // Show/hide no events text
+                    if (events.isEmpty()) {
+                        Log.d(TAG, "No events found, showing empty state");
+                        noEventsText.setVisibility(View.VISIBLE);
+                        eventsRecyclerView.setVisibility(View.GONE);
+                    } else {
+                        Log.d(TAG, "Events found, showing list");
+                        noEventsText.setVisibility(View.GONE);
+                        eventsRecyclerView.setVisibility(View.VISIBLE);
                     }
-                }
-
-                Log.d(TAG, "Total events found: " + events.size());
-                
-                // Update UI
-                eventAdapter.updateEvents(events);
-                swipeRefreshLayout.setRefreshing(false);
-                
-                // Show/hide no events text
-                if (events.isEmpty()) {
-                    Log.d(TAG, "No events found, showing empty state");
-                    noEventsText.setVisibility(View.VISIBLE);
-                    eventsRecyclerView.setVisibility(View.GONE);
-                } else {
-                    Log.d(TAG, "Events found, showing list");
-                    noEventsText.setVisibility(View.GONE);
-                    eventsRecyclerView.setVisibility(View.VISIBLE);
-                }
+                });
             }
 
             @Override
@@ -142,5 +138,8 @@ public class AllEventsActivity extends AppCompatActivity {
         if (eventsListener != null) {
             eventsRef.removeEventListener(eventsListener);
         }
+        if (registrationTracker != null) {
+            registrationTracker.stop();
+        }
     }
 } 
\ No newline at end of file
@@ -11,6 +11,7 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.unifyu2.adapters.ClubMembersAdapter;
 import com.example.unifyu2.models.User;
+import com.example.unifyu2.utils.MemberCounter;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.database.*;
 import java.util.ArrayList;
@@ -122,7 +123,7 @@ public class ClubDetailsActivity extends AppCompatActivity implements ClubMember
         try {
             Log.d(TAG, "Starting to load members");
             membersList.clear();
-            membersAdapter.notifyDataSetChanged();
+            membersAdapter.updateMembers(membersList);
             
             DatabaseReference membershipsRef = FirebaseDatabase.getInstance().getReference("memberships");
             
@@ -148,7 +149,7 @@ public class ClubDetailsActivity extends AppCompatActivity implements ClubMember
                         if (userIds.isEmpty()) {
                             Log.d(TAG, "No members found for this club");
                             membersList.clear();
-                            membersAdapter.notifyDataSetChanged();
+                            membersAdapter.updateMembers(membersList);
                             return;
                         }
                         
@@ -180,7 +181,7 @@ public class ClubDetailsActivity extends AppCompatActivity implements ClubMember
                                 
                                 // If all users are loaded, update the UI
                                 if (loadedCount[0] >= totalToLoad) {
-                                    membersAdapter.notifyDataSetChanged();
+                                    membersAdapter.updateMembers(membersList);
                                     Log.d(TAG, "All " + membersList.size() + " members loaded");
                                 }
                             });
@@ -306,12 +307,7 @@ public class ClubDetailsActivity extends AppCompatActivity implements ClubMember
                     Toast.makeText(this, "Member removed successfully", Toast.LENGTH_SHORT).show();
                     
                     // Update member count in club
-                    clubRef.child("memberCount").get().addOnSuccessListener(dataSnapshot -> {
-                        if (dataSnapshot.exists()) {
-                            int currentCount = dataSnapshot.getValue(Integer.class);
-                            clubRef.child("memberCount").setValue(currentCount - 1);
-                        }
-                    });
+                    MemberCounter.decrement(clubId);
                 })
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "Failed to remove member: " + e.getMessage());
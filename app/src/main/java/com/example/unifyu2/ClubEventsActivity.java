@@ -1,6 +1,7 @@
 package com.example.unifyu2;
 
 import android.app.DatePickerDialog;
+import android.app.ProgressDialog;
 import android.app.TimePickerDialog;
 import android.os.Bundle;
 import android.util.Log;
@@ -17,11 +18,20 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.unifyu2.adapters.EnhancedEventAdapter;
 import com.example.unifyu2.adapters.ParticipantAdapter;
+import com.example.unifyu2.export.ExportFormat;
+import com.example.unifyu2.mapping.EventMapper;
+import com.example.unifyu2.mapping.SnapshotCache;
+import com.example.unifyu2.mapping.SnapshotDecoder;
 import com.example.unifyu2.models.Event;
+import com.example.unifyu2.utils.EventRegistrationEngine;
+import com.example.unifyu2.utils.EventRegistrationManager;
 import com.example.unifyu2.models.User;
 import com.example.unifyu2.utils.ExcelExporter;
+import com.example.unifyu2.utils.RegistrationTracker;
+import com.example.unifyu2.utils.UserProfileLoader;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.textfield.TextInputEditText;
+import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
@@ -29,6 +39,7 @@ import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.Query;
 import com.google.firebase.database.ValueEventListener;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
@@ -43,8 +54,9 @@ public class ClubEventsActivity extends AppCompatActivity implements EnhancedEve
     private SwipeRefreshLayout swipeRefreshLayout;
     private TextView noEventsText;
     private DatabaseReference eventsRef;
-    private DatabaseReference usersRef;
     private ValueEventListener eventsListener;
+    private final SnapshotCache<Event> eventCache = new SnapshotCache<>(EventMapper.INSTANCE);
+    private RegistrationTracker registrationTracker;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -61,7 +73,6 @@ public class ClubEventsActivity extends AppCompatActivity implements EnhancedEve
         
         // Initialize Firebase references
         eventsRef = FirebaseDatabase.getInstance().getReference("events");
-        usersRef = FirebaseDatabase.getInstance().getReference("users");
 
         // Initialize views
         eventsRecyclerView = findViewById(R.id.eventsRecyclerView);
@@ -74,6 +85,10 @@ public class ClubEventsActivity extends AppCompatActivity implements EnhancedEve
         adapter.setAdminActionListener(this);
         eventsRecyclerView.setAdapter(adapter);
 
+        // Registration state comes from the user's index rather than the events themselves
+        registrationTracker = new RegistrationTracker(FirebaseAuth.getInstance().getCurrentUser().getUid());
+        registrationTracker.start(adapter::setRegisteredEventIds);
+
         // Setup SwipeRefreshLayout
         swipeRefreshLayout.setOnRefreshListener(this::loadEvents);
 
@@ -90,18 +105,12 @@ public class ClubEventsActivity extends AppCompatActivity implements EnhancedEve
         eventsListener = query.addValueEventListener(new ValueEventListener() {
             @Override
             public void onDataChange(@NonNull DataSnapshot snapshot) {
-                List<Event> events = new ArrayList<>();
-                for (DataSnapshot eventSnapshot : snapshot.getChildren()) {
-                    Event event = eventSnapshot.getValue(Event.class);
-                    if (event != null) {
-                        event.setEventId(eventSnapshot.getKey());
-                        events.add(event);
-                    }
-                }
-                
-                adapter.updateEvents(events);
-                swipeRefreshLayout.setRefreshing(false);
-                noEventsText.setVisibility(events.isEmpty() ? View.VISIBLE : View.GONE);
+                SnapshotDecoder.decodeChildren(snapshot, eventCache, events -> {
+                    if (isFinishing() || isDestroyed()) return;
+                    adapter.updateEvents(events);
+                    swipeRefreshLayout.setRefreshing(false);
+                    noEventsText.setVisibility(events.isEmpty() ? View.VISIBLE : View.GONE);
+                });
             }
 
             @Override
@@ -201,15 +210,19 @@ public class ClubEventsActivity extends AppCompatActivity implements EnhancedEve
                     return;
                 }
 
-                // Update event
-                event.setTitle(title);
-                event.setDescription(description);
-                event.setVenue(venue);
-                event.setDate(calendar.getTimeInMillis());
-                event.setMaxParticipants(maxParticipants);
+                // Update only the edited fields so the registration count isn't overwritten
+                Map<String, Object> updates = new HashMap<>();
+                updates.put("title", title);
+                updates.put("description", description);
+                updates.put("venue", venue);
+                updates.put("date", calendar.getTimeInMillis());
+                updates.put("maxParticipants", maxParticipants);
 
-                eventsRef.child(event.getEventId()).setValue(event)
+                eventsRef.child(event.getEventId()).updateChildren(updates)
                     .addOnSuccessListener(aVoid -> {
+                        // A raised capacity frees seats for waitlisted users
+                        EventRegistrationEngine.getDefault().refreshCapacityFlag(event.getEventId());
+                        EventRegistrationEngine.getDefault().fillFromWaitlist(event.getEventId());
                         Toast.makeText(this, "Event updated successfully", 
                             Toast.LENGTH_SHORT).show();
                         dialog.dismiss();
@@ -241,7 +254,7 @@ public class ClubEventsActivity extends AppCompatActivity implements EnhancedEve
     }
 
     private void deleteEvent(Event event) {
-        eventsRef.child(event.getEventId()).removeValue()
+        EventRegistrationManager.deleteEvent(event)
             .addOnSuccessListener(aVoid -> 
                 Toast.makeText(this, "Event deleted successfully", 
                     Toast.LENGTH_SHORT).show())
@@ -257,81 +270,110 @@ public class ClubEventsActivity extends AppCompatActivity implements EnhancedEve
         RecyclerView participantsRecyclerView = dialogView.findViewById(R.id.participantsRecyclerView);
         participantsRecyclerView.setLayoutManager(new LinearLayoutManager(this));
 
-        // Convert Map<String, Object> to Map<String, String>
-        Map<String, String> phoneNumbers = new HashMap<>();
-        for (Map.Entry<String, Object> entry : event.getRegisteredUsers().entrySet()) {
-            phoneNumbers.put(entry.getKey(), entry.getValue().toString());
-        }
-
-        ParticipantAdapter adapter = new ParticipantAdapter(new ArrayList<>(), phoneNumbers);
+        ParticipantAdapter adapter = new ParticipantAdapter(new ArrayList<>());
         participantsRecyclerView.setAdapter(adapter);
 
-        // Load user details for registered participants
-        List<String> userIds = new ArrayList<>(event.getRegisteredUsers().keySet());
-        if (!userIds.isEmpty()) {
-            usersRef.addListenerForSingleValueEvent(new ValueEventListener() {
-                @Override
-                public void onDataChange(@NonNull DataSnapshot snapshot) {
-                    List<User> participants = new ArrayList<>();
-                    for (String userId : userIds) {
-                        DataSnapshot userSnapshot = snapshot.child(userId);
-                        if (userSnapshot.exists()) {
-                            User user = userSnapshot.getValue(User.class);
-                            if (user != null) {
-                                user.setId(userId);
-                                participants.add(user);
-                            }
-                        }
-                    }
-                    adapter.updateParticipants(participants);
-                }
-
-                @Override
-                public void onCancelled(@NonNull DatabaseError error) {
-                    Toast.makeText(ClubEventsActivity.this, 
-                        "Error loading participants", Toast.LENGTH_SHORT).show();
-                }
-            });
-        }
-
         new MaterialAlertDialogBuilder(this)
             .setTitle("Event Participants")
             .setView(dialogView)
             .setPositiveButton("Close", null)
             .show();
+
+        // Load the registrations, then user details for each participant as they arrive
+        EventRegistrationManager.loadRegistrations(event.getEventId())
+            .addOnSuccessListener(registrations -> {
+                if (isFinishing() || isDestroyed() || registrations.isEmpty()) return;
+                adapter.updatePhoneNumbers(registrations);
+                UserProfileLoader.getInstance().load(registrations.keySet(), true,
+                    UserProfileLoader.DEFAULT_TIMEOUT_MILLIS, result -> {
+                        if (isFinishing() || isDestroyed()) return;
+                        adapter.updateParticipants(result.users);
+                        if (result.isFinal && result.timedOut) {
+                            Toast.makeText(ClubEventsActivity.this,
+                                "Some participants couldn't be loaded", Toast.LENGTH_SHORT).show();
+                        }
+                    });
+            })
+            .addOnFailureListener(e -> {
+                Log.e(TAG, "Error loading registrations", e);
+                Toast.makeText(this, "Failed to load participants", Toast.LENGTH_SHORT).show();
+            });
     }
 
     @Override
     public void onDownloadParticipants(Event event) {
-        List<User> participants = new ArrayList<>();
-        
-        if (event.getRegisteredUsers() != null) {
-            for (String userId : event.getRegisteredUsers().keySet()) {
-                usersRef.child(userId).addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        User user = snapshot.getValue(User.class);
-                        if (user != null) {
-                            user.setId(snapshot.getKey());
-                            participants.add(user);
-                            
-                            // Once all participants are loaded, export to Excel
-                            if (participants.size() == event.getRegisteredUsers().size()) {
-                                ExcelExporter.exportParticipants(ClubEventsActivity.this, 
-                                    event, participants);
-                            }
-                        }
-                    }
+        if (event.getRegisteredCount() == 0) {
+            Toast.makeText(this, "No participants to export", Toast.LENGTH_SHORT).show();
+            return;
+        }
 
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        Log.e(TAG, "Error loading participant: " + error.getMessage());
+        EventRegistrationManager.loadRegistrations(event.getEventId())
+            .addOnSuccessListener(registrations -> {
+                if (isFinishing() || isDestroyed()) return;
+                if (registrations.isEmpty()) {
+                    Toast.makeText(this, "No participants to export", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                UserProfileLoader.getInstance().load(registrations.keySet(), result -> {
+                    if (isFinishing() || isDestroyed()) return;
+                    if (result.users.isEmpty()) {
+                        Toast.makeText(this, "Couldn't load participants to export", Toast.LENGTH_SHORT).show();
+                        return;
                     }
+                    if (!result.missingIds.isEmpty()) {
+                        Log.w(TAG, "Exporting without " + result.missingIds.size() + " participants: " + result.missingIds);
+                    }
+                    chooseExportFormat(event, result.users, registrations);
                 });
+            })
+            .addOnFailureListener(e -> {
+                Log.e(TAG, "Error loading registrations", e);
+                Toast.makeText(this, "Couldn't load participants to export", Toast.LENGTH_SHORT).show();
+            });
+    }
+
+    private void chooseExportFormat(Event event, List<User> participants, Map<String, String> phoneNumbers) {
+        String[] formats = {"Excel (.xlsx)", "CSV (.csv)"};
+        new MaterialAlertDialogBuilder(this)
+            .setTitle("Export Participants")
+            .setItems(formats, (dialog, which) -> exportParticipants(event, participants, phoneNumbers,
+                which == 0 ? ExportFormat.XLSX : ExportFormat.CSV))
+            .show();
+    }
+
+    private void exportParticipants(Event event, List<User> participants, Map<String, String> phoneNumbers,
+                                    ExportFormat format) {
+        ProgressDialog progressDialog = new ProgressDialog(this);
+        progressDialog.setMessage("Exporting participants...");
+        progressDialog.setProgressStyle(ProgressDialog.STYLE_HORIZONTAL);
+        progressDialog.setMax(participants.size());
+        progressDialog.setCancelable(false);
+        progressDialog.show();
+
+        ExcelExporter.exportParticipants(event, participants, phoneNumbers, format, new ExcelExporter.ExportListener() {
+            @Override
+            public void onProgress(int rowsWritten, int totalRows) {
+                progressDialog.setProgress(rowsWritten);
             }
-        } else {
-            Toast.makeText(this, "No participants to export", Toast.LENGTH_SHORT).show();
-        }
+
+            @Override
+            public void onExported(File file) {
+                if (isFinishing() || isDestroyed()) return;
+                progressDialog.dismiss();
+                Toast.makeText(ClubEventsActivity.this,
+                    "Participant list exported to Downloads/" + file.getName(),
+                    Toast.LENGTH_LONG).show();
+            }
+
+            @Override
+            public void onExportFailed(Exception e) {
+                if (isFinishing() || isDestroyed()) return;
+                progressDialog.dismiss();
+                Toast.makeText(ClubEventsActivity.this,
+                    "Failed to export participant list: " + e.getMessage(),
+                    Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     @Override
@@ -340,5 +382,8 @@ public class ClubEventsActivity extends AppCompatActivity implements EnhancedEve
         if (eventsListener != null) {
             eventsRef.removeEventListener(eventsListener);
         }
+        if (registrationTracker != null) {
+            registrationTracker.stop();
+        }
     }
 } 
\ No newline at end of file
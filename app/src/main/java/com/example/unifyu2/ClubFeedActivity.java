@@ -20,6 +20,7 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.bumptech.glide.Glide;
 import com.example.unifyu2.models.Post;
+import com.example.unifyu2.upload.ImageUploader;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
@@ -70,34 +71,26 @@ public class ClubFeedActivity extends AppCompatActivity {
         String postId = postsRef.push().getKey();
         if (postId == null) return;
 
+        savePost(postId, content, imageUri != null);
         if (imageUri != null) {
             String imagePath = "posts/" + UUID.randomUUID().toString();
             StorageReference imageRef = FirebaseStorage.getInstance().getReference().child(imagePath);
-            
-            imageRef.putFile(imageUri)
-                .addOnSuccessListener(taskSnapshot -> {
-                    imageRef.getDownloadUrl().addOnSuccessListener(downloadUri -> {
-                        savePost(postId, content, downloadUri.toString());
-                    });
-                })
+
+            // The post shows without its image until the queued upload patches it in
+            ImageUploader.enqueueVariants(this, imageUri, imageRef, "posts/" + postId)
                 .addOnFailureListener(e -> {
                     Toast.makeText(this, "Failed to upload image", Toast.LENGTH_SHORT).show();
                 });
-        } else {
-            savePost(postId, content, null);
         }
     }
 
-    private void savePost(String postId, String content, String imageUrl) {
+    private void savePost(String postId, String content, boolean withImage) {
         Post post = new Post(
             firebaseAuth.getCurrentUser().getUid(),
             firebaseAuth.getCurrentUser().getDisplayName(),
             content,
-            imageUrl != null ? "IMAGE" : "TEXT"
+            withImage ? "IMAGE" : "TEXT"
         );
-        if (imageUrl != null) {
-            post.setImageUrl(imageUrl);
-        }
 
         postsRef.child(postId).setValue(post)
             .addOnSuccessListener(aVoid -> {
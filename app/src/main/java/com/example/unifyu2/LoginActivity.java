@@ -15,7 +15,6 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 
 import com.example.unifyu2.utils.FirebaseErrorUtils;
-import com.example.unifyu2.utils.ClubMemberCountFixer;
 import com.example.unifyu2.notifications.FCMManager;
 
 public class LoginActivity extends AppCompatActivity {
@@ -107,10 +106,4 @@ public class LoginActivity extends AppCompatActivity {
                     }
                 });
     }
-    
-    private void fixClubMemberCounts() {
-        Log.d(TAG, "Starting club member count synchronization after login");
-        ClubMemberCountFixer.synchronizeAllClubMemberCounts(() -> 
-            Log.d(TAG, "Club member count synchronization completed after login"));
-    }
 } 
\ No newline at end of file
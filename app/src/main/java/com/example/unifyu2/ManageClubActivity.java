@@ -34,6 +34,9 @@ import com.example.unifyu2.models.User;
 import com.example.unifyu2.models.Event;
 import com.example.unifyu2.notifications.FCMManager;
 import com.example.unifyu2.notifications.NotificationHelper;
+import com.example.unifyu2.upload.ImageUploader;
+import com.example.unifyu2.utils.ClubMetadataCache;
+import com.example.unifyu2.utils.MemberCounter;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.textfield.TextInputEditText;
@@ -160,7 +163,7 @@ public class ManageClubActivity extends AppCompatActivity implements ManageClubM
 
     private void loadMembers() {
         membersList.clear();
-        adapter.notifyDataSetChanged();
+        adapter.updateMembers(membersList);
         
         Log.d(TAG, "Starting to load members for main view for club: " + clubId);
         
@@ -193,7 +196,7 @@ public class ManageClubActivity extends AppCompatActivity implements ManageClubM
                 if (userIds.isEmpty()) {
                     Log.d(TAG, "No members found for this club");
                     membersList.clear();
-                    adapter.notifyDataSetChanged();
+                    adapter.updateMembers(membersList);
                     return;
                 }
                 
@@ -243,7 +246,7 @@ public class ManageClubActivity extends AppCompatActivity implements ManageClubM
                             
                             // If all users are loaded, update the UI
                             if (loadedCount[0] >= totalToLoad) {
-                                adapter.notifyDataSetChanged();
+                                adapter.updateMembers(membersList);
                                 Log.d(TAG, "All " + membersList.size() + " members loaded");
                             }
                         }
@@ -255,7 +258,7 @@ public class ManageClubActivity extends AppCompatActivity implements ManageClubM
                             
                             // If all users are loaded (even with errors), update the UI
                             if (loadedCount[0] >= totalToLoad) {
-                                adapter.notifyDataSetChanged();
+                                adapter.updateMembers(membersList);
                                 Log.d(TAG, "All members loaded (with some errors)");
                             }
                         }
@@ -279,12 +282,17 @@ public class ManageClubActivity extends AppCompatActivity implements ManageClubM
                     int actualMemberCount = (int) snapshot.getChildrenCount();
                     
                     // Update the club's member count if it's different
-                    if (club.getMemberCount() != actualMemberCount) {
-                        clubRef.child("memberCount").setValue(actualMemberCount)
+                    if (club.getTotalMemberCount() != actualMemberCount) {
+                        int shardCount = club.getMemberCountShards() != null
+                            ? club.getMemberCountShards().size() : 0;
+                        MemberCounter.getDefault().reset(clubId, actualMemberCount, shardCount)
                             .addOnSuccessListener(aVoid -> {
                                 Log.d(TAG, "Member count synchronized: " + actualMemberCount);
                                 // Update local club object
                                 club.setMemberCount(actualMemberCount);
+                                if (club.getMemberCountShards() != null) {
+                                    club.getMemberCountShards().replaceAll((shard, count) -> 0L);
+                                }
                             })
                             .addOnFailureListener(e -> {
                                 Log.e(TAG, "Failed to synchronize member count", e);
@@ -339,35 +347,27 @@ public class ManageClubActivity extends AppCompatActivity implements ManageClubM
         String postId = postsRef.push().getKey();
         if (postId == null) return;
 
+        savePost(postId, content, imageUri != null);
         if (imageUri != null) {
             String imagePath = "posts/" + UUID.randomUUID().toString();
             StorageReference imageRef = storageRef.child(imagePath);
-            
-            imageRef.putFile(imageUri)
-                .addOnSuccessListener(taskSnapshot -> {
-                    imageRef.getDownloadUrl().addOnSuccessListener(downloadUri -> {
-                        savePost(postId, content, downloadUri.toString());
-                    });
-                })
+
+            // The post shows without its image until the queued upload patches it in
+            ImageUploader.enqueueVariants(this, imageUri, imageRef, "posts/" + postId)
                 .addOnFailureListener(e -> {
                     Toast.makeText(this, "Failed to upload image", Toast.LENGTH_SHORT).show();
                 });
-        } else {
-            savePost(postId, content, "");
         }
     }
 
-    private void savePost(String postId, String content, String imageUrl) {
+    private void savePost(String postId, String content, boolean withImage) {
         String userId = FirebaseAuth.getInstance().getCurrentUser().getUid();
         Post post = new Post(
             FirebaseAuth.getInstance().getCurrentUser().getUid(),
             FirebaseAuth.getInstance().getCurrentUser().getDisplayName(),
             content,
-            imageUrl != null ? "IMAGE" : "TEXT"
+            withImage ? "IMAGE" : "TEXT"
         );
-        if (imageUrl != null) {
-            post.setImageUrl(imageUrl);
-        }
         post.setClubId(club.getId());
         post.setClubName(club.getName());
         post.setAuthorName(FirebaseAuth.getInstance().getCurrentUser().getDisplayName());
@@ -393,7 +393,7 @@ public class ManageClubActivity extends AppCompatActivity implements ManageClubM
         TextView emptyView = dialogView.findViewById(R.id.emptyView);
         
         // Set title
-        titleText.setText("Club Members (" + club.getMemberCount() + ")");
+        titleText.setText("Club Members (" + club.getTotalMemberCount() + ")");
         
         // Show loading state
         progressBar.setVisibility(View.VISIBLE);
@@ -424,7 +424,7 @@ public class ManageClubActivity extends AppCompatActivity implements ManageClubM
                                      ProgressBar progressBar, TextView emptyView, RecyclerView recyclerView) {
         // Clear existing data
         membersList.clear();
-        adapter.notifyDataSetChanged();
+        adapter.updateMembers(membersList);
         
         // Log the starting of member loading
         Log.d(TAG, "Starting to load members for dialog for club: " + clubId);
@@ -512,7 +512,7 @@ public class ManageClubActivity extends AppCompatActivity implements ManageClubM
                                 } else {
                                     emptyView.setVisibility(View.GONE);
                                     recyclerView.setVisibility(View.VISIBLE);
-                                    adapter.notifyDataSetChanged();
+                                    adapter.updateMembers(membersList);
                                 }
                             }
                         }
@@ -532,7 +532,7 @@ public class ManageClubActivity extends AppCompatActivity implements ManageClubM
                                 } else {
                                     emptyView.setVisibility(View.GONE);
                                     recyclerView.setVisibility(View.VISIBLE);
-                                    adapter.notifyDataSetChanged();
+                                    adapter.updateMembers(membersList);
                                 }
                             }
                             }
@@ -606,6 +606,7 @@ public class ManageClubActivity extends AppCompatActivity implements ManageClubM
                 Toast.makeText(this, "Club details updated", Toast.LENGTH_SHORT).show();
                 club.setName(newName);
                 club.setDescription(newDescription);
+                ClubMetadataCache.getInstance().put(club);
                 getSupportActionBar().setTitle("Manage " + newName);
             })
             .addOnFailureListener(e -> 
@@ -645,12 +646,7 @@ public class ManageClubActivity extends AppCompatActivity implements ManageClubM
                     .addOnSuccessListener(aVoid -> {
                         Toast.makeText(this, "Member removed successfully", Toast.LENGTH_SHORT).show();
                         // Update member count
-                        clubRef.child("memberCount").get().addOnSuccessListener(dataSnapshot -> {
-                            if (dataSnapshot.exists()) {
-                                int currentCount = dataSnapshot.getValue(Integer.class);
-                                clubRef.child("memberCount").setValue(currentCount - 1);
-                            }
-                        });
+                        MemberCounter.decrement(club);
                     })
                     .addOnFailureListener(e -> Toast.makeText(this, "Failed to remove member", Toast.LENGTH_SHORT).show());
             })
@@ -796,27 +792,17 @@ public class ManageClubActivity extends AppCompatActivity implements ManageClubM
         Log.d(TAG, "Created event object with clubId: " + clubId);
 
         if (selectedImageUri != null) {
-            Log.d(TAG, "Uploading event image");
+            // The upload is queued in the background and patches the image into the saved event
+            Log.d(TAG, "Queueing event image upload");
             StorageReference eventImageRef = storageRef.child("event_images/" + eventId);
-            eventImageRef.putFile(selectedImageUri)
-                .addOnSuccessListener(taskSnapshot -> {
-                    Log.d(TAG, "Image upload successful");
-                    eventImageRef.getDownloadUrl().addOnSuccessListener(uri -> {
-                        event.setImageUrl(uri.toString());
-                        Log.d(TAG, "Got image URL: " + uri.toString());
-                        saveEventToDatabase(event, dialog);
-                    });
-                })
+            ImageUploader.enqueueVariants(this, selectedImageUri, eventImageRef, "events/" + eventId)
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to upload image: " + e.getMessage());
+                    Log.e(TAG, "Failed to queue image upload: " + e.getMessage());
                     Toast.makeText(this, "Failed to upload image: " + e.getMessage(), 
                         Toast.LENGTH_SHORT).show();
-                    saveEventToDatabase(event, dialog);
                 });
-        } else {
-            Log.d(TAG, "No image selected, saving event directly");
-            saveEventToDatabase(event, dialog);
         }
+        saveEventToDatabase(event, dialog);
     }
 
     private void saveEventToDatabase(Event event, AlertDialog dialog) {
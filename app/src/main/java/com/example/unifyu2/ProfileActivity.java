@@ -13,9 +13,11 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.unifyu2.adapters.ClubAdapter;
+import com.example.unifyu2.mapping.ClubMapper;
 import com.example.unifyu2.models.Club;
 import com.example.unifyu2.models.ClubMembership;
 import com.example.unifyu2.models.User;
+import com.example.unifyu2.utils.MemberCounter;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.firebase.auth.FirebaseAuth;
@@ -28,6 +30,7 @@ import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 public class ProfileActivity extends AppCompatActivity {
@@ -171,6 +174,7 @@ public class ProfileActivity extends AppCompatActivity {
                             }
                         }
 
+                        clubAdapter.setMemberClubIds(new HashSet<>(clubIds));
                         if (clubIds.isEmpty()) {
                             showNoClubs();
                         } else {
@@ -197,9 +201,8 @@ public class ProfileActivity extends AppCompatActivity {
                 loadedCount[0]++;
                 
                 if (task.isSuccessful()) {
-                    Club club = task.getResult().getValue(Club.class);
+                    Club club = ClubMapper.INSTANCE.fromSnapshot(task.getResult());
                     if (club != null) {
-                        club.setId(task.getResult().getKey());
                         clubs.add(club);
                     }
                 }
@@ -276,7 +279,7 @@ public class ProfileActivity extends AppCompatActivity {
         membershipsRef.child(membershipId).removeValue()
             .addOnSuccessListener(aVoid -> {
                 // Decrement member count
-                decrementMemberCount(club.getId());
+                decrementMemberCount(club);
             })
             .addOnFailureListener(e -> {
                 progressBar.setVisibility(View.GONE);
@@ -286,28 +289,14 @@ public class ProfileActivity extends AppCompatActivity {
             });
     }
     
-    private void decrementMemberCount(String clubId) {
-        DatabaseReference clubRef = FirebaseDatabase.getInstance().getReference("clubs").child(clubId).child("memberCount");
-        clubRef.get().addOnCompleteListener(task -> {
+    private void decrementMemberCount(Club club) {
+        MemberCounter.decrement(club).addOnCompleteListener(task -> {
+            progressBar.setVisibility(View.GONE);
             if (task.isSuccessful()) {
-                Integer currentCount = task.getResult().getValue(Integer.class);
-                if (currentCount != null && currentCount > 0) {
-                    int newCount = currentCount - 1;
-                    clubRef.setValue(newCount).addOnCompleteListener(updateTask -> {
-                        progressBar.setVisibility(View.GONE);
-                        if (updateTask.isSuccessful()) {
-                            Toast.makeText(this,
-                                "Successfully exited club",
-                                Toast.LENGTH_SHORT).show();
-                            // Refresh the clubs list
-                            loadJoinedClubs();
-                        }
-                    });
-                } else {
-                    progressBar.setVisibility(View.GONE);
-                }
+                Toast.makeText(this,
+                    "Successfully exited club",
+                    Toast.LENGTH_SHORT).show();
             } else {
-                progressBar.setVisibility(View.GONE);
                 Toast.makeText(this,
                     "Error updating member count",
                     Toast.LENGTH_SHORT).show();
@@ -1,14 +1,26 @@
 package com.example.unifyu2;
 
 import android.app.Application;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.util.Log;
+
+import androidx.core.content.ContextCompat;
+
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.auth.FirebaseAuth;
-import com.example.unifyu2.utils.ClubMemberCountFixer;
+import com.google.firebase.auth.FirebaseUser;
+import com.example.unifyu2.utils.DateFormatter;
+import com.example.unifyu2.utils.SyncPolicyManager;
+import com.example.unifyu2.workers.EventRegistrationMigrationWorker;
+import com.example.unifyu2.workers.MemberCountReconcileWorker;
 import com.example.unifyu2.notifications.NotificationHelper;
 import com.example.unifyu2.notifications.FCMManager;
+import com.example.unifyu2.notifications.TopicSubscriptionManager;
 
 public class UnifyUApplication extends Application {
     private static final String TAG = "UnifyUApplication";
@@ -29,22 +41,32 @@ public class UnifyUApplication extends Application {
         // Enable offline capabilities
         DatabaseReference.goOnline();
         
-        // Set database settings
-        FirebaseDatabase.getInstance().getReference().keepSynced(true);
+        // Keep only the signed-in user's data synced instead of the whole database
+        FirebaseAuth.getInstance().addAuthStateListener(auth -> {
+            FirebaseUser user = auth.getCurrentUser();
+            SyncPolicyManager.getInstance().setUser(user != null ? user.getUid() : null);
+            // Receive event notifications for the clubs the user belongs to
+            TopicSubscriptionManager.getInstance(this).setUser(user != null ? user.getUid() : null);
+        });
         
-        // Fix club member counts
-        fixClubMemberCounts();
+        // Reconcile club member counts in the background rather than at startup
+        MemberCountReconcileWorker.schedule(this);
+        
+        // Move registrations still embedded in events to event_registrations
+        EventRegistrationMigrationWorker.schedule(this);
         
         // Create notification channel
         NotificationHelper.createNotificationChannel(this);
-    }
-    
-    private void fixClubMemberCounts() {
-        // Only run this when a user is logged in
-        if (FirebaseAuth.getInstance().getCurrentUser() != null) {
-            Log.d(TAG, "Starting club member count synchronization");
-            ClubMemberCountFixer.synchronizeAllClubMemberCounts(() -> 
-                Log.d(TAG, "Club member count synchronization completed"));
-        }
+        
+        // Shared date formatting reads the locale and time zone once
+        IntentFilter formatChanges = new IntentFilter();
+        formatChanges.addAction(Intent.ACTION_LOCALE_CHANGED);
+        formatChanges.addAction(Intent.ACTION_TIMEZONE_CHANGED);
+        ContextCompat.registerReceiver(this, new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                DateFormatter.reset();
+            }
+        }, formatChanges, ContextCompat.RECEIVER_NOT_EXPORTED);
     }
 } 
\ No newline at end of file
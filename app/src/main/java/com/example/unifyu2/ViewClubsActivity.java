@@ -12,8 +12,13 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.unifyu2.adapters.ClubAdapter;
+import com.example.unifyu2.mapping.ClubMapper;
+import com.example.unifyu2.mapping.SnapshotCache;
+import com.example.unifyu2.mapping.SnapshotDecoder;
 import com.example.unifyu2.models.Club;
 import com.example.unifyu2.models.ClubMembership;
+import com.example.unifyu2.utils.MemberCounter;
+import com.example.unifyu2.utils.MembershipTracker;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.database.DataSnapshot;
@@ -24,7 +29,6 @@ import com.google.firebase.database.ValueEventListener;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
 import java.util.ArrayList;
-import java.util.List;
 
 public class ViewClubsActivity extends AppCompatActivity implements ClubAdapter.OnClubClickListener {
     private RecyclerView recyclerView;
@@ -33,6 +37,9 @@ public class ViewClubsActivity extends AppCompatActivity implements ClubAdapter.
     private DatabaseReference clubsRef;
     private DatabaseReference membershipsRef;
     private FirebaseAuth firebaseAuth;
+    private ValueEventListener clubsListener;
+    private final SnapshotCache<Club> clubCache = new SnapshotCache<>(ClubMapper.INSTANCE);
+    private MembershipTracker membershipTracker;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -58,26 +65,33 @@ public class ViewClubsActivity extends AppCompatActivity implements ClubAdapter.
         firebaseAuth = FirebaseAuth.getInstance();
         clubsRef = FirebaseDatabase.getInstance().getReference("clubs");
         membershipsRef = FirebaseDatabase.getInstance().getReference("memberships");
+
+        membershipTracker = new MembershipTracker(firebaseAuth.getCurrentUser().getUid());
+        membershipTracker.start(clubIds -> adapter.setMemberClubIds(clubIds));
         
         loadClubs();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (clubsListener != null) {
+            clubsRef.removeEventListener(clubsListener);
+        }
+        membershipTracker.stop();
+    }
+
     private void loadClubs() {
         progressBar.setVisibility(View.VISIBLE);
         
-        clubsRef.addValueEventListener(new ValueEventListener() {
+        clubsListener = clubsRef.addValueEventListener(new ValueEventListener() {
             @Override
             public void onDataChange(DataSnapshot dataSnapshot) {
-                List<Club> clubs = new ArrayList<>();
-                for (DataSnapshot snapshot : dataSnapshot.getChildren()) {
-                    Club club = snapshot.getValue(Club.class);
-                    if (club != null) {
-                        club.setId(snapshot.getKey());
-                        clubs.add(club);
-                    }
-                }
-                adapter.updateClubs(clubs);
-                progressBar.setVisibility(View.GONE);
+                SnapshotDecoder.decodeChildren(dataSnapshot, clubCache, clubs -> {
+                    if (isFinishing() || isDestroyed()) return;
+                    adapter.updateClubs(clubs);
+                    progressBar.setVisibility(View.GONE);
+                });
             }
 
             @Override
@@ -122,7 +136,7 @@ public class ViewClubsActivity extends AppCompatActivity implements ClubAdapter.
                     membershipsRef.child(membershipId).setValue(membership)
                             .addOnSuccessListener(aVoid -> {
                                 // Increment member count
-                                incrementMemberCount(club.getId());
+                                incrementMemberCount(club);
                             })
                             .addOnFailureListener(e -> {
                                 Toast.makeText(this,
@@ -138,20 +152,12 @@ public class ViewClubsActivity extends AppCompatActivity implements ClubAdapter.
         });
     }
 
-    private void incrementMemberCount(String clubId) {
-        DatabaseReference clubRef = FirebaseDatabase.getInstance().getReference("clubs")
-            .child(clubId).child("memberCount");
-        clubRef.get().addOnCompleteListener(task -> {
+    private void incrementMemberCount(Club club) {
+        MemberCounter.increment(club).addOnCompleteListener(task -> {
             if (task.isSuccessful()) {
-                Integer currentCount = task.getResult().getValue(Integer.class);
-                int newCount = (currentCount != null ? currentCount : 0) + 1;
-                clubRef.setValue(newCount).addOnCompleteListener(updateTask -> {
-                    if (updateTask.isSuccessful()) {
-                        Toast.makeText(this,
-                            getString(R.string.join_success),
-                            Toast.LENGTH_SHORT).show();
-                    }
-                });
+                Toast.makeText(this,
+                    getString(R.string.join_success),
+                    Toast.LENGTH_SHORT).show();
             }
         });
     }
@@ -184,8 +190,7 @@ public class ViewClubsActivity extends AppCompatActivity implements ClubAdapter.
     
     @Override
     public void onMembershipChanged(Club club) {
-        // Refresh the clubs list when membership status changes
-        loadClubs();
+        // The clubs listener and membership tracker keep the list current
     }
     
     private void exitClub(Club club) {
@@ -200,7 +205,7 @@ public class ViewClubsActivity extends AppCompatActivity implements ClubAdapter.
         membershipsRef.child(membershipId).removeValue()
             .addOnSuccessListener(aVoid -> {
                 // Decrement member count
-                decrementMemberCount(club.getId());
+                decrementMemberCount(club);
             })
             .addOnFailureListener(e -> {
                 progressBar.setVisibility(View.GONE);
@@ -210,28 +215,14 @@ public class ViewClubsActivity extends AppCompatActivity implements ClubAdapter.
             });
     }
     
-    private void decrementMemberCount(String clubId) {
-        DatabaseReference clubRef = FirebaseDatabase.getInstance().getReference("clubs").child(clubId).child("memberCount");
-        clubRef.get().addOnCompleteListener(task -> {
+    private void decrementMemberCount(Club club) {
+        MemberCounter.decrement(club).addOnCompleteListener(task -> {
+            progressBar.setVisibility(View.GONE);
             if (task.isSuccessful()) {
-                Integer currentCount = task.getResult().getValue(Integer.class);
-                if (currentCount != null && currentCount > 0) {
-                    int newCount = currentCount - 1;
-                    clubRef.setValue(newCount).addOnCompleteListener(updateTask -> {
-                        progressBar.setVisibility(View.GONE);
-                        if (updateTask.isSuccessful()) {
-                            Toast.makeText(this,
-                                "Successfully exited club",
-                                Toast.LENGTH_SHORT).show();
-                            // Refresh the clubs list
-                            loadClubs();
-                        }
-                    });
-                } else {
-                    progressBar.setVisibility(View.GONE);
-                }
+                Toast.makeText(this,
+                    "Successfully exited club",
+                    Toast.LENGTH_SHORT).show();
             } else {
-                progressBar.setVisibility(View.GONE);
                 Toast.makeText(this,
                     "Error updating member count",
                     Toast.LENGTH_SHORT).show();
@@ -12,7 +12,12 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
 import com.bumptech.glide.Glide;
+import com.example.unifyu2.glide.ImageVariantsLoader;
+import com.example.unifyu2.mapping.EventMapper;
 import com.example.unifyu2.models.Event;
+import com.example.unifyu2.utils.EventRegistrationEngine;
+import com.example.unifyu2.utils.ClubMetadataCache;
+import com.example.unifyu2.utils.DateFormatter;
 import com.google.android.material.button.MaterialButton;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.database.DataSnapshot;
@@ -21,15 +26,18 @@ import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
 
 public class ViewEventActivity extends AppCompatActivity {
     private String eventId;
     private DatabaseReference eventRef;
-    private DatabaseReference clubRef;
+    private DatabaseReference registrationRef;
+    private ValueEventListener registrationListener;
+    private DatabaseReference waitlistRef;
+    private ValueEventListener waitlistListener;
     private Event currentEvent;
+    private boolean isRegistered;
+    private boolean isWaitlisted;
+    private int waitlistPosition;
     
     private ImageView eventImage;
     private TextView eventTitle;
@@ -56,7 +64,11 @@ public class ViewEventActivity extends AppCompatActivity {
 
         // Initialize Firebase references
         eventRef = FirebaseDatabase.getInstance().getReference("events").child(eventId);
-        clubRef = FirebaseDatabase.getInstance().getReference("clubs");
+        String currentUserId = FirebaseAuth.getInstance().getCurrentUser().getUid();
+        registrationRef = FirebaseDatabase.getInstance().getReference("event_registrations")
+            .child(eventId).child(currentUserId);
+        waitlistRef = FirebaseDatabase.getInstance().getReference("event_waitlist")
+            .child(eventId).child(currentUserId);
 
         // Initialize views
         initializeViews();
@@ -71,6 +83,7 @@ public class ViewEventActivity extends AppCompatActivity {
 
         // Load event details
         loadEventDetails();
+        listenForRegistration();
     }
 
     private void initializeViews() {
@@ -101,7 +114,7 @@ public class ViewEventActivity extends AppCompatActivity {
                     return;
                 }
 
-                currentEvent = snapshot.getValue(Event.class);
+                currentEvent = EventMapper.INSTANCE.fromSnapshot(snapshot);
                 if (currentEvent != null) {
                     displayEventDetails();
                     loadClubDetails();
@@ -118,20 +131,67 @@ public class ViewEventActivity extends AppCompatActivity {
         });
     }
 
+    private void listenForRegistration() {
+        registrationListener = registrationRef.addValueEventListener(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                isRegistered = snapshot.exists();
+                if (currentEvent != null) {
+                    updateRegistrationButton();
+                }
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Toast.makeText(ViewEventActivity.this, 
+                    "Error loading registration: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+        });
+
+        waitlistListener = waitlistRef.addValueEventListener(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                isWaitlisted = snapshot.exists();
+                if (isWaitlisted) {
+                    loadWaitlistPosition();
+                } else if (currentEvent != null) {
+                    updateRegistrationButton();
+                }
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Toast.makeText(ViewEventActivity.this, 
+                    "Error loading waitlist: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void loadWaitlistPosition() {
+        String currentUserId = FirebaseAuth.getInstance().getCurrentUser().getUid();
+        EventRegistrationEngine.getDefault().getWaitlistPosition(eventId, currentUserId)
+            .addOnSuccessListener(position -> {
+                if (isFinishing() || isDestroyed()) return;
+                waitlistPosition = position;
+                if (currentEvent != null) {
+                    updateRegistrationButton();
+                }
+            });
+    }
+
     private void displayEventDetails() {
         eventTitle.setText(currentEvent.getTitle());
         eventVenue.setText(currentEvent.getVenue());
         eventDescription.setText(currentEvent.getDescription());
 
         // Format and display date
-        SimpleDateFormat sdf = new SimpleDateFormat("dd MMM yyyy, HH:mm", Locale.getDefault());
-        eventDateTime.setText(sdf.format(new Date(currentEvent.getDate())));
+        eventDateTime.setText(DateFormatter.formatDateTime(currentEvent.getDate()));
 
         // Load event image if available
         if (currentEvent.getImageUrl() != null && !currentEvent.getImageUrl().isEmpty()) {
             eventImage.setVisibility(View.VISIBLE);
             Glide.with(this)
-                .load(currentEvent.getImageUrl())
+                .load(ImageVariantsLoader.model(currentEvent.getImageVariants(), currentEvent.getImageUrl()))
                 .centerCrop()
                 .into(eventImage);
         } else {
@@ -148,67 +208,59 @@ public class ViewEventActivity extends AppCompatActivity {
     }
 
     private void loadClubDetails() {
-        clubRef.child(currentEvent.getClubId()).addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                String name = snapshot.child("name").getValue(String.class);
-                if (name != null) {
-                    clubName.setText(name);
-                    clubName.setVisibility(View.VISIBLE);
-                }
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                // Handle error silently
-            }
+        ClubMetadataCache.getInstance().get(currentEvent.getClubId(), club -> {
+            if (isFinishing() || club == null || club.getName() == null) return;
+            clubName.setText(club.getName());
+            clubName.setVisibility(View.VISIBLE);
         });
     }
 
     private void updateRegistrationButton() {
-        String currentUserId = FirebaseAuth.getInstance().getCurrentUser().getUid();
-        boolean isRegistered = currentEvent.isRegistered(currentUserId);
-        
         if (isRegistered) {
             registerButton.setText("Unregister");
             registerButton.setStrokeColor(getColorStateList(R.color.error));
             registerButton.setTextColor(getColor(R.color.error));
+        } else if (isWaitlisted) {
+            registerButton.setText(waitlistPosition > 0
+                ? "Leave Waitlist (#" + waitlistPosition + ")" : "Leave Waitlist");
+            registerButton.setStrokeColor(getColorStateList(R.color.error));
+            registerButton.setTextColor(getColor(R.color.error));
         } else {
-            registerButton.setText("Register");
+            // Full events take new registrations onto the waitlist
+            registerButton.setText(currentEvent.isRegistrationOpen() && !currentEvent.canRegister() ? "Join Waitlist" : "Register");
             registerButton.setStrokeColor(getColorStateList(R.color.primary));
             registerButton.setTextColor(getColor(R.color.primary));
         }
         
-        registerButton.setEnabled(currentEvent.isRegistrationOpen());
+        registerButton.setEnabled(currentEvent.isRegistrationOpen() || isRegistered || isWaitlisted);
     }
 
     private void handleRegistration() {
+        if (currentEvent == null) return;
         String currentUserId = FirebaseAuth.getInstance().getCurrentUser().getUid();
-        boolean isRegistered = currentEvent.isRegistered(currentUserId);
         
-        if (isRegistered) {
-            // Unregister
-            eventRef.child("registeredUsers").child(currentUserId).removeValue()
-                .addOnSuccessListener(aVoid -> {
-                    Toast.makeText(this, "Successfully unregistered", Toast.LENGTH_SHORT).show();
+        if (isRegistered || isWaitlisted) {
+            // Unregister or leave the waitlist; a freed seat goes to the next user on the waitlist
+            EventRegistrationEngine.getDefault().cancel(eventId, currentUserId)
+                .addOnSuccessListener(outcome -> {
+                    Toast.makeText(this, outcome.message, Toast.LENGTH_SHORT).show();
                 })
                 .addOnFailureListener(e -> 
                     Toast.makeText(this, "Failed to unregister: " + e.getMessage(), 
                         Toast.LENGTH_SHORT).show()
                 );
         } else {
-            // Check if registration is still possible
-            if (!currentEvent.canRegister()) {
-                Toast.makeText(this, "Registration is closed or event is full", 
-                    Toast.LENGTH_SHORT).show();
+            // Full events are handled by the engine, which adds the user to the waitlist
+            if (!currentEvent.isRegistrationOpen()) {
+                Toast.makeText(this, "Registration is closed", Toast.LENGTH_SHORT).show();
                 return;
             }
             
-            // Register with phone number
-            eventRef.child("registeredUsers").child(currentUserId)
-                .setValue(FirebaseAuth.getInstance().getCurrentUser().getPhoneNumber())
-                .addOnSuccessListener(aVoid -> {
-                    Toast.makeText(this, "Successfully registered", Toast.LENGTH_SHORT).show();
+            // Register with phone number, or join the waitlist if the event is full
+            EventRegistrationEngine.getDefault().register(eventId, currentUserId,
+                    FirebaseAuth.getInstance().getCurrentUser().getPhoneNumber())
+                .addOnSuccessListener(outcome -> {
+                    Toast.makeText(this, outcome.message, Toast.LENGTH_SHORT).show();
                 })
                 .addOnFailureListener(e -> 
                     Toast.makeText(this, "Failed to register: " + e.getMessage(), 
@@ -217,6 +269,17 @@ public class ViewEventActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (registrationListener != null) {
+            registrationRef.removeEventListener(registrationListener);
+        }
+        if (waitlistListener != null) {
+            waitlistRef.removeEventListener(waitlistListener);
+        }
+    }
+
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         if (item.getItemId() == android.R.id.home) {
@@ -1,6 +1,5 @@
 package com.example.unifyu2.adapters;
 
-import android.content.Context;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -9,33 +8,89 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.unifyu2.R;
 import com.example.unifyu2.models.Club;
+import com.example.unifyu2.utils.MemberCounter;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
-public class ClubAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+public class ClubAdapter extends ListAdapter<Object, RecyclerView.ViewHolder> {
     private static final int VIEW_TYPE_HEADER = 0;
     private static final int VIEW_TYPE_CLUB = 1;
+    private static final Object PAYLOAD_MEMBER_COUNT = new Object();
 
-    private List<Object> items; // Can be either String (header) or Club
+    /** A club and whether the current user belongs to it, as bound into one row */
+    private static final class ClubRow {
+        final Club club;
+        final boolean member;
+
+        ClubRow(Club club, boolean member) {
+            this.club = club;
+            this.member = member;
+        }
+    }
+
+    // Items are section titles or ClubRows
+    private static final DiffUtil.ItemCallback<Object> DIFF_CALLBACK = new DiffUtil.ItemCallback<Object>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Object oldItem, @NonNull Object newItem) {
+            if (oldItem instanceof ClubRow && newItem instanceof ClubRow) {
+                return Objects.equals(((ClubRow) oldItem).club.getId(), ((ClubRow) newItem).club.getId());
+            }
+            return oldItem.equals(newItem);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Object oldItem, @NonNull Object newItem) {
+            if (oldItem instanceof ClubRow && newItem instanceof ClubRow) {
+                ClubRow oldRow = (ClubRow) oldItem;
+                ClubRow newRow = (ClubRow) newItem;
+                // Unchanged nodes keep their instance, see SnapshotCache
+                if (oldRow.club == newRow.club && oldRow.member == newRow.member) return true;
+                return sameDetails(oldRow, newRow)
+                    && oldRow.club.getTotalMemberCount() == newRow.club.getTotalMemberCount();
+            }
+            return true;
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull Object oldItem, @NonNull Object newItem) {
+            return sameDetails((ClubRow) oldItem, (ClubRow) newItem) ? PAYLOAD_MEMBER_COUNT : null;
+        }
+
+        private boolean sameDetails(ClubRow a, ClubRow b) {
+            return a.member == b.member
+                && Objects.equals(a.club.getName(), b.club.getName())
+                && Objects.equals(a.club.getDescription(), b.club.getDescription())
+                && Objects.equals(a.club.getAdminId(), b.club.getAdminId())
+                && Objects.equals(a.club.getImageUrl(), b.club.getImageUrl());
+        }
+    };
+
+    private final StableIds stableIds = new StableIds();
     private OnClubClickListener listener;
     private String currentUserId;
     private DatabaseReference membershipsRef;
+    private List<Club> clubs = new ArrayList<>();
+    private Set<String> memberClubIds = new HashSet<>();
 
     public interface OnClubClickListener {
         void onClubClick(Club club);
@@ -45,10 +100,11 @@ public class ClubAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
     }
 
     public ClubAdapter(List<Club> clubs, OnClubClickListener listener, String currentUserId) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
         this.currentUserId = currentUserId;
         this.membershipsRef = FirebaseDatabase.getInstance().getReference("memberships");
-        this.items = new ArrayList<>();
+        setHasStableIds(true);
         updateClubs(clubs);
     }
 
@@ -69,112 +125,99 @@ public class ClubAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
         if (holder instanceof HeaderViewHolder) {
             HeaderViewHolder headerHolder = (HeaderViewHolder) holder;
-            headerHolder.headerTitle.setText((String) items.get(position));
+            headerHolder.headerTitle.setText((String) getItem(position));
         } else if (holder instanceof ClubViewHolder) {
             ClubViewHolder clubHolder = (ClubViewHolder) holder;
-            Club club = (Club) items.get(position);
-            clubHolder.bind(club, listener, currentUserId, membershipsRef);
+            ClubRow row = (ClubRow) getItem(position);
+            clubHolder.bind(row.club, listener, currentUserId, membershipsRef, row.member);
         }
     }
 
     @Override
-    public int getItemCount() {
-        return items.size();
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position,
+                                 @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        ((ClubViewHolder) holder).bindMemberCount(((ClubRow) getItem(position)).club);
     }
 
     @Override
     public int getItemViewType(int position) {
-        return items.get(position) instanceof String ? VIEW_TYPE_HEADER : VIEW_TYPE_CLUB;
+        return getItem(position) instanceof String ? VIEW_TYPE_HEADER : VIEW_TYPE_CLUB;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        Object item = getItem(position);
+        return stableIds.idFor(item instanceof ClubRow ? ((ClubRow) item).club.getId() : "header:" + item);
     }
 
+    /**
+     * Replaces the clubs and classifies them locally against the membership set
+     * from {@link #setMemberClubIds}, so no per-club reads are needed.
+     */
     public void updateClubs(List<Club> newClubs) {
-        items.clear();
-        
-        Log.d("ClubAdapter", "Updating clubs with " + newClubs.size() + " clubs: " + newClubs);
-        
+        clubs = StableIds.keyed(newClubs, Club::getId);
+        classifyClubs();
+    }
+
+    /** Sets the IDs of clubs the current user belongs to and reclassifies the list. */
+    public void setMemberClubIds(Set<String> clubIds) {
+        memberClubIds = new HashSet<>(clubIds);
+        classifyClubs();
+    }
+
+    private void classifyClubs() {
         List<Club> adminClubs = new ArrayList<>();
         List<Club> memberClubs = new ArrayList<>();
         List<Club> otherClubs = new ArrayList<>();
-        
-        // First pass: separate admin clubs
-        for (Club club : newClubs) {
-            if (club.getAdminId() != null && club.getAdminId().equals(currentUserId)) {
-                Log.d("ClubAdapter", "Adding club to admin list: " + club);
+
+        for (Club club : clubs) {
+            if (isAdmin(club)) {
                 adminClubs.add(club);
+            } else if (memberClubIds.contains(club.getId())) {
+                memberClubs.add(club);
             } else {
-                // Temporarily add to otherClubs, will check membership later
-                Log.d("ClubAdapter", "Club " + club.getName() + " not admin, checking membership");
                 otherClubs.add(club);
             }
         }
-        
-        // If no clubs to process, show final list
-        if (otherClubs.isEmpty()) {
-            refreshList(adminClubs, memberClubs, otherClubs);
-            return;
-        }
-        
-        // Second pass: check memberships for remaining clubs
-        List<Club> clubsToCheck = new ArrayList<>(otherClubs);
-        final int[] processedCount = {0};
-        final int totalToProcess = clubsToCheck.size();
-        
-        for (Club club : clubsToCheck) {
-            String membershipId = currentUserId + "_" + club.getId();
-            Log.d("ClubAdapter", "Checking membership: " + membershipId);
-            
-            membershipsRef.child(membershipId).addListenerForSingleValueEvent(new ValueEventListener() {
-                @Override
-                public void onDataChange(@NonNull DataSnapshot snapshot) {
-                    processedCount[0]++;
-                    
-                    if (snapshot.exists()) {
-                        Log.d("ClubAdapter", "User is a member of club: " + club.getName());
-                        otherClubs.remove(club);
-                        memberClubs.add(club);
-                    } else {
-                        Log.d("ClubAdapter", "User is NOT a member of club: " + club.getName());
-                    }
-                    
-                    if (processedCount[0] >= totalToProcess) {
-                        Log.d("ClubAdapter", "Membership checks complete. Refreshing list.");
-                        refreshList(adminClubs, memberClubs, otherClubs);
-                    }
-                }
-                
-                @Override
-                public void onCancelled(@NonNull DatabaseError error) {
-                    processedCount[0]++;
-                    Log.e("ClubAdapter", "Error checking membership: " + error.getMessage());
-                    
-                    if (processedCount[0] >= totalToProcess) {
-                        Log.d("ClubAdapter", "Membership checks complete (with errors). Refreshing list.");
-                        refreshList(adminClubs, memberClubs, otherClubs);
-                    }
-                }
-            });
-        }
+
+        Log.d("ClubAdapter", "Classified " + clubs.size() + " clubs: " + adminClubs.size() + " managed, "
+            + memberClubs.size() + " joined, " + otherClubs.size() + " other");
+        refreshList(adminClubs, memberClubs, otherClubs);
+    }
+
+    private boolean isAdmin(Club club) {
+        return club.getAdminId() != null && club.getAdminId().equals(currentUserId);
     }
     
     private void refreshList(List<Club> adminClubs, List<Club> memberClubs, List<Club> otherClubs) {
-        items.clear();
+        List<Object> items = new ArrayList<>();
         
         if (!adminClubs.isEmpty()) {
             items.add("Clubs You Manage");
-            items.addAll(adminClubs);
+            addRows(items, adminClubs);
         }
         
         if (!memberClubs.isEmpty()) {
             items.add("Clubs You've Joined");
-            items.addAll(memberClubs);
+            addRows(items, memberClubs);
         }
         
         if (!otherClubs.isEmpty()) {
             items.add("Other Clubs");
-            items.addAll(otherClubs);
+            addRows(items, otherClubs);
         }
         
-        notifyDataSetChanged();
+        submitList(items);
+    }
+
+    private void addRows(List<Object> items, List<Club> sectionClubs) {
+        for (Club club : sectionClubs) {
+            items.add(new ClubRow(club, memberClubIds.contains(club.getId())));
+        }
     }
 
     static class HeaderViewHolder extends RecyclerView.ViewHolder {
@@ -208,66 +251,38 @@ public class ClubAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
             membershipStatus = itemView.findViewById(R.id.membershipStatus);
         }
 
-        void bind(Club club, OnClubClickListener listener, String currentUserId, DatabaseReference membershipsRef) {
+        void bind(Club club, OnClubClickListener listener, String currentUserId,
+                  DatabaseReference membershipsRef, boolean isMember) {
             nameText.setText(club.getName());
             descriptionText.setText(club.getDescription());
-            memberCountText.setText(itemView.getContext().getString(
-                R.string.member_count, club.getMemberCount()));
-            
-            // Default visibility
-            joinButton.setVisibility(View.GONE);
-            exitButton.setVisibility(View.GONE);
-            adminPanel.setVisibility(View.GONE);
-            membershipStatus.setVisibility(View.GONE);
-
-            // Check if current user is admin
-            boolean isAdmin = club.getAdminId().equals(currentUserId);
-            
-            // Check if current user is a member
+            bindMemberCount(club);
+
+            boolean isAdmin = currentUserId.equals(club.getAdminId());
             final String membershipId = currentUserId + "_" + club.getId();
-            
-            Log.d("ClubAdapter", "Checking membership for club: " + club.getName() + " (ID: " + club.getId() + ")");
-            Log.d("ClubAdapter", "Membership ID: " + membershipId);
-            Log.d("ClubAdapter", "Membership reference path: " + membershipsRef.child(membershipId).toString());
-            
-            membershipsRef.child(membershipId).addListenerForSingleValueEvent(new ValueEventListener() {
-                @Override
-                public void onDataChange(@NonNull DataSnapshot snapshot) {
-                    boolean isMember = snapshot.exists();
-                    Log.d("ClubAdapter", "Is member: " + isMember + " for club: " + club.getName());
-                    
-                    Context context = itemView.getContext();
-                    
-                    if (isAdmin) {
-                        // Admin UI
-                        joinButton.setVisibility(View.GONE);
-                        exitButton.setVisibility(View.GONE);
-                        adminPanel.setVisibility(View.VISIBLE);
-                        membershipStatus.setVisibility(View.VISIBLE);
-                        membershipStatus.setText(R.string.admin_status);
-                        membershipStatus.setChipBackgroundColorResource(R.color.admin_chip_background);
-                    } else if (isMember) {
-                        // Member UI
-                        joinButton.setVisibility(View.GONE);
-                        exitButton.setVisibility(View.VISIBLE);
-                        adminPanel.setVisibility(View.GONE);
-                        membershipStatus.setVisibility(View.VISIBLE);
-                        membershipStatus.setText(R.string.member_status);
-                        membershipStatus.setChipBackgroundColorResource(R.color.member_chip_background);
-                    } else {
-                        // Non-member UI
-                        joinButton.setVisibility(View.VISIBLE);
-                        exitButton.setVisibility(View.GONE);
-                        adminPanel.setVisibility(View.GONE);
-                        membershipStatus.setVisibility(View.GONE);
-                    }
-                }
-
-                @Override
-                public void onCancelled(@NonNull DatabaseError error) {
-                    // Handle error
-                }
-            });
+
+            if (isAdmin) {
+                // Admin UI
+                joinButton.setVisibility(View.GONE);
+                exitButton.setVisibility(View.GONE);
+                adminPanel.setVisibility(View.VISIBLE);
+                membershipStatus.setVisibility(View.VISIBLE);
+                membershipStatus.setText(R.string.admin_status);
+                membershipStatus.setChipBackgroundColorResource(R.color.admin_chip_background);
+            } else if (isMember) {
+                // Member UI
+                joinButton.setVisibility(View.GONE);
+                exitButton.setVisibility(View.VISIBLE);
+                adminPanel.setVisibility(View.GONE);
+                membershipStatus.setVisibility(View.VISIBLE);
+                membershipStatus.setText(R.string.member_status);
+                membershipStatus.setChipBackgroundColorResource(R.color.member_chip_background);
+            } else {
+                // Non-member UI
+                joinButton.setVisibility(View.VISIBLE);
+                exitButton.setVisibility(View.GONE);
+                adminPanel.setVisibility(View.GONE);
+                membershipStatus.setVisibility(View.GONE);
+            }
 
             // Set click listeners
             itemView.setOnClickListener(v -> listener.onClubClick(club));
@@ -293,42 +308,31 @@ public class ClubAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
                         Log.d("ClubAdapter", "Successfully joined club: " + club.getName());
                         
                         // Increment member count
-                        DatabaseReference clubRef = FirebaseDatabase.getInstance()
-                            .getReference("clubs")
-                            .child(club.getId());
-                            
-                        clubRef.child("memberCount").get().addOnCompleteListener(task -> {
+                        MemberCounter.increment(club).addOnCompleteListener(task -> {
                             if (task.isSuccessful()) {
-                                Integer currentCount = task.getResult().getValue(Integer.class);
-                                if (currentCount != null) {
-                                    clubRef.child("memberCount").setValue(currentCount + 1);
-                                    
-                                    // Update club in local list
-                                    club.setMemberCount(currentCount + 1);
-                                    
-                                    // Update UI immediately
-                                    joinButton.setVisibility(View.GONE);
-                                    exitButton.setVisibility(View.VISIBLE);
-                                    membershipStatus.setVisibility(View.VISIBLE);
-                                    membershipStatus.setText(R.string.member_status);
-                                    membershipStatus.setChipBackgroundColorResource(R.color.member_chip_background);
-                                    
-                                    // Update member count text
-                                    memberCountText.setText(itemView.getContext().getString(
-                                        R.string.member_count, currentCount + 1));
-                                        
-                                    // We can't use ClubAdapter.this.notifyDataSetChanged() from a static context
-                                    // Instead, use the listener to trigger a UI refresh
-                                    if (listener != null) {
-                                        // Notify the UI that the data has changed by calling a method on the activity
-                                        ((OnClubClickListener) listener).onMembershipChanged(club);
-                                    }
-                                        
-                                    // Show toast
-                                    Toast.makeText(itemView.getContext(),
-                                        "Successfully joined " + club.getName(),
-                                        Toast.LENGTH_SHORT).show();
+                                // The club belongs to the fragment's SnapshotCache, so leave the
+                                // count to the clubs listener instead of mutating it here
+                                
+                                // Update UI immediately
+                                joinButton.setVisibility(View.GONE);
+                                exitButton.setVisibility(View.VISIBLE);
+                                membershipStatus.setVisibility(View.VISIBLE);
+                                membershipStatus.setText(R.string.member_status);
+                                membershipStatus.setChipBackgroundColorResource(R.color.member_chip_background);
+                                
+                                // We can't use ClubAdapter.this.notifyDataSetChanged() from a static context
+                                // Instead, use the listener to trigger a UI refresh
+                                if (listener != null) {
+                                    // Notify the UI that the data has changed by calling a method on the activity
+                                    ((OnClubClickListener) listener).onMembershipChanged(club);
                                 }
+                                    
+                                // Show toast
+                                Toast.makeText(itemView.getContext(),
+                                    "Successfully joined " + club.getName(),
+                                    Toast.LENGTH_SHORT).show();
+                            } else {
+                                Log.e("ClubAdapter", "Failed to increment member count", task.getException());
                             }
                             joinButton.setEnabled(true);
                         });
@@ -342,5 +346,10 @@ public class ClubAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
                     });
             });
         }
+
+        void bindMemberCount(Club club) {
+            memberCountText.setText(itemView.getContext().getString(
+                R.string.member_count, club.getTotalMemberCount()));
+        }
     }
 } 
\ No newline at end of file
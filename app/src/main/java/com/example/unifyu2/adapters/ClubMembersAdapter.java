@@ -9,13 +9,15 @@ import android.widget.PopupMenu;
 import android.widget.TextView;
 import android.widget.Toast;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.unifyu2.R;
 import com.example.unifyu2.models.User;
 import java.util.List;
 
-public class ClubMembersAdapter extends RecyclerView.Adapter<ClubMembersAdapter.ViewHolder> {
-    private List<User> members;
+public class ClubMembersAdapter extends ListAdapter<User, ClubMembersAdapter.ViewHolder> {
+    private static final Object PAYLOAD_ADMIN = new Object();
+    private final StableIds stableIds = new StableIds();
     private Context context;
     private boolean isAdmin = false;
     private OnMemberActionListener actionListener;
@@ -26,14 +28,20 @@ public class ClubMembersAdapter extends RecyclerView.Adapter<ClubMembersAdapter.
     }
 
     public ClubMembersAdapter(Context context, List<User> members, OnMemberActionListener listener) {
+        super(UserDiffCallback.INSTANCE);
         this.context = context;
-        this.members = members;
         this.actionListener = listener;
+        setHasStableIds(true);
+        submitList(StableIds.keyed(members, User::getId));
+    }
+
+    public void updateMembers(List<User> newMembers) {
+        submitList(StableIds.keyed(newMembers, User::getId));
     }
 
     public void setAdminStatus(boolean isAdmin) {
         this.isAdmin = isAdmin;
-        notifyDataSetChanged();
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_ADMIN);
     }
 
     @NonNull
@@ -45,9 +53,26 @@ public class ClubMembersAdapter extends RecyclerView.Adapter<ClubMembersAdapter.
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        User member = members.get(position);
+        User member = getItem(position);
         holder.memberName.setText(member.getUsername());
-        
+        bindMenu(holder, member);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        bindMenu(holder, getItem(position));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idFor(getItem(position).getId());
+    }
+
+    private void bindMenu(ViewHolder holder, User member) {
         if (isAdmin) {
             holder.menuButton.setVisibility(View.VISIBLE);
             holder.menuButton.setOnClickListener(v -> showPopupMenu(v, member));
@@ -81,11 +106,6 @@ public class ClubMembersAdapter extends RecyclerView.Adapter<ClubMembersAdapter.
         popup.show();
     }
 
-    @Override
-    public int getItemCount() {
-        return members.size();
-    }
-
     static class ViewHolder extends RecyclerView.ViewHolder {
         TextView memberName;
         ImageButton menuButton;
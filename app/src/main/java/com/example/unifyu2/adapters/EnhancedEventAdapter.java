@@ -10,12 +10,19 @@ import android.widget.Toast;
 import android.widget.PopupMenu;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.example.unifyu2.R;
-import com.example.unifyu2.models.Club;
+import com.example.unifyu2.glide.BlurHashPlaceholders;
+import com.example.unifyu2.glide.ImageVariantsLoader;
 import com.example.unifyu2.models.Event;
+import com.example.unifyu2.utils.EventRegistrationEngine;
+import com.example.unifyu2.utils.ClubMetadataCache;
+import com.example.unifyu2.utils.DateFormatter;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
@@ -27,19 +34,63 @@ import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
-public class EnhancedEventAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+public class EnhancedEventAdapter extends ListAdapter<Object, RecyclerView.ViewHolder> {
     private static final int VIEW_TYPE_HEADER = 0;
     private static final int VIEW_TYPE_ACTIVE_EVENT = 1;
     private static final int VIEW_TYPE_PAST_HEADER = 2;
     private static final int VIEW_TYPE_PAST_EVENT = 3;
+    private static final String ACTIVE_HEADER = "Upcoming Events";
+    private static final String PAST_HEADER = "Past Events";
+    private static final Object PAYLOAD_ADMIN = new Object();
+    
+    /** An event in the upcoming or the past section */
+    private static final class EventRow {
+        final Event event;
+        final boolean past;
+        
+        EventRow(Event event, boolean past) {
+            this.event = event;
+            this.past = past;
+        }
+    }
+    
+    // Items are section titles or EventRows
+    private static final DiffUtil.ItemCallback<Object> DIFF_CALLBACK = new DiffUtil.ItemCallback<Object>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Object oldItem, @NonNull Object newItem) {
+            if (oldItem instanceof EventRow && newItem instanceof EventRow) {
+                return EventDiffCallback.INSTANCE.areItemsTheSame(((EventRow) oldItem).event, ((EventRow) newItem).event);
+            }
+            return oldItem.equals(newItem);
+        }
+        
+        @Override
+        public boolean areContentsTheSame(@NonNull Object oldItem, @NonNull Object newItem) {
+            if (oldItem instanceof EventRow && newItem instanceof EventRow) {
+                EventRow oldRow = (EventRow) oldItem;
+                EventRow newRow = (EventRow) newItem;
+                return oldRow.past == newRow.past
+                    && EventDiffCallback.INSTANCE.areContentsTheSame(oldRow.event, newRow.event);
+            }
+            return true;
+        }
+        
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull Object oldItem, @NonNull Object newItem) {
+            EventRow oldRow = (EventRow) oldItem;
+            EventRow newRow = (EventRow) newItem;
+            return oldRow.past == newRow.past
+                ? EventDiffCallback.INSTANCE.getChangePayload(oldRow.event, newRow.event) : null;
+        }
+    };
     
     public interface OnEventAdminActionListener {
         void onEditEvent(Event event);
@@ -50,29 +101,31 @@ public class EnhancedEventAdapter extends RecyclerView.Adapter<RecyclerView.View
     
     private final String clubId;
     private final Context context;
-    private List<Event> activeEvents;
-    private List<Event> pastEvents;
     private final String currentUserId;
-    private final DatabaseReference eventsRef;
+    private final StableIds stableIds = new StableIds();
     private final DatabaseReference clubsRef;
-    private final Map<String, String> clubNames;
     private final Map<String, Boolean> adminStatus;
     private OnEventAdminActionListener adminActionListener;
+    private Set<String> registeredEventIds = new HashSet<>();
+    
+    // Changes made since the last frame, applied together by updateCoalescer
+    private final FrameCoalescer updateCoalescer = new FrameCoalescer(this::applyPendingUpdates);
+    private List<Event> pendingEvents;
+    private boolean adminChanged;
+    private boolean registrationChanged;
     
     public EnhancedEventAdapter(Context context) {
         this(context, null);
     }
     
     public EnhancedEventAdapter(Context context, String clubId) {
+        super(DIFF_CALLBACK);
         this.context = context;
         this.clubId = clubId;
-        this.activeEvents = new ArrayList<>();
-        this.pastEvents = new ArrayList<>();
         this.currentUserId = FirebaseAuth.getInstance().getCurrentUser().getUid();
-        this.eventsRef = FirebaseDatabase.getInstance().getReference("events");
         this.clubsRef = FirebaseDatabase.getInstance().getReference("clubs");
-        this.clubNames = new HashMap<>();
         this.adminStatus = new HashMap<>();
+        setHasStableIds(true);
         
         // Check admin status only if clubId is provided
         if (clubId != null) {
@@ -90,7 +143,8 @@ public class EnhancedEventAdapter extends RecyclerView.Adapter<RecyclerView.View
                     String adminId = snapshot.getValue(String.class);
                     boolean isAdmin = adminId != null && adminId.equals(currentUserId);
                     adminStatus.put(clubId, isAdmin);
-                    notifyDataSetChanged();
+                    adminChanged = true;
+                    updateCoalescer.request();
                 }
             }
 
@@ -105,6 +159,13 @@ public class EnhancedEventAdapter extends RecyclerView.Adapter<RecyclerView.View
         this.adminActionListener = listener;
     }
     
+    /** Sets the IDs of events the current user is registered for. */
+    public void setRegisteredEventIds(Set<String> eventIds) {
+        registeredEventIds = new HashSet<>(eventIds);
+        registrationChanged = true;
+        updateCoalescer.request();
+    }
+    
     @NonNull
     @Override
     public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -134,119 +195,91 @@ public class EnhancedEventAdapter extends RecyclerView.Adapter<RecyclerView.View
     
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        Object item = getItem(position);
         if (holder instanceof HeaderViewHolder) {
-            HeaderViewHolder headerHolder = (HeaderViewHolder) holder;
-            if (getItemViewType(position) == VIEW_TYPE_HEADER) {
-                headerHolder.headerTitle.setText("Upcoming Events");
-            } else {
-                headerHolder.headerTitle.setText("Past Events");
-            }
+            ((HeaderViewHolder) holder).headerTitle.setText((String) item);
         } else if (holder instanceof ActiveEventViewHolder) {
-            ActiveEventViewHolder eventHolder = (ActiveEventViewHolder) holder;
-            Event event = getActiveEventAt(position);
-            eventHolder.bind(event);
+            ((ActiveEventViewHolder) holder).bind(((EventRow) item).event);
         } else if (holder instanceof PastEventViewHolder) {
-            PastEventViewHolder eventHolder = (PastEventViewHolder) holder;
-            Event event = getPastEventAt(position);
-            eventHolder.bind(event);
+            ((PastEventViewHolder) holder).bind(((EventRow) item).event);
         }
     }
     
     @Override
-    public int getItemCount() {
-        int count = 0;
-        
-        // Active events section (header + events)
-        if (!activeEvents.isEmpty()) {
-            count += 1 + activeEvents.size(); // Header + events
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position,
+                                 @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
         }
-        
-        // Past events section (header + events)
-        if (!pastEvents.isEmpty()) {
-            count += 1 + pastEvents.size(); // Header + events
+        if (holder instanceof ActiveEventViewHolder) {
+            ActiveEventViewHolder eventHolder = (ActiveEventViewHolder) holder;
+            Event event = ((EventRow) getItem(position)).event;
+            for (Object payload : payloads) {
+                if (payload == PAYLOAD_ADMIN) {
+                    eventHolder.bindAdminActions(event);
+                } else {
+                    eventHolder.bindRegistration(event);
+                }
+            }
+        } else if (holder instanceof PastEventViewHolder && payloads.contains(EventDiffCallback.PAYLOAD_REGISTRATION)) {
+            // Past events have no admin controls, only the attendance count
+            ((PastEventViewHolder) holder).bindAttendance(((EventRow) getItem(position)).event);
         }
-        
-        return count;
     }
     
     @Override
     public int getItemViewType(int position) {
-        int activeEventsCount = activeEvents.isEmpty() ? 0 : activeEvents.size() + 1; // +1 for header
-        
-        if (activeEvents.isEmpty() && pastEvents.isEmpty()) {
-            return VIEW_TYPE_HEADER; // Just show the active header even if empty
-        }
-        
-        if (!activeEvents.isEmpty()) {
-            if (position == 0) {
-                return VIEW_TYPE_HEADER;
-            } else if (position < activeEventsCount) {
-                return VIEW_TYPE_ACTIVE_EVENT;
-            }
+        Object item = getItem(position);
+        if (item instanceof EventRow) {
+            return ((EventRow) item).past ? VIEW_TYPE_PAST_EVENT : VIEW_TYPE_ACTIVE_EVENT;
         }
-        
-        if (!pastEvents.isEmpty()) {
-            if (position == activeEventsCount) {
-                return VIEW_TYPE_PAST_HEADER;
-            } else {
-                return VIEW_TYPE_PAST_EVENT;
-            }
-        }
-        
-        return VIEW_TYPE_HEADER; // Default fallback
+        return PAST_HEADER.equals(item) ? VIEW_TYPE_PAST_HEADER : VIEW_TYPE_HEADER;
     }
     
-    private Event getActiveEventAt(int position) {
-        // Position 0 is the header, so subtract 1
-        return activeEvents.get(position - 1);
+    @Override
+    public long getItemId(int position) {
+        Object item = getItem(position);
+        return stableIds.idFor(item instanceof EventRow ? ((EventRow) item).event.getEventId() : "header:" + item);
     }
     
-    private Event getPastEventAt(int position) {
-        int activeEventsCount = activeEvents.isEmpty() ? 0 : activeEvents.size() + 1; // +1 for header
-        int pastHeaderPosition = activeEventsCount;
-        
-        // Subtract the active events section and the past header
-        return pastEvents.get(position - pastHeaderPosition - 1);
+    /** Replaces the events. Updates arriving within the same frame are diffed together. */
+    public void updateEvents(List<Event> events) {
+        pendingEvents = StableIds.keyed(events, Event::getEventId);
+        updateCoalescer.request();
     }
     
-    public void updateEvents(List<Event> events) {
-        activeEvents.clear();
-        pastEvents.clear();
-        
-        long currentTime = System.currentTimeMillis();
-        
-        for (Event event : events) {
-            if (event.getDate() > currentTime) {
-                activeEvents.add(event);
-            } else {
-                pastEvents.add(event);
-            }
-            
-            // Load club name if not already loaded
-            if (!clubNames.containsKey(event.getClubId())) {
-                loadClubName(event.getClubId());
-            }
+    private void applyPendingUpdates() {
+        if (pendingEvents != null) {
+            submitList(buildItems(EventSections.split(pendingEvents, System.currentTimeMillis())));
+            pendingEvents = null;
+        }
+        // Rows the diff adds are bound with the current state, so the rest can take a payload
+        if (adminChanged) {
+            adminChanged = false;
+            notifyItemRangeChanged(0, getItemCount(), PAYLOAD_ADMIN);
+        }
+        if (registrationChanged) {
+            registrationChanged = false;
+            notifyItemRangeChanged(0, getItemCount(), EventDiffCallback.PAYLOAD_REGISTRATION);
         }
-        
-        notifyDataSetChanged();
     }
     
-    private void loadClubName(String clubId) {
-        clubsRef.child(clubId).addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                Club club = snapshot.getValue(Club.class);
-                if (club != null) {
-                    clubNames.put(clubId, club.getName());
-                    notifyDataSetChanged();
-                }
+    private static List<Object> buildItems(EventSections sections) {
+        List<Object> items = new ArrayList<>(sections.upcoming.size() + sections.past.size() + 2);
+        if (!sections.upcoming.isEmpty()) {
+            items.add(ACTIVE_HEADER);
+            for (Event event : sections.upcoming) {
+                items.add(new EventRow(event, false));
             }
-            
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                // Handle error
+        }
+        if (!sections.past.isEmpty()) {
+            items.add(PAST_HEADER);
+            for (Event event : sections.past) {
+                items.add(new EventRow(event, true));
             }
-        });
+        }
+        return items;
     }
     
     static class HeaderViewHolder extends RecyclerView.ViewHolder {
@@ -295,30 +328,28 @@ public class EnhancedEventAdapter extends RecyclerView.Adapter<RecyclerView.View
             eventDescription.setText(event.getDescription());
             
             // Set club name
-            String clubName = clubNames.get(event.getClubId());
-            if (clubName != null) {
-                clubNameText.setText(clubName);
-                clubNameText.setVisibility(View.VISIBLE);
-            } else {
-                clubNameText.setText("Loading club...");
-                clubNameText.setVisibility(View.VISIBLE);
-            }
+            ClubMetadataCache.getInstance().bindClubName(clubNameText, event.getClubId());
             
             // Format and set date
-            SimpleDateFormat sdf = new SimpleDateFormat("dd MMM yyyy, HH:mm", Locale.getDefault());
-            eventDateTime.setText(sdf.format(new Date(event.getDate())));
+            eventDateTime.setText(DateFormatter.formatDateTime(event.getDate()));
             
             // Load event image if available
             if (event.getImageUrl() != null && !event.getImageUrl().isEmpty()) {
-                Glide.with(context)
-                    .load(event.getImageUrl())
-                    .centerCrop()
-                    .into(eventImage);
+                BlurHashPlaceholders.into(Glide.with(context)
+                        .load(ImageVariantsLoader.model(event.getImageVariants(), event.getImageUrl()))
+                        .centerCrop(),
+                    eventImage, event.getBlurHash());
                 eventImage.setVisibility(View.VISIBLE);
             } else {
                 eventImage.setVisibility(View.GONE);
             }
             
+            bindRegistration(event);
+            bindAdminActions(event);
+        }
+        
+        /** Binds the parts that change with registrations, see {@link EventDiffCallback#PAYLOAD_REGISTRATION}. */
+        void bindRegistration(Event event) {
             // Update participant count
             int registered = event.getRegisteredCount();
             String countText = registered + " registered";
@@ -328,11 +359,13 @@ public class EnhancedEventAdapter extends RecyclerView.Adapter<RecyclerView.View
             participantCount.setText(countText);
             
             // Update register button state
-            boolean isRegistered = event.isRegistered(currentUserId);
+            boolean isRegistered = registeredEventIds.contains(event.getEventId());
             updateRegisterButton(event, isRegistered);
             
             registerButton.setOnClickListener(v -> handleRegistration(event));
-            
+        }
+        
+        void bindAdminActions(Event event) {
             // Check admin status - only show admin controls if we're in club view
             boolean isAdmin = false;
             if (clubId != null && clubId.equals(event.getClubId())) {
@@ -351,7 +384,8 @@ public class EnhancedEventAdapter extends RecyclerView.Adapter<RecyclerView.View
                 registerButton.setStrokeColor(context.getColorStateList(R.color.error));
                 registerButton.setTextColor(context.getColor(R.color.error));
             } else {
-                registerButton.setText("Register");
+                // Full events take new registrations onto the waitlist
+                registerButton.setText(event.isRegistrationOpen() && !event.canRegister() ? "Join Waitlist" : "Register");
                 registerButton.setStrokeColor(context.getColorStateList(R.color.primary));
                 registerButton.setTextColor(context.getColor(R.color.primary));
             }
@@ -360,17 +394,13 @@ public class EnhancedEventAdapter extends RecyclerView.Adapter<RecyclerView.View
         }
         
         private void handleRegistration(Event event) {
-            boolean isRegistered = event.isRegistered(currentUserId);
+            boolean isRegistered = registeredEventIds.contains(event.getEventId());
             
             if (isRegistered) {
                 // Unregister
-                eventsRef.child(event.getEventId())
-                    .child("registeredUsers")
-                    .child(currentUserId)
-                    .removeValue()
-                    .addOnSuccessListener(aVoid -> {
-                        Toast.makeText(context, "Successfully unregistered", 
-                            Toast.LENGTH_SHORT).show();
+                EventRegistrationEngine.getDefault().cancel(event.getEventId(), currentUserId)
+                    .addOnSuccessListener(outcome -> {
+                        Toast.makeText(context, outcome.message, Toast.LENGTH_SHORT).show();
                         updateRegisterButton(event, false);
                     })
                     .addOnFailureListener(e -> 
@@ -378,10 +408,9 @@ public class EnhancedEventAdapter extends RecyclerView.Adapter<RecyclerView.View
                             Toast.LENGTH_SHORT).show()
                     );
             } else {
-                // Check if registration is still possible
-                if (!event.canRegister()) {
-                    Toast.makeText(context, "Registration is closed or event is full", 
-                        Toast.LENGTH_SHORT).show();
+                // Full events are handled by the engine, which adds the user to the waitlist
+                if (!event.isRegistrationOpen()) {
+                    Toast.makeText(context, "Registration is closed", Toast.LENGTH_SHORT).show();
                     return;
                 }
                 
@@ -401,14 +430,11 @@ public class EnhancedEventAdapter extends RecyclerView.Adapter<RecyclerView.View
                         }
                         
                         // Register with phone number
-                        eventsRef.child(event.getEventId())
-                            .child("registeredUsers")
-                            .child(currentUserId)
-                            .setValue(phoneNumber)
-                            .addOnSuccessListener(aVoid -> {
-                                Toast.makeText(context, "Successfully registered", 
-                                    Toast.LENGTH_SHORT).show();
-                                updateRegisterButton(event, true);
+                        EventRegistrationEngine.getDefault().register(event.getEventId(), currentUserId, phoneNumber)
+                            .addOnSuccessListener(outcome -> {
+                                Toast.makeText(context, outcome.message, Toast.LENGTH_SHORT).show();
+                                updateRegisterButton(event, outcome == EventRegistrationEngine.Outcome.REGISTERED
+                                    || outcome == EventRegistrationEngine.Outcome.ALREADY_REGISTERED);
                             })
                             .addOnFailureListener(e -> 
                                 Toast.makeText(context, "Failed to register: " + e.getMessage(), 
@@ -486,39 +512,34 @@ public class EnhancedEventAdapter extends RecyclerView.Adapter<RecyclerView.View
             eventDescription.setText(event.getDescription());
             
             // Set club name
-            String clubName = clubNames.get(event.getClubId());
-            if (clubName != null) {
-                clubNameText.setText(clubName);
-                clubNameText.setVisibility(View.VISIBLE);
-            } else {
-                clubNameText.setText("Loading club...");
-                clubNameText.setVisibility(View.VISIBLE);
-            }
+            ClubMetadataCache.getInstance().bindClubName(clubNameText, event.getClubId());
             
             // Format and set date
-            SimpleDateFormat sdf = new SimpleDateFormat("dd MMM yyyy, HH:mm", Locale.getDefault());
-            eventDateTime.setText(sdf.format(new Date(event.getDate())));
+            eventDateTime.setText(DateFormatter.formatDateTime(event.getDate()));
             
             // Load event image if available
             if (event.getImageUrl() != null && !event.getImageUrl().isEmpty()) {
-                Glide.with(context)
-                    .load(event.getImageUrl())
-                    .centerCrop()
-                    .into(eventImage);
+                BlurHashPlaceholders.into(Glide.with(context)
+                        .load(ImageVariantsLoader.model(event.getImageVariants(), event.getImageUrl()))
+                        .centerCrop(),
+                    eventImage, event.getBlurHash());
                 eventImage.setVisibility(View.VISIBLE);
             } else {
                 eventImage.setVisibility(View.GONE);
             }
             
-            // Update participant count
-            int registered = event.getRegisteredCount();
-            String countText = registered + " attended";
-            participantCount.setText(countText);
+            bindAttendance(event);
             
             // Disable register button for past events
             registerButton.setText("Event Ended");
             registerButton.setEnabled(false);
             registerButton.setAlpha(0.5f);
         }
+        
+        void bindAttendance(Event event) {
+            int registered = event.getRegisteredCount();
+            String countText = registered + " attended";
+            participantCount.setText(countText);
+        }
     }
 } 
\ No newline at end of file
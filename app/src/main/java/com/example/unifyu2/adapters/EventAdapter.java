@@ -9,32 +9,34 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.example.unifyu2.R;
+import com.example.unifyu2.glide.ImageVariantsLoader;
 import com.example.unifyu2.models.Event;
+import com.example.unifyu2.utils.EventRegistrationEngine;
+import com.example.unifyu2.utils.DateFormatter;
 import com.google.android.material.button.MaterialButton;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
+import java.util.Set;
 
-public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHolder> {
+public class EventAdapter extends ListAdapter<Event, EventAdapter.EventViewHolder> {
     private final Context context;
-    private final List<Event> events;
     private final String currentUserId;
-    private final DatabaseReference eventsRef;
+    private final StableIds stableIds = new StableIds();
+    private Set<String> registeredEventIds = new HashSet<>();
 
     public EventAdapter(Context context, List<Event> events) {
+        super(EventDiffCallback.INSTANCE);
         this.context = context;
-        this.events = events;
         this.currentUserId = FirebaseAuth.getInstance().getCurrentUser().getUid();
-        this.eventsRef = FirebaseDatabase.getInstance().getReference("events");
+        setHasStableIds(true);
+        submitList(StableIds.keyed(events, Event::getEventId));
     }
 
     @NonNull
@@ -46,19 +48,32 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
 
     @Override
     public void onBindViewHolder(@NonNull EventViewHolder holder, int position) {
-        Event event = events.get(position);
-        holder.bind(event);
+        holder.bind(getItem(position));
     }
 
     @Override
-    public int getItemCount() {
-        return events.size();
+    public void onBindViewHolder(@NonNull EventViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            holder.bindRegistration(getItem(position));
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idFor(getItem(position).getEventId());
     }
 
+    /** Diffs against the current list on a background thread. */
     public void updateEvents(List<Event> newEvents) {
-        events.clear();
-        events.addAll(newEvents);
-        notifyDataSetChanged();
+        submitList(StableIds.keyed(newEvents, Event::getEventId));
+    }
+
+    /** Sets the IDs of events the current user is registered for. */
+    public void setRegisteredEventIds(Set<String> eventIds) {
+        registeredEventIds = new HashSet<>(eventIds);
+        notifyItemRangeChanged(0, getItemCount(), EventDiffCallback.PAYLOAD_REGISTRATION);
     }
 
     class EventViewHolder extends RecyclerView.ViewHolder {
@@ -87,13 +102,12 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
             eventDescription.setText(event.getDescription());
 
             // Format and set date
-            SimpleDateFormat sdf = new SimpleDateFormat("dd MMM yyyy, HH:mm", Locale.getDefault());
-            eventDateTime.setText(sdf.format(new Date(event.getDate())));
+            eventDateTime.setText(DateFormatter.formatDateTime(event.getDate()));
 
             // Load event image if available
             if (event.getImageUrl() != null && !event.getImageUrl().isEmpty()) {
                 Glide.with(context)
-                    .load(event.getImageUrl())
+                    .load(ImageVariantsLoader.model(event.getImageVariants(), event.getImageUrl()))
                     .centerCrop()
                     .into(eventImage);
                 eventImage.setVisibility(View.VISIBLE);
@@ -101,6 +115,11 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
                 eventImage.setVisibility(View.GONE);
             }
 
+            bindRegistration(event);
+        }
+
+        /** Binds the parts that change with registrations, see {@link EventDiffCallback#PAYLOAD_REGISTRATION}. */
+        void bindRegistration(Event event) {
             // Update participant count
             int registered = event.getRegisteredCount();
             String countText = registered + " registered";
@@ -110,7 +129,7 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
             participantCount.setText(countText);
 
             // Update register button state
-            boolean isRegistered = event.isRegistered(currentUserId);
+            boolean isRegistered = registeredEventIds.contains(event.getEventId());
             updateRegisterButton(event, isRegistered);
 
             registerButton.setOnClickListener(v -> handleRegistration(event));
@@ -122,7 +141,8 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
                 registerButton.setStrokeColor(context.getColorStateList(R.color.error));
                 registerButton.setTextColor(context.getColor(R.color.error));
             } else {
-                registerButton.setText("Register");
+                // Full events take new registrations onto the waitlist
+                registerButton.setText(event.isRegistrationOpen() && !event.canRegister() ? "Join Waitlist" : "Register");
                 registerButton.setStrokeColor(context.getColorStateList(R.color.primary));
                 registerButton.setTextColor(context.getColor(R.color.primary));
             }
@@ -131,17 +151,13 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
         }
 
         private void handleRegistration(Event event) {
-            boolean isRegistered = event.isRegistered(currentUserId);
+            boolean isRegistered = registeredEventIds.contains(event.getEventId());
             
             if (isRegistered) {
                 // Unregister
-                eventsRef.child(event.getEventId())
-                    .child("registeredUsers")
-                    .child(currentUserId)
-                    .removeValue()
-                    .addOnSuccessListener(aVoid -> {
-                        Toast.makeText(context, "Successfully unregistered", 
-                            Toast.LENGTH_SHORT).show();
+                EventRegistrationEngine.getDefault().cancel(event.getEventId(), currentUserId)
+                    .addOnSuccessListener(outcome -> {
+                        Toast.makeText(context, outcome.message, Toast.LENGTH_SHORT).show();
                         updateRegisterButton(event, false);
                     })
                     .addOnFailureListener(e -> 
@@ -149,22 +165,18 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
                             Toast.LENGTH_SHORT).show()
                     );
             } else {
-                // Check if registration is still possible
-                if (!event.canRegister()) {
-                    Toast.makeText(context, "Registration is closed or event is full", 
-                        Toast.LENGTH_SHORT).show();
+                // Full events are handled by the engine, which adds the user to the waitlist
+                if (!event.isRegistrationOpen()) {
+                    Toast.makeText(context, "Registration is closed", Toast.LENGTH_SHORT).show();
                     return;
                 }
 
-                // Register
-                eventsRef.child(event.getEventId())
-                    .child("registeredUsers")
-                    .child(currentUserId)
-                    .setValue(true)
-                    .addOnSuccessListener(aVoid -> {
-                        Toast.makeText(context, "Successfully registered", 
-                            Toast.LENGTH_SHORT).show();
-                        updateRegisterButton(event, true);
+                // Register, or join the waitlist if the event is full
+                EventRegistrationEngine.getDefault().register(event.getEventId(), currentUserId, true)
+                    .addOnSuccessListener(outcome -> {
+                        Toast.makeText(context, outcome.message, Toast.LENGTH_SHORT).show();
+                        updateRegisterButton(event, outcome == EventRegistrationEngine.Outcome.REGISTERED
+                            || outcome == EventRegistrationEngine.Outcome.ALREADY_REGISTERED);
                     })
                     .addOnFailureListener(e -> 
                         Toast.makeText(context, "Failed to register: " + e.getMessage(), 
@@ -0,0 +1,64 @@
+package com.example.unifyu2.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.example.unifyu2.models.Event;
+import com.example.unifyu2.models.ImageVariants;
+
+import java.util.Objects;
+
+/**
+ * Diffs events by key. When only registration state changed, the change carries
+ * {@link #PAYLOAD_REGISTRATION} so the row rebinds its count and button and keeps
+ * its image.
+ */
+final class EventDiffCallback extends DiffUtil.ItemCallback<Event> {
+    static final Object PAYLOAD_REGISTRATION = new Object();
+
+    static final EventDiffCallback INSTANCE = new EventDiffCallback();
+
+    private EventDiffCallback() {
+    }
+
+    @Override
+    public boolean areItemsTheSame(@NonNull Event oldEvent, @NonNull Event newEvent) {
+        return Objects.equals(oldEvent.getEventId(), newEvent.getEventId());
+    }
+
+    @Override
+    public boolean areContentsTheSame(@NonNull Event oldEvent, @NonNull Event newEvent) {
+        // Unchanged nodes keep their instance, see SnapshotCache
+        if (oldEvent == newEvent) return true;
+        return sameDetails(oldEvent, newEvent) && sameRegistration(oldEvent, newEvent);
+    }
+
+    @Nullable
+    @Override
+    public Object getChangePayload(@NonNull Event oldEvent, @NonNull Event newEvent) {
+        return sameDetails(oldEvent, newEvent) ? PAYLOAD_REGISTRATION : null;
+    }
+
+    private static boolean sameDetails(Event a, Event b) {
+        return Objects.equals(a.getTitle(), b.getTitle())
+            && Objects.equals(a.getDescription(), b.getDescription())
+            && Objects.equals(a.getVenue(), b.getVenue())
+            && a.getDate() == b.getDate()
+            && Objects.equals(a.getClubId(), b.getClubId())
+            && Objects.equals(a.getImageUrl(), b.getImageUrl())
+            && Objects.equals(a.getBlurHash(), b.getBlurHash())
+            && Objects.equals(fullImage(a.getImageVariants()), fullImage(b.getImageVariants()));
+    }
+
+    private static boolean sameRegistration(Event a, Event b) {
+        return a.getRegisteredCount() == b.getRegisteredCount()
+            && a.getMaxParticipants() == b.getMaxParticipants()
+            && a.isRegistrationOpen() == b.isRegistrationOpen()
+            && a.isFull() == b.isFull();
+    }
+
+    private static String fullImage(@Nullable ImageVariants variants) {
+        return variants != null ? variants.getFull() : null;
+    }
+}
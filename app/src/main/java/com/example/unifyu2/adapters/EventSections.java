@@ -0,0 +1,52 @@
+package com.example.unifyu2.adapters;
+
+import com.example.unifyu2.models.Event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Events split into the upcoming and past sections of {@link EnhancedEventAdapter}.
+ * The events are sorted by date once and the boundary is found with a binary search.
+ */
+final class EventSections {
+    private static final Comparator<Event> BY_DATE = (a, b) -> Long.compare(a.getDate(), b.getDate());
+
+    /** Soonest first */
+    final List<Event> upcoming;
+    /** Most recent first */
+    final List<Event> past;
+
+    private EventSections(List<Event> upcoming, List<Event> past) {
+        this.upcoming = upcoming;
+        this.past = past;
+    }
+
+    /** Events dated after now are upcoming, the rest are past. */
+    static EventSections split(List<Event> events, long now) {
+        List<Event> byDate = new ArrayList<>(events);
+        Collections.sort(byDate, BY_DATE);
+
+        int firstUpcoming = firstAfter(byDate, now);
+        List<Event> past = new ArrayList<>(byDate.subList(0, firstUpcoming));
+        Collections.reverse(past);
+        return new EventSections(new ArrayList<>(byDate.subList(firstUpcoming, byDate.size())), past);
+    }
+
+    /** @return The index of the first event dated after time, or the size of the list if there's none */
+    static int firstAfter(List<Event> byDate, long time) {
+        int low = 0;
+        int high = byDate.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (byDate.get(mid).getDate() > time) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
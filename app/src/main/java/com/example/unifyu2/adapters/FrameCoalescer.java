@@ -0,0 +1,28 @@
+package com.example.unifyu2.adapters;
+
+import android.view.Choreographer;
+
+/**
+ * Runs an update on the next frame, once, however many times it's requested before then.
+ * Main thread only.
+ */
+final class FrameCoalescer implements Choreographer.FrameCallback {
+    private final Runnable update;
+    private boolean scheduled;
+
+    FrameCoalescer(Runnable update) {
+        this.update = update;
+    }
+
+    void request() {
+        if (scheduled) return;
+        scheduled = true;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        scheduled = false;
+        update.run();
+    }
+}
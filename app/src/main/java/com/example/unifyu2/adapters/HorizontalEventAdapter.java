@@ -10,33 +10,37 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.example.unifyu2.ClubEventsActivity;
 import com.example.unifyu2.R;
+import com.example.unifyu2.glide.BlurHashPlaceholders;
+import com.example.unifyu2.glide.ImageVariantsLoader;
 import com.example.unifyu2.models.Event;
+import com.example.unifyu2.utils.EventRegistrationEngine;
+import com.example.unifyu2.utils.ClubMetadataCache;
+import com.example.unifyu2.utils.DateFormatter;
 import com.google.android.material.button.MaterialButton;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
+import java.util.Set;
 
-public class HorizontalEventAdapter extends RecyclerView.Adapter<HorizontalEventAdapter.EventViewHolder> {
+public class HorizontalEventAdapter extends ListAdapter<Event, HorizontalEventAdapter.EventViewHolder> {
     private final Context context;
-    private final List<Event> events;
     private final String currentUserId;
-    private final DatabaseReference eventsRef;
+    private final StableIds stableIds = new StableIds();
+    private Set<String> registeredEventIds = new HashSet<>();
 
     public HorizontalEventAdapter(Context context, List<Event> events) {
+        super(EventDiffCallback.INSTANCE);
         this.context = context;
-        this.events = events;
         this.currentUserId = FirebaseAuth.getInstance().getCurrentUser().getUid();
-        this.eventsRef = FirebaseDatabase.getInstance().getReference("events");
+        setHasStableIds(true);
+        submitList(StableIds.keyed(events, Event::getEventId));
     }
 
     @NonNull
@@ -48,24 +52,38 @@ public class HorizontalEventAdapter extends RecyclerView.Adapter<HorizontalEvent
 
     @Override
     public void onBindViewHolder(@NonNull EventViewHolder holder, int position) {
-        Event event = events.get(position);
-        holder.bind(event);
+        holder.bind(getItem(position));
     }
 
     @Override
-    public int getItemCount() {
-        return events.size();
+    public void onBindViewHolder(@NonNull EventViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            holder.bindRegistration(getItem(position));
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idFor(getItem(position).getEventId());
     }
 
+    /** Diffs against the current list on a background thread. */
     public void updateEvents(List<Event> newEvents) {
-        events.clear();
-        events.addAll(newEvents);
-        notifyDataSetChanged();
+        submitList(StableIds.keyed(newEvents, Event::getEventId));
+    }
+
+    /** Sets the IDs of events the current user is registered for. */
+    public void setRegisteredEventIds(Set<String> eventIds) {
+        registeredEventIds = new HashSet<>(eventIds);
+        notifyItemRangeChanged(0, getItemCount(), EventDiffCallback.PAYLOAD_REGISTRATION);
     }
 
     class EventViewHolder extends RecyclerView.ViewHolder {
         private final ImageView eventImage;
         private final TextView eventTitle;
+        private final TextView clubNameText;
         private final TextView eventDateTime;
         private final TextView eventVenue;
         private final MaterialButton registerButton;
@@ -74,6 +92,7 @@ public class HorizontalEventAdapter extends RecyclerView.Adapter<HorizontalEvent
             super(itemView);
             eventImage = itemView.findViewById(R.id.eventImage);
             eventTitle = itemView.findViewById(R.id.eventTitle);
+            clubNameText = itemView.findViewById(R.id.clubName);
             eventDateTime = itemView.findViewById(R.id.eventDateTime);
             eventVenue = itemView.findViewById(R.id.eventVenue);
             registerButton = itemView.findViewById(R.id.registerButton);
@@ -82,7 +101,7 @@ public class HorizontalEventAdapter extends RecyclerView.Adapter<HorizontalEvent
             itemView.setOnClickListener(v -> {
                 int position = getAdapterPosition();
                 if (position != RecyclerView.NO_POSITION) {
-                    Event event = events.get(position);
+                    Event event = getItem(position);
                     Intent intent = new Intent(context, ClubEventsActivity.class);
                     intent.putExtra("clubId", event.getClubId());
                     context.startActivity(intent);
@@ -94,20 +113,32 @@ public class HorizontalEventAdapter extends RecyclerView.Adapter<HorizontalEvent
             eventTitle.setText(event.getTitle());
             eventVenue.setText(event.getVenue());
 
+            // Set club name
+            if (event.getClubId() != null) {
+                ClubMetadataCache.getInstance().bindClubName(clubNameText, event.getClubId());
+            } else {
+                clubNameText.setTag(null);
+                clubNameText.setVisibility(View.GONE);
+            }
+
             // Format and set date
-            SimpleDateFormat sdf = new SimpleDateFormat("dd MMM yyyy, HH:mm", Locale.getDefault());
-            eventDateTime.setText(sdf.format(new Date(event.getDate())));
+            eventDateTime.setText(DateFormatter.formatDateTime(event.getDate()));
 
             // Load event image if available
             if (event.getImageUrl() != null && !event.getImageUrl().isEmpty()) {
-                Glide.with(context)
-                    .load(event.getImageUrl())
-                    .centerCrop()
-                    .into(eventImage);
+                BlurHashPlaceholders.into(Glide.with(context)
+                        .load(ImageVariantsLoader.model(event.getImageVariants(), event.getImageUrl()))
+                        .centerCrop(),
+                    eventImage, event.getBlurHash());
             }
 
+            bindRegistration(event);
+        }
+
+        /** Binds the parts that change with registrations, see {@link EventDiffCallback#PAYLOAD_REGISTRATION}. */
+        void bindRegistration(Event event) {
             // Update register button state
-            boolean isRegistered = event.isRegistered(currentUserId);
+            boolean isRegistered = registeredEventIds.contains(event.getEventId());
             updateRegisterButton(event, isRegistered);
 
             registerButton.setOnClickListener(v -> handleRegistration(event));
@@ -119,7 +150,8 @@ public class HorizontalEventAdapter extends RecyclerView.Adapter<HorizontalEvent
                 registerButton.setStrokeColor(context.getColorStateList(R.color.error));
                 registerButton.setTextColor(context.getColor(R.color.error));
             } else {
-                registerButton.setText("Register");
+                // Full events take new registrations onto the waitlist
+                registerButton.setText(event.isRegistrationOpen() && !event.canRegister() ? "Join Waitlist" : "Register");
                 registerButton.setStrokeColor(context.getColorStateList(R.color.primary));
                 registerButton.setTextColor(context.getColor(R.color.primary));
             }
@@ -128,17 +160,13 @@ public class HorizontalEventAdapter extends RecyclerView.Adapter<HorizontalEvent
         }
 
         private void handleRegistration(Event event) {
-            boolean isRegistered = event.isRegistered(currentUserId);
+            boolean isRegistered = registeredEventIds.contains(event.getEventId());
             
             if (isRegistered) {
                 // Unregister
-                eventsRef.child(event.getEventId())
-                    .child("registeredUsers")
-                    .child(currentUserId)
-                    .removeValue()
-                    .addOnSuccessListener(aVoid -> {
-                        Toast.makeText(context, "Successfully unregistered", 
-                            Toast.LENGTH_SHORT).show();
+                EventRegistrationEngine.getDefault().cancel(event.getEventId(), currentUserId)
+                    .addOnSuccessListener(outcome -> {
+                        Toast.makeText(context, outcome.message, Toast.LENGTH_SHORT).show();
                         updateRegisterButton(event, false);
                     })
                     .addOnFailureListener(e -> 
@@ -146,22 +174,18 @@ public class HorizontalEventAdapter extends RecyclerView.Adapter<HorizontalEvent
                             Toast.LENGTH_SHORT).show()
                     );
             } else {
-                // Check if registration is still possible
-                if (!event.canRegister()) {
-                    Toast.makeText(context, "Registration is closed or event is full", 
-                        Toast.LENGTH_SHORT).show();
+                // Full events are handled by the engine, which adds the user to the waitlist
+                if (!event.isRegistrationOpen()) {
+                    Toast.makeText(context, "Registration is closed", Toast.LENGTH_SHORT).show();
                     return;
                 }
 
-                // Register
-                eventsRef.child(event.getEventId())
-                    .child("registeredUsers")
-                    .child(currentUserId)
-                    .setValue(true)
-                    .addOnSuccessListener(aVoid -> {
-                        Toast.makeText(context, "Successfully registered", 
-                            Toast.LENGTH_SHORT).show();
-                        updateRegisterButton(event, true);
+                // Register, or join the waitlist if the event is full
+                EventRegistrationEngine.getDefault().register(event.getEventId(), currentUserId, true)
+                    .addOnSuccessListener(outcome -> {
+                        Toast.makeText(context, outcome.message, Toast.LENGTH_SHORT).show();
+                        updateRegisterButton(event, outcome == EventRegistrationEngine.Outcome.REGISTERED
+                            || outcome == EventRegistrationEngine.Outcome.ALREADY_REGISTERED);
                     })
                     .addOnFailureListener(e -> 
                         Toast.makeText(context, "Failed to register: " + e.getMessage(), 
@@ -8,14 +8,15 @@ import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.unifyu2.R;
 import com.example.unifyu2.models.User;
 import java.util.List;
 
-public class ManageClubMembersAdapter extends RecyclerView.Adapter<ManageClubMembersAdapter.ViewHolder> {
+public class ManageClubMembersAdapter extends ListAdapter<User, ManageClubMembersAdapter.ViewHolder> {
     private static final String TAG = "MembersAdapter";
-    private List<User> members;
+    private final StableIds stableIds = new StableIds();
     private Context context;
     private OnMemberActionListener actionListener;
 
@@ -25,9 +26,11 @@ public class ManageClubMembersAdapter extends RecyclerView.Adapter<ManageClubMem
     }
 
     public ManageClubMembersAdapter(Context context, List<User> members, OnMemberActionListener listener) {
+        super(UserDiffCallback.INSTANCE);
         this.context = context;
-        this.members = members;
         this.actionListener = listener;
+        setHasStableIds(true);
+        submitList(StableIds.keyed(members, User::getId));
         Log.d(TAG, "Adapter created with " + (members != null ? members.size() : 0) + " members");
     }
 
@@ -41,12 +44,7 @@ public class ManageClubMembersAdapter extends RecyclerView.Adapter<ManageClubMem
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        if (members == null || position >= members.size()) {
-            Log.e(TAG, "Invalid position or empty list: " + position);
-            return;
-        }
-        
-        User member = members.get(position);
+        User member = getItem(position);
         if (member == null) {
             Log.e(TAG, "Null member at position: " + position);
             return;
@@ -87,10 +85,8 @@ public class ManageClubMembersAdapter extends RecyclerView.Adapter<ManageClubMem
     }
 
     @Override
-    public int getItemCount() {
-        int count = members != null ? members.size() : 0;
-        Log.d(TAG, "getItemCount called, returning: " + count);
-        return count;
+    public long getItemId(int position) {
+        return stableIds.idFor(getItem(position).getId());
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
@@ -110,7 +106,6 @@ public class ManageClubMembersAdapter extends RecyclerView.Adapter<ManageClubMem
 
     public void updateMembers(List<User> newMembers) {
         Log.d(TAG, "Updating members list with " + (newMembers != null ? newMembers.size() : 0) + " members");
-        this.members = newMembers;
-        notifyDataSetChanged();
+        submitList(StableIds.keyed(newMembers, User::getId));
     }
 } 
\ No newline at end of file
@@ -6,6 +6,7 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.unifyu2.R;
@@ -14,8 +15,8 @@ import com.google.android.material.chip.Chip;
 
 import java.util.List;
 
-public class MembersAdapter extends RecyclerView.Adapter<MembersAdapter.MemberViewHolder> {
-    private final List<User> members;
+public class MembersAdapter extends ListAdapter<User, MembersAdapter.MemberViewHolder> {
+    private final StableIds stableIds = new StableIds();
     private final OnMemberClickListener listener;
 
     public interface OnMemberClickListener {
@@ -23,8 +24,10 @@ public class MembersAdapter extends RecyclerView.Adapter<MembersAdapter.MemberVi
     }
 
     public MembersAdapter(List<User> members, OnMemberClickListener listener) {
-        this.members = members;
+        super(UserDiffCallback.INSTANCE);
         this.listener = listener;
+        setHasStableIds(true);
+        submitList(StableIds.keyed(members, User::getId));
     }
 
     @NonNull
@@ -37,12 +40,16 @@ public class MembersAdapter extends RecyclerView.Adapter<MembersAdapter.MemberVi
 
     @Override
     public void onBindViewHolder(@NonNull MemberViewHolder holder, int position) {
-        holder.bind(members.get(position), listener);
+        holder.bind(getItem(position), listener);
     }
 
     @Override
-    public int getItemCount() {
-        return members.size();
+    public long getItemId(int position) {
+        return stableIds.idFor(getItem(position).getId());
+    }
+
+    public void updateMembers(List<User> newMembers) {
+        submitList(StableIds.keyed(newMembers, User::getId));
     }
 
     static class MemberViewHolder extends RecyclerView.ViewHolder {
@@ -6,6 +6,7 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.unifyu2.R;
@@ -14,17 +15,21 @@ import com.example.unifyu2.models.User;
 import java.util.List;
 import java.util.Map;
 
-public class ParticipantAdapter extends RecyclerView.Adapter<ParticipantAdapter.ViewHolder> {
-    private List<User> participants;
+public class ParticipantAdapter extends ListAdapter<User, ParticipantAdapter.ViewHolder> {
+    private static final Object PAYLOAD_PHONE = new Object();
+    
+    private final StableIds stableIds = new StableIds();
     private Map<String, String> phoneNumbers; // Map of user IDs to phone numbers
 
     public ParticipantAdapter(List<User> participants) {
-        this.participants = participants;
+        this(participants, null);
     }
     
     public ParticipantAdapter(List<User> participants, Map<String, String> phoneNumbers) {
-        this.participants = participants;
+        super(UserDiffCallback.INSTANCE);
         this.phoneNumbers = phoneNumbers;
+        setHasStableIds(true);
+        submitList(StableIds.keyed(participants, User::getId));
     }
 
     @NonNull
@@ -37,24 +42,35 @@ public class ParticipantAdapter extends RecyclerView.Adapter<ParticipantAdapter.
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        User participant = participants.get(position);
-        String phoneNumber = phoneNumbers != null ? phoneNumbers.get(participant.getId()) : null;
-        holder.bind(participant, phoneNumber);
+        User participant = getItem(position);
+        holder.bind(participant, phoneNumberOf(participant));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        holder.bindPhoneNumber(phoneNumberOf(getItem(position)));
     }
 
     @Override
-    public int getItemCount() {
-        return participants.size();
+    public long getItemId(int position) {
+        return stableIds.idFor(getItem(position).getId());
+    }
+
+    private String phoneNumberOf(User participant) {
+        return phoneNumbers != null ? phoneNumbers.get(participant.getId()) : null;
     }
 
     public void updateParticipants(List<User> newParticipants) {
-        this.participants = newParticipants;
-        notifyDataSetChanged();
+        submitList(StableIds.keyed(newParticipants, User::getId));
     }
     
     public void updatePhoneNumbers(Map<String, String> phoneNumbers) {
         this.phoneNumbers = phoneNumbers;
-        notifyDataSetChanged();
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_PHONE);
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
@@ -72,7 +88,10 @@ public class ParticipantAdapter extends RecyclerView.Adapter<ParticipantAdapter.
         void bind(User participant, String phoneNumber) {
             nameText.setText(participant.getUsername());
             emailText.setText(participant.getEmail());
-            
+            bindPhoneNumber(phoneNumber);
+        }
+
+        void bindPhoneNumber(String phoneNumber) {
             if (phoneNumber != null && !phoneNumber.isEmpty()) {
                 phoneText.setText(phoneNumber);
                 phoneText.setVisibility(View.VISIBLE);
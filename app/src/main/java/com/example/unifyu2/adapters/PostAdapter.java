@@ -1,6 +1,8 @@
 package com.example.unifyu2.adapters;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.format.DateUtils;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -10,33 +12,82 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.example.unifyu2.R;
+import com.example.unifyu2.glide.BlurHashPlaceholders;
+import com.example.unifyu2.glide.ImageVariantsLoader;
 import com.example.unifyu2.models.Post;
+import com.example.unifyu2.utils.ClubMetadataCache;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class PostAdapter extends RecyclerView.Adapter<PostAdapter.PostViewHolder> {
     private static final String TAG = "PostAdapter";
-    private List<Post> posts;
+    private static final Object PAYLOAD_REACTIONS = new Object();
+    
+    // Reactions change far more often than anything else on a post, so they rebind on their own
+    private static final DiffUtil.ItemCallback<Post> DIFF_CALLBACK = new DiffUtil.ItemCallback<Post>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Post oldPost, @NonNull Post newPost) {
+            return Objects.equals(oldPost.getPostId(), newPost.getPostId());
+        }
+        
+        @Override
+        public boolean areContentsTheSame(@NonNull Post oldPost, @NonNull Post newPost) {
+            // Unchanged nodes keep their instance, see SnapshotCache
+            if (oldPost == newPost) return true;
+            return sameDetails(oldPost, newPost)
+                && Objects.equals(oldPost.getReactions(), newPost.getReactions());
+        }
+        
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull Post oldPost, @NonNull Post newPost) {
+            return sameDetails(oldPost, newPost) ? PAYLOAD_REACTIONS : null;
+        }
+        
+        private boolean sameDetails(Post a, Post b) {
+            return Objects.equals(a.getUserName(), b.getUserName())
+                && Objects.equals(a.getContent(), b.getContent())
+                && Objects.equals(a.getClubId(), b.getClubId())
+                && Objects.equals(a.getClubName(), b.getClubName())
+                && Objects.equals(a.getTimestamp(), b.getTimestamp())
+                && Objects.equals(a.getPostType(), b.getPostType())
+                && Objects.equals(a.getImageUrl(), b.getImageUrl())
+                && Objects.equals(a.getBlurHash(), b.getBlurHash())
+                && Objects.equals(a.getLinkUrl(), b.getLinkUrl())
+                && Objects.equals(a.getLinkTitle(), b.getLinkTitle())
+                && Objects.equals(a.getLinkDescription(), b.getLinkDescription());
+        }
+    };
+    
+    private static final ExecutorService diffExecutor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Child events already say what changed, so only setPosts runs a diff
+    private final List<Post> posts = new ArrayList<>();
+    // A replacement for posts whose diff is still being computed, or null
+    @Nullable
+    private List<Post> pendingPosts;
+    private int diffGeneration;
+    private final StableIds stableIds = new StableIds();
     private Context context;
     private OnPostInteractionListener listener;
     private FirebaseAuth firebaseAuth;
-    private DatabaseReference clubsRef;
 
     public interface OnPostInteractionListener {
         void onLikeClicked(Post post);
@@ -48,9 +99,8 @@ public class PostAdapter extends RecyclerView.Adapter<PostAdapter.PostViewHolder
     public PostAdapter(Context context, OnPostInteractionListener listener) {
         this.context = context;
         this.listener = listener;
-        this.posts = new ArrayList<>();
         this.firebaseAuth = FirebaseAuth.getInstance();
-        this.clubsRef = FirebaseDatabase.getInstance().getReference("clubs");
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -63,7 +113,7 @@ public class PostAdapter extends RecyclerView.Adapter<PostAdapter.PostViewHolder
     @Override
     public void onBindViewHolder(@NonNull PostViewHolder holder, int position) {
         try {
-            Post post = posts.get(position);
+            Post post = getItem(position);
             
             // Set basic post info with null checks
             holder.authorNameText.setText(post.getUserName() != null ? post.getUserName() : "Unknown User");
@@ -79,12 +129,14 @@ public class PostAdapter extends RecyclerView.Adapter<PostAdapter.PostViewHolder
             
             // Set club name
             if (post.getClubName() != null && !post.getClubName().isEmpty()) {
+                holder.clubNameText.setTag(null);
                 holder.clubNameText.setText(post.getClubName());
                 holder.clubNameText.setVisibility(View.VISIBLE);
             } else if (post.getClubId() != null && !post.getClubId().isEmpty()) {
-                // If club name is not available but club ID is, fetch the club name
-                fetchClubName(post.getClubId(), holder.clubNameText);
+                // If club name is not available but club ID is, resolve it through the shared cache
+                ClubMetadataCache.getInstance().bindClubName(holder.clubNameText, post.getClubId());
             } else {
+                holder.clubNameText.setTag(null);
                 holder.clubNameText.setVisibility(View.GONE);
             }
             
@@ -109,9 +161,9 @@ public class PostAdapter extends RecyclerView.Adapter<PostAdapter.PostViewHolder
                     holder.postImage.setVisibility(View.VISIBLE);
                     holder.linkPreviewCard.setVisibility(View.GONE);
                     if (post.getImageUrl() != null) {
-                        Glide.with(context)
-                            .load(post.getImageUrl())
-                            .into(holder.postImage);
+                        BlurHashPlaceholders.into(Glide.with(context)
+                                .load(ImageVariantsLoader.model(post.getImageVariants(), post.getImageUrl())),
+                            holder.postImage, post.getBlurHash());
                         holder.postImage.setOnClickListener(v -> 
                             listener.onImageClicked(post.getImageUrl()));
                     } else {
@@ -153,32 +205,33 @@ public class PostAdapter extends RecyclerView.Adapter<PostAdapter.PostViewHolder
         }
     }
     
-    private void fetchClubName(String clubId, TextView clubNameText) {
-        clubNameText.setText("Loading club...");
-        clubNameText.setVisibility(View.VISIBLE);
-        
-        clubsRef.child(clubId).addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                if (snapshot.exists()) {
-                    String clubName = snapshot.child("name").getValue(String.class);
-                    if (clubName != null && !clubName.isEmpty()) {
-                        clubNameText.setText(clubName);
-                    } else {
-                        clubNameText.setText("Unknown Club");
-                    }
-                } else {
-                    clubNameText.setText("Unknown Club");
-                }
-            }
+    @Override
+    public void onBindViewHolder(@NonNull PostViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        Post post = getItem(position);
+        updateReactionUI(holder, post);
+        // The click listeners capture the post, so point them at the new one
+        holder.likeButton.setOnClickListener(v -> listener.onLikeClicked(post));
+        holder.reactButton.setOnClickListener(v -> showReactionOptions(post));
+    }
+    
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idFor(getItem(position).getPostId());
+    }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                clubNameText.setText("Unknown Club");
-            }
-        });
+    @Override
+    public int getItemCount() {
+        return posts.size();
     }
 
+    private Post getItem(int position) {
+        return posts.get(position);
+    }
+    
     private void updateReactionUI(PostViewHolder holder, Post post) {
         try {
             String currentUserId = firebaseAuth.getCurrentUser().getUid();
@@ -297,28 +350,86 @@ public class PostAdapter extends RecyclerView.Adapter<PostAdapter.PostViewHolder
         }
     }
 
-    @Override
-    public int getItemCount() {
-        return posts.size();
+    /**
+     * The number of posts including a replacement list still being diffed, unlike
+     * {@link #getItemCount()} which only counts what's on screen.
+     */
+    public int getPostCount() {
+        return pendingPosts != null ? pendingPosts.size() : posts.size();
     }
 
+    /** Replaces the posts, diffing the old and new lists off the main thread. */
     public void setPosts(List<Post> posts) {
-        this.posts = posts != null ? posts : new ArrayList<>();
-        notifyDataSetChanged();
+        pendingPosts = StableIds.keyed(posts, Post::getPostId);
+        diffPendingPosts();
+    }
+
+    public void appendPosts(List<Post> olderPosts) {
+        if (olderPosts == null || olderPosts.isEmpty()) return;
+        if (pendingPosts != null) {
+            pendingPosts.addAll(olderPosts);
+            diffPendingPosts();
+            return;
+        }
+        int start = posts.size();
+        posts.addAll(olderPosts);
+        notifyItemRangeInserted(start, olderPosts.size());
+    }
+
+    // Positions from child events refer to the newest list, so while a replacement is
+    // being diffed they apply to it and the diff starts over
+    public void insertPost(int position, Post post) {
+        if (pendingPosts != null) {
+            pendingPosts.add(position, post);
+            diffPendingPosts();
+            return;
+        }
+        posts.add(position, post);
+        notifyItemInserted(position);
+    }
+
+    public void changePost(int position, Post post) {
+        if (pendingPosts != null) {
+            pendingPosts.set(position, post);
+            diffPendingPosts();
+            return;
+        }
+        Post oldPost = posts.set(position, post);
+        notifyPostChanged(position, oldPost, post);
+    }
+
+    public void movePost(int fromPosition, int toPosition) {
+        if (pendingPosts != null) {
+            pendingPosts.add(toPosition, pendingPosts.remove(fromPosition));
+            diffPendingPosts();
+            return;
+        }
+        posts.add(toPosition, posts.remove(fromPosition));
+        notifyItemMoved(fromPosition, toPosition);
+    }
+
+    public void removePost(int position) {
+        if (pendingPosts != null) {
+            pendingPosts.remove(position);
+            diffPendingPosts();
+            return;
+        }
+        posts.remove(position);
+        notifyItemRemoved(position);
     }
 
     public void addPost(Post post) {
         if (post != null) {
-            posts.add(0, post);
-            notifyItemInserted(0);
+            insertPost(0, post);
         }
     }
 
     public void updatePost(Post post) {
         if (post != null && post.getPostId() != null) {
+            List<Post> current = pendingPosts != null ? pendingPosts : posts;
             int index = -1;
-            for (int i = 0; i < posts.size(); i++) {
-                Post existingPost = posts.get(i);
+            for (int i = 0; i < current.size(); i++) {
+                Post existingPost = current.get(i);
                 if (existingPost != null && 
                     existingPost.getPostId() != null && 
                     existingPost.getPostId().equals(post.getPostId())) {
@@ -327,12 +438,73 @@ public class PostAdapter extends RecyclerView.Adapter<PostAdapter.PostViewHolder
                 }
             }
             if (index != -1) {
-                posts.set(index, post);
-                notifyItemChanged(index);
+                changePost(index, post);
             }
         }
     }
 
+    /**
+     * Diffs the shown posts against the pending ones in the background. A result is
+     * dropped if the pending list changed meanwhile, since a newer diff is on its way.
+     */
+    private void diffPendingPosts() {
+        int generation = ++diffGeneration;
+        // Payloads are read while the updates are dispatched, so the diff keeps its own lists
+        List<Post> oldPosts = new ArrayList<>(posts);
+        List<Post> newPosts = new ArrayList<>(pendingPosts);
+        diffExecutor.execute(() -> {
+            DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new PostListDiff(oldPosts, newPosts));
+            mainHandler.post(() -> {
+                if (generation != diffGeneration) return;
+                pendingPosts = null;
+                posts.clear();
+                posts.addAll(newPosts);
+                diff.dispatchUpdatesTo(this);
+            });
+        });
+    }
+
+    private void notifyPostChanged(int position, Post oldPost, Post newPost) {
+        if (DIFF_CALLBACK.areContentsTheSame(oldPost, newPost)) return;
+        notifyItemChanged(position, DIFF_CALLBACK.getChangePayload(oldPost, newPost));
+    }
+
+    private static class PostListDiff extends DiffUtil.Callback {
+        private final List<Post> oldPosts;
+        private final List<Post> newPosts;
+
+        PostListDiff(List<Post> oldPosts, List<Post> newPosts) {
+            this.oldPosts = oldPosts;
+            this.newPosts = newPosts;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldPosts.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newPosts.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldPosition, int newPosition) {
+            return DIFF_CALLBACK.areItemsTheSame(oldPosts.get(oldPosition), newPosts.get(newPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPosition, int newPosition) {
+            return DIFF_CALLBACK.areContentsTheSame(oldPosts.get(oldPosition), newPosts.get(newPosition));
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(int oldPosition, int newPosition) {
+            return DIFF_CALLBACK.getChangePayload(oldPosts.get(oldPosition), newPosts.get(newPosition));
+        }
+    }
+
     static class PostViewHolder extends RecyclerView.ViewHolder {
         TextView clubNameText;
         TextView authorNameText;
@@ -0,0 +1,40 @@
+package com.example.unifyu2.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Gives each Firebase key a stable RecyclerView item ID for the life of an adapter.
+ * Keys are numbered in the order they're first seen instead of hashed, so two keys
+ * never share an ID. Items without a key can't be told apart from one list to the
+ * next, so adapters drop them with {@link #keyed}. Main thread only.
+ */
+final class StableIds {
+    private final Map<String, Long> ids = new HashMap<>();
+    private long nextId;
+
+    long idFor(@NonNull String key) {
+        Long id = ids.get(key);
+        if (id == null) {
+            id = nextId++;
+            ids.put(key, id);
+        }
+        return id;
+    }
+
+    /** @return A copy of the items that have a key, in order; empty for a null list */
+    static <T> List<T> keyed(@Nullable List<T> items, Function<T, String> keyOf) {
+        List<T> keyed = new ArrayList<>();
+        if (items == null) return keyed;
+        for (T item : items) {
+            if (item != null && keyOf.apply(item) != null) keyed.add(item);
+        }
+        return keyed;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.unifyu2.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.example.unifyu2.models.User;
+
+import java.util.Objects;
+
+/** Diffs users by uid, for the member and participant lists. */
+final class UserDiffCallback extends DiffUtil.ItemCallback<User> {
+    static final UserDiffCallback INSTANCE = new UserDiffCallback();
+
+    private UserDiffCallback() {
+    }
+
+    @Override
+    public boolean areItemsTheSame(@NonNull User oldUser, @NonNull User newUser) {
+        return Objects.equals(oldUser.getId(), newUser.getId());
+    }
+
+    @Override
+    public boolean areContentsTheSame(@NonNull User oldUser, @NonNull User newUser) {
+        return Objects.equals(oldUser.getUsername(), newUser.getUsername())
+            && Objects.equals(oldUser.getEmail(), newUser.getEmail())
+            && Objects.equals(oldUser.getRollNumber(), newUser.getRollNumber())
+            && Objects.equals(oldUser.getSemester(), newUser.getSemester());
+    }
+}
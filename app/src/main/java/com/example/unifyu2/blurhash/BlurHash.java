@@ -0,0 +1,208 @@
+package com.example.unifyu2.blurhash;
+
+/**
+ * Encodes images into BlurHash strings and decodes them back into blurred pixels,
+ * following the reference implementation at https://github.com/woltapp/blurhash.
+ * A hash of 4x3 components is 28 characters, small enough to store with a post or
+ * event and paint before the image itself has loaded.
+ *
+ * Pixels are packed ARGB ints, as used by {@code android.graphics.Bitmap}.
+ */
+public final class BlurHash {
+    private static final String CHARACTERS =
+        "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+    private static final double[] SRGB_TO_LINEAR = new double[256];
+    // Decoding converts every pixel back to sRGB, so the conversion is tabulated
+    // finely enough to stay within one level of the exact value
+    private static final int LINEAR_STEPS = 8192;
+    private static final int[] LINEAR_TO_SRGB = new int[LINEAR_STEPS + 1];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            double v = i / 255.0;
+            SRGB_TO_LINEAR[i] = v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+        }
+        for (int i = 0; i <= LINEAR_STEPS; i++) {
+            LINEAR_TO_SRGB[i] = linearToSrgb((double) i / LINEAR_STEPS);
+        }
+    }
+
+    private BlurHash() {
+    }
+
+    /**
+     * @param pixels ARGB pixels in row-major order; alpha is ignored
+     * @param componentsX Horizontal detail, 1-9
+     * @param componentsY Vertical detail, 1-9
+     */
+    public static String encode(int[] pixels, int width, int height, int componentsX, int componentsY) {
+        if (componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9) {
+            throw new IllegalArgumentException("Components must be between 1 and 9");
+        }
+        if (width <= 0 || height <= 0 || pixels.length < width * height) {
+            throw new IllegalArgumentException("Pixels don't match a " + width + "x" + height + " image");
+        }
+
+        double[] cosX = cosines(componentsX, width);
+        double[] cosY = cosines(componentsY, height);
+        double[][] factors = new double[componentsX * componentsY][3];
+        for (int j = 0; j < componentsY; j++) {
+            for (int i = 0; i < componentsX; i++) {
+                double r = 0, g = 0, b = 0;
+                for (int y = 0; y < height; y++) {
+                    double basisY = cosY[j * height + y];
+                    int row = y * width;
+                    for (int x = 0; x < width; x++) {
+                        double basis = cosX[i * width + x] * basisY;
+                        int pixel = pixels[row + x];
+                        r += basis * SRGB_TO_LINEAR[(pixel >> 16) & 0xff];
+                        g += basis * SRGB_TO_LINEAR[(pixel >> 8) & 0xff];
+                        b += basis * SRGB_TO_LINEAR[pixel & 0xff];
+                    }
+                }
+                double scale = (i == 0 && j == 0 ? 1.0 : 2.0) / (width * height);
+                double[] factor = factors[j * componentsX + i];
+                factor[0] = r * scale;
+                factor[1] = g * scale;
+                factor[2] = b * scale;
+            }
+        }
+
+        StringBuilder hash = new StringBuilder(4 + 2 * factors.length);
+        encode83((componentsX - 1) + (componentsY - 1) * 9, 1, hash);
+
+        double maximumValue;
+        if (factors.length > 1) {
+            double actualMaximum = 0;
+            for (int k = 1; k < factors.length; k++) {
+                for (double value : factors[k]) {
+                    actualMaximum = Math.max(actualMaximum, Math.abs(value));
+                }
+            }
+            int quantisedMaximum = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+            maximumValue = (quantisedMaximum + 1) / 166.0;
+            encode83(quantisedMaximum, 1, hash);
+        } else {
+            maximumValue = 1;
+            encode83(0, 1, hash);
+        }
+
+        double[] dc = factors[0];
+        encode83((linearToSrgb(dc[0]) << 16) + (linearToSrgb(dc[1]) << 8) + linearToSrgb(dc[2]), 4, hash);
+        for (int k = 1; k < factors.length; k++) {
+            double[] ac = factors[k];
+            encode83(quantiseAc(ac[0], maximumValue) * 19 * 19
+                + quantiseAc(ac[1], maximumValue) * 19
+                + quantiseAc(ac[2], maximumValue), 2, hash);
+        }
+        return hash.toString();
+    }
+
+    /**
+     * @param punch Contrast boost; 1 reproduces the encoded image
+     * @return ARGB pixels in row-major order, fully opaque
+     * @throws IllegalArgumentException if the hash is malformed
+     */
+    public static int[] decode(String hash, int width, int height, double punch) {
+        if (hash == null || hash.length() < 6) {
+            throw new IllegalArgumentException("BlurHash must be at least 6 characters");
+        }
+        int sizeFlag = decode83(hash, 0, 1);
+        int componentsX = sizeFlag % 9 + 1;
+        int componentsY = sizeFlag / 9 + 1;
+        if (hash.length() != 4 + 2 * componentsX * componentsY) {
+            throw new IllegalArgumentException("BlurHash length doesn't match its " + componentsX + "x"
+                + componentsY + " components");
+        }
+
+        double maximumValue = (decode83(hash, 1, 2) + 1) / 166.0 * punch;
+        double[] colors = new double[componentsX * componentsY * 3];
+        int dc = decode83(hash, 2, 6);
+        colors[0] = SRGB_TO_LINEAR[(dc >> 16) & 0xff];
+        colors[1] = SRGB_TO_LINEAR[(dc >> 8) & 0xff];
+        colors[2] = SRGB_TO_LINEAR[dc & 0xff];
+        for (int k = 1; k < componentsX * componentsY; k++) {
+            int ac = decode83(hash, 4 + k * 2, 6 + k * 2);
+            colors[k * 3] = signedPow((ac / (19 * 19) - 9) / 9.0, 2) * maximumValue;
+            colors[k * 3 + 1] = signedPow((ac / 19 % 19 - 9) / 9.0, 2) * maximumValue;
+            colors[k * 3 + 2] = signedPow((ac % 19 - 9) / 9.0, 2) * maximumValue;
+        }
+
+        double[] cosX = cosines(componentsX, width);
+        double[] cosY = cosines(componentsY, height);
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                double r = 0, g = 0, b = 0;
+                for (int j = 0; j < componentsY; j++) {
+                    double basisY = cosY[j * height + y];
+                    for (int i = 0; i < componentsX; i++) {
+                        double basis = cosX[i * width + x] * basisY;
+                        int color = (j * componentsX + i) * 3;
+                        r += colors[color] * basis;
+                        g += colors[color + 1] * basis;
+                        b += colors[color + 2] * basis;
+                    }
+                }
+                pixels[y * width + x] = 0xff000000 | (fastLinearToSrgb(r) << 16)
+                    | (fastLinearToSrgb(g) << 8) | fastLinearToSrgb(b);
+            }
+        }
+        return pixels;
+    }
+
+    /** cos(pi * component * position / size) for every component and position, component-major */
+    private static double[] cosines(int components, int size) {
+        double[] cosines = new double[components * size];
+        for (int c = 0; c < components; c++) {
+            for (int p = 0; p < size; p++) {
+                cosines[c * size + p] = Math.cos(Math.PI * c * p / size);
+            }
+        }
+        return cosines;
+    }
+
+    private static int quantiseAc(double value, double maximumValue) {
+        return (int) Math.max(0, Math.min(18, Math.floor(signedPow(value / maximumValue, 0.5) * 9 + 9.5)));
+    }
+
+    private static int linearToSrgb(double value) {
+        double v = Math.max(0, Math.min(1, value));
+        return v <= 0.0031308
+            ? (int) (v * 12.92 * 255 + 0.5)
+            : (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    private static int fastLinearToSrgb(double value) {
+        if (value <= 0) return 0;
+        if (value >= 1) return 255;
+        return LINEAR_TO_SRGB[(int) (value * LINEAR_STEPS + 0.5)];
+    }
+
+    private static double signedPow(double value, double exponent) {
+        return Math.copySign(Math.pow(Math.abs(value), exponent), value);
+    }
+
+    private static void encode83(int value, int length, StringBuilder out) {
+        int divisor = 1;
+        for (int i = 1; i < length; i++) {
+            divisor *= 83;
+        }
+        for (int i = 0; i < length; i++) {
+            out.append(CHARACTERS.charAt((value / divisor) % 83));
+            divisor /= 83;
+        }
+    }
+
+    private static int decode83(String hash, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = CHARACTERS.indexOf(hash.charAt(i));
+            if (digit < 0) {
+                throw new IllegalArgumentException("Invalid BlurHash character '" + hash.charAt(i) + "'");
+            }
+            value = value * 83 + digit;
+        }
+        return value;
+    }
+}
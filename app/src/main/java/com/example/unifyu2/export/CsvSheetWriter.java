@@ -0,0 +1,48 @@
+package com.example.unifyu2.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/** Writes RFC 4180 CSV, quoting cells that contain commas, quotes or line breaks. */
+public class CsvSheetWriter implements SheetWriter {
+    private final Writer writer;
+
+    public CsvSheetWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void writeRow(String... cells) throws IOException {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) writer.write(',');
+            writeCell(cells[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeCell(String cell) throws IOException {
+        if (cell == null || cell.isEmpty()) return;
+        boolean quote = cell.indexOf(',') >= 0 || cell.indexOf('"') >= 0
+            || cell.indexOf('\n') >= 0 || cell.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(cell);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < cell.length(); i++) {
+            char c = cell.charAt(i);
+            if (c == '"') writer.write('"');
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.unifyu2.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public enum ExportFormat {
+    CSV("csv", "text/csv"),
+    XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    public final String extension;
+    public final String mimeType;
+
+    ExportFormat(String extension, String mimeType) {
+        this.extension = extension;
+        this.mimeType = mimeType;
+    }
+
+    public SheetWriter newWriter(OutputStream out, String sheetName) throws IOException {
+        return this == XLSX ? new XlsxSheetWriter(out, sheetName) : new CsvSheetWriter(out);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.unifyu2.export;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+
+/** Streams rows from an iterator into a CSV or .xlsx file. Blocking. */
+public class SheetExporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Progress is reported at most once per this many rows
+    private static final int PROGRESS_INTERVAL = 500;
+
+    public interface ProgressCallback {
+        void onProgress(int rowsWritten, int totalRows);
+    }
+
+    /**
+     * Writes the header and rows through a buffered file channel. Rows go to a
+     * temporary file first, so a failed export never leaves a truncated file behind.
+     * @param progress Optional; called every {@link #PROGRESS_INTERVAL} rows and after the last one
+     */
+    public static void writeToFile(File outputFile, ExportFormat format, String sheetName, String[] headers,
+                                   Iterator<String[]> rows, int totalRows,
+                                   ProgressCallback progress) throws IOException {
+        File tempFile = new File(outputFile.getPath() + ".part");
+        try (FileOutputStream fileOut = new FileOutputStream(tempFile);
+             FileChannel channel = fileOut.getChannel()) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+            try (SheetWriter writer = format.newWriter(out, sheetName)) {
+                writer.writeRow(headers);
+                int written = 0;
+                while (rows.hasNext()) {
+                    writer.writeRow(rows.next());
+                    written++;
+                    if (progress != null && (written % PROGRESS_INTERVAL == 0 || written == totalRows)) {
+                        progress.onProgress(written, totalRows);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            tempFile.delete();
+            throw e;
+        }
+
+        if ((outputFile.exists() && !outputFile.delete()) || !tempFile.renameTo(outputFile)) {
+            tempFile.delete();
+            throw new IOException("Couldn't write " + outputFile.getName());
+        }
+    }
+}
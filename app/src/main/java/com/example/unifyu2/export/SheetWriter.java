@@ -0,0 +1,16 @@
+package com.example.unifyu2.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes a single sheet of string cells one row at a time, so exports never
+ * hold more than the current row in memory.
+ */
+public interface SheetWriter extends Closeable {
+    void writeRow(String... cells) throws IOException;
+
+    /** Finishes the file; the underlying stream is closed as well. */
+    @Override
+    void close() throws IOException;
+}
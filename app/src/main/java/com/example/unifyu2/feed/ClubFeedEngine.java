@@ -0,0 +1,453 @@
+package com.example.unifyu2.feed;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.unifyu2.mapping.PostMapper;
+import com.example.unifyu2.models.Post;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads the feed for a set of clubs with one indexed query per club instead of
+ * listening on the whole /posts node, and merges the per-club streams by timestamp.
+ *
+ * The newest page of each club is kept live with a ChildEventListener, so a change
+ * to one post is reported as a single-row update. Older pages are fetched on demand
+ * with a key cursor. Only the prefix of the merged feed that no unloaded post can
+ * interleave with is published, so older pages are always appended at the end.
+ */
+public class ClubFeedEngine {
+    private static final String TAG = "ClubFeedEngine";
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    public interface FeedListener {
+        void onFeedLoaded(List<Post> posts);
+        void onPostInserted(int position, Post post);
+        void onPostChanged(int position, Post post);
+        void onPostMoved(int fromPosition, int toPosition, Post post);
+        void onPostRemoved(int position);
+        void onOlderPostsLoaded(List<Post> olderPosts);
+        void onFeedError(DatabaseError error);
+    }
+
+    private final DatabaseReference postsRef;
+    private final Set<String> clubIds;
+    private final int pageSize;
+
+    private final Map<String, ClubStream> streams = new HashMap<>();
+    private final Map<Query, ChildEventListener> headListeners = new HashMap<>();
+    private final Set<String> pendingClubs = new HashSet<>();
+    private final FeedIndex index = new FeedIndex();
+    private Post watermark;
+    private int pendingPages;
+    private FeedListener feedListener;
+
+    public ClubFeedEngine(DatabaseReference postsRef, Set<String> clubIds) {
+        this(postsRef, clubIds, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param pageSize Posts fetched per club for the live first page and for each older page
+     */
+    public ClubFeedEngine(DatabaseReference postsRef, Set<String> clubIds, int pageSize) {
+        this.postsRef = postsRef;
+        this.clubIds = new HashSet<>(clubIds);
+        this.pageSize = pageSize;
+    }
+
+    public void start(FeedListener listener) {
+        stop();
+        this.feedListener = listener;
+        pendingClubs.addAll(clubIds);
+
+        Log.d(TAG, "Starting feed for " + clubIds.size() + " clubs");
+        for (String clubId : clubIds) {
+            ClubStream stream = new ClubStream();
+            streams.put(clubId, stream);
+
+            Query query = postsRef.orderByChild("clubId").equalTo(clubId).limitToLast(pageSize);
+            ChildEventListener headListener = new HeadListener(clubId, stream);
+            headListeners.put(query, headListener);
+            query.addChildEventListener(headListener);
+
+            // Value events fire after the initial child events, and the data is
+            // already cached by the child listener, so this only marks the club loaded
+            query.addListenerForSingleValueEvent(new ValueEventListener() {
+                @Override
+                public void onDataChange(@NonNull DataSnapshot snapshot) {
+                    if (streams.get(clubId) != stream) return;
+                    if (snapshot.getChildrenCount() < pageSize) {
+                        stream.exhausted = true;
+                    }
+                    onClubLoaded(clubId);
+                }
+
+                @Override
+                public void onCancelled(@NonNull DatabaseError error) {
+                    if (streams.get(clubId) != stream) return;
+                    stream.exhausted = true;
+                    onClubLoaded(clubId);
+                }
+            });
+        }
+    }
+
+    public void stop() {
+        for (Map.Entry<Query, ChildEventListener> entry : headListeners.entrySet()) {
+            entry.getKey().removeEventListener(entry.getValue());
+        }
+        headListeners.clear();
+        streams.clear();
+        pendingClubs.clear();
+        index.clear();
+        watermark = null;
+        pendingPages = 0;
+        feedListener = null;
+    }
+
+    public boolean isLoadingOlder() {
+        return pendingPages > 0;
+    }
+
+    public boolean canLoadOlder() {
+        if (feedListener == null || !pendingClubs.isEmpty() || pendingPages > 0) return false;
+        for (ClubStream stream : streams.values()) {
+            if (!stream.exhausted) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Fetches the next page for every club whose loaded posts are already all visible,
+     * i.e. the clubs holding back the end of the feed.
+     */
+    public void loadOlder() {
+        if (!canLoadOlder()) return;
+        for (Map.Entry<String, ClubStream> entry : streams.entrySet()) {
+            ClubStream stream = entry.getValue();
+            if (stream.exhausted || stream.cursorKey == null) continue;
+            Post oldest = stream.oldest();
+            if (oldest == null || index.contains(oldest.getPostId())) {
+                fetchOlderPage(entry.getKey(), stream);
+            }
+        }
+        Log.d(TAG, "Loading older posts from " + pendingPages + " clubs");
+    }
+
+    private void onClubLoaded(String clubId) {
+        if (!pendingClubs.remove(clubId) || !pendingClubs.isEmpty() || feedListener == null) return;
+
+        index.clear();
+        watermark = computeWatermark();
+        index.appendAll(collectVisible(null, watermark));
+        Log.d(TAG, "Merged " + index.size() + " posts from " + streams.size() + " clubs");
+        feedListener.onFeedLoaded(index.toList());
+    }
+
+    private boolean isLive() {
+        return feedListener != null && pendingClubs.isEmpty();
+    }
+
+    private boolean isVisible(Post post) {
+        return watermark == null || FeedMerger.NEWEST_FIRST.compare(post, watermark) <= 0;
+    }
+
+    private void showPost(Post post) {
+        if (!isLive() || !isVisible(post)) return;
+        feedListener.onPostInserted(index.insert(post), post);
+    }
+
+    private void updatePost(Post post) {
+        if (!isLive()) return;
+        Post previous = index.get(post.getPostId());
+        if (previous == null) {
+            showPost(post);
+        } else if (FeedMerger.NEWEST_FIRST.compare(previous, post) == 0) {
+            feedListener.onPostChanged(index.replace(post), post);
+        } else {
+            int from = index.remove(post.getPostId());
+            if (!isVisible(post)) {
+                feedListener.onPostRemoved(from);
+                return;
+            }
+            int to = index.insert(post);
+            feedListener.onPostMoved(from, to, post);
+            feedListener.onPostChanged(to, post);
+        }
+    }
+
+    private void hidePost(String postId) {
+        if (!isLive()) return;
+        int position = index.remove(postId);
+        if (position >= 0) feedListener.onPostRemoved(position);
+    }
+
+    /** Publishes posts uncovered by the watermark moving to an older post. */
+    private void advanceWatermark() {
+        if (!isLive()) return;
+        Post previous = watermark;
+        watermark = computeWatermark();
+        if (watermark == previous) return;
+
+        List<Post> uncovered = collectVisible(previous, watermark);
+        if (!uncovered.isEmpty()) {
+            index.appendAll(uncovered);
+            Log.d(TAG, "Appending " + uncovered.size() + " older posts");
+            feedListener.onOlderPostsLoaded(uncovered);
+        }
+    }
+
+    private void fetchOlderPage(String clubId, ClubStream stream) {
+        String cursorKey = stream.cursorKey;
+        // Children with equal clubId are ordered by key, and push keys are chronological
+        Query query = postsRef.orderByChild("clubId")
+            .startAt(clubId)
+            .endAt(clubId, cursorKey)
+            .limitToLast(pageSize + 1);
+
+        pendingPages++;
+        query.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (streams.get(clubId) != stream) return;
+                List<Post> page = new ArrayList<>((int) snapshot.getChildrenCount());
+                String firstKey = null;
+                for (DataSnapshot postSnapshot : snapshot.getChildren()) {
+                    if (firstKey == null) firstKey = postSnapshot.getKey();
+                    Post post = parsePost(postSnapshot);
+                    if (post != null && !cursorKey.equals(post.getPostId())) {
+                        page.add(post);
+                    }
+                }
+                stream.appendOlder(page, firstKey);
+                if (snapshot.getChildrenCount() <= pageSize) {
+                    stream.exhausted = true;
+                }
+                onPageFinished();
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                if (streams.get(clubId) != stream) return;
+                Log.e(TAG, "Older page cancelled for club " + clubId, error.toException());
+                stream.exhausted = true;
+                if (feedListener != null) feedListener.onFeedError(error);
+                onPageFinished();
+            }
+        });
+    }
+
+    private void onPageFinished() {
+        pendingPages--;
+        if (pendingPages == 0) advanceWatermark();
+    }
+
+    @Nullable
+    private static Post parsePost(DataSnapshot snapshot) {
+        try {
+            return PostMapper.INSTANCE.fromSnapshot(snapshot);
+        } catch (Exception e) {
+            Log.e(TAG, "Error parsing post: " + snapshot.getKey(), e);
+            return null;
+        }
+    }
+
+    /**
+     * The newest of the clubs' oldest loaded posts; anything below it could still be
+     * preceded by an unloaded post from a club that isn't exhausted.
+     */
+    @Nullable
+    private Post computeWatermark() {
+        Post newestOldest = null;
+        for (ClubStream stream : streams.values()) {
+            Post oldest = stream.oldest();
+            if (!stream.exhausted && oldest != null
+                    && (newestOldest == null || FeedMerger.NEWEST_FIRST.compare(oldest, newestOldest) < 0)) {
+                newestOldest = oldest;
+            }
+        }
+        return newestOldest;
+    }
+
+    /** Loaded posts strictly older than {@code after} and no older than {@code upTo}. */
+    private List<Post> collectVisible(@Nullable Post after, @Nullable Post upTo) {
+        List<List<Post>> clubPosts = new ArrayList<>(streams.size());
+        for (ClubStream stream : streams.values()) {
+            clubPosts.add(stream.posts());
+        }
+        List<Post> merged = FeedMerger.merge(clubPosts, 0);
+        List<Post> range = new ArrayList<>();
+        for (Post post : merged) {
+            if (after != null && FeedMerger.NEWEST_FIRST.compare(post, after) <= 0) continue;
+            if (upTo != null && FeedMerger.NEWEST_FIRST.compare(post, upTo) > 0) break;
+            if (!index.contains(post.getPostId())) range.add(post);
+        }
+        return range;
+    }
+
+    private class HeadListener implements ChildEventListener {
+        private final String clubId;
+        private final ClubStream stream;
+
+        HeadListener(String clubId, ClubStream stream) {
+            this.clubId = clubId;
+            this.stream = stream;
+        }
+
+        @Override
+        public void onChildAdded(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            Post post = parsePost(snapshot);
+            if (post == null) return;
+
+            Post deleted = stream.resolvePendingEviction(post);
+            if (deleted != null) hidePost(deleted.getPostId());
+
+            if (stream.addToHead(post)) {
+                updatePost(post);
+            } else {
+                showPost(post);
+            }
+            advanceWatermark();
+        }
+
+        @Override
+        public void onChildChanged(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            Post post = parsePost(snapshot);
+            if (post == null) return;
+            stream.replaceInHead(post);
+            updatePost(post);
+        }
+
+        @Override
+        public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+            if (stream.removeFromHead(snapshot.getKey(), pageSize)) {
+                // Pushed out of the live window; it stays in the feed as an older post
+                return;
+            }
+            hidePost(snapshot.getKey());
+            advanceWatermark();
+        }
+
+        @Override
+        public void onChildMoved(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            // Children are ordered by clubId then key, neither of which changes in place;
+            // feed order comes from timestamps and is handled in onChildChanged
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            Log.e(TAG, "Feed query cancelled for club " + clubId, error.toException());
+            if (feedListener != null) feedListener.onFeedError(error);
+        }
+    }
+
+    private static class ClubStream {
+        private final List<Post> head = new ArrayList<>();
+        private final List<Post> older = new ArrayList<>();
+        private String cursorKey;
+        private boolean exhausted;
+        // Oldest post dropped from a full live window. A later backfill with an older
+        // key means it was deleted; a newer post means it was pushed out
+        private Post pendingEviction;
+
+        /** @return The pending eviction if the added post proves it was really a deletion */
+        Post resolvePendingEviction(Post added) {
+            Post candidate = pendingEviction;
+            pendingEviction = null;
+            if (candidate != null && added.getPostId().compareTo(candidate.getPostId()) < 0) {
+                older.remove(candidate);
+                return candidate;
+            }
+            return null;
+        }
+
+        /** @return true if the post was already loaded from an older page */
+        boolean addToHead(Post post) {
+            boolean known = removeById(older, post.getPostId()) != null;
+            insertSorted(head, post);
+            if (cursorKey == null || post.getPostId().compareTo(cursorKey) < 0) {
+                cursorKey = post.getPostId();
+            }
+            return known;
+        }
+
+        void replaceInHead(Post post) {
+            removeById(head, post.getPostId());
+            insertSorted(head, post);
+        }
+
+        /** @return true if the post was pushed out of a full window rather than deleted */
+        boolean removeFromHead(String postId, int pageSize) {
+            boolean wasFull = head.size() >= pageSize;
+            Post removed = removeById(head, postId);
+            if (removed == null) return false;
+
+            boolean oldestKey = true;
+            for (Post post : head) {
+                if (post.getPostId().compareTo(postId) < 0) {
+                    oldestKey = false;
+                    break;
+                }
+            }
+            if (wasFull && oldestKey) {
+                older.add(0, removed);
+                pendingEviction = removed;
+                return true;
+            }
+            return false;
+        }
+
+        void appendOlder(List<Post> page, String pageFirstKey) {
+            Set<String> loadedIds = new HashSet<>();
+            for (Post post : head) loadedIds.add(post.getPostId());
+            for (Post post : older) loadedIds.add(post.getPostId());
+            for (Post post : page) {
+                if (!loadedIds.contains(post.getPostId())) insertSorted(older, post);
+            }
+            if (pageFirstKey != null) cursorKey = pageFirstKey;
+        }
+
+        List<Post> posts() {
+            return FeedMerger.merge(Arrays.asList(head, older), 0);
+        }
+
+        Post oldest() {
+            Post oldestHead = head.isEmpty() ? null : head.get(head.size() - 1);
+            Post oldestOlder = older.isEmpty() ? null : older.get(older.size() - 1);
+            if (oldestHead == null) return oldestOlder;
+            if (oldestOlder == null) return oldestHead;
+            return FeedMerger.NEWEST_FIRST.compare(oldestHead, oldestOlder) > 0 ? oldestHead : oldestOlder;
+        }
+
+        private static void insertSorted(List<Post> posts, Post post) {
+            int position = Collections.binarySearch(posts, post, FeedMerger.NEWEST_FIRST);
+            posts.add(position < 0 ? -position - 1 : position, post);
+        }
+
+        private static Post removeById(List<Post> posts, String postId) {
+            for (int i = 0; i < posts.size(); i++) {
+                if (postId.equals(posts.get(i).getPostId())) {
+                    return posts.remove(i);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.unifyu2.feed;
+
+import com.example.unifyu2.models.Post;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The posts currently shown in the feed, kept sorted with {@link FeedMerger#NEWEST_FIRST}
+ * and keyed by post ID so single changes can be located with a binary search.
+ */
+public class FeedIndex {
+    private final List<Post> posts = new ArrayList<>();
+    private final Map<String, Post> byId = new HashMap<>();
+
+    public int size() {
+        return posts.size();
+    }
+
+    public boolean contains(String postId) {
+        return byId.containsKey(postId);
+    }
+
+    public Post get(String postId) {
+        return byId.get(postId);
+    }
+
+    public List<Post> toList() {
+        return new ArrayList<>(posts);
+    }
+
+    public void clear() {
+        posts.clear();
+        byId.clear();
+    }
+
+    /** @return The position the post was inserted at */
+    public int insert(Post post) {
+        int position = Collections.binarySearch(posts, post, FeedMerger.NEWEST_FIRST);
+        if (position < 0) position = -position - 1;
+        posts.add(position, post);
+        byId.put(post.getPostId(), post);
+        return position;
+    }
+
+    /** @return The position the post was removed from, or -1 if it wasn't indexed */
+    public int remove(String postId) {
+        Post post = byId.remove(postId);
+        if (post == null) return -1;
+        int position = indexOf(post);
+        posts.remove(position);
+        return position;
+    }
+
+    /** @return The current position of the post, or -1 if it isn't indexed */
+    public int positionOf(String postId) {
+        Post post = byId.get(postId);
+        return post != null ? indexOf(post) : -1;
+    }
+
+    /** Replaces a post in place; the caller must ensure its sort key is unchanged. */
+    public int replace(Post post) {
+        int position = positionOf(post.getPostId());
+        if (position >= 0) {
+            posts.set(position, post);
+            byId.put(post.getPostId(), post);
+        }
+        return position;
+    }
+
+    /** Appends posts that all sort after the current last post. */
+    public void appendAll(List<Post> olderPosts) {
+        for (Post post : olderPosts) {
+            posts.add(post);
+            byId.put(post.getPostId(), post);
+        }
+    }
+
+    private int indexOf(Post post) {
+        int position = Collections.binarySearch(posts, post, FeedMerger.NEWEST_FIRST);
+        if (position < 0 || posts.get(position) != post) {
+            position = posts.indexOf(post);
+        }
+        return position;
+    }
+}
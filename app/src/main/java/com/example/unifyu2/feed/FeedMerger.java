@@ -0,0 +1,72 @@
+package com.example.unifyu2.feed;
+
+import com.example.unifyu2.models.Post;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges per-club post streams into a single newest-first feed.
+ * Each input list must already be sorted newest first.
+ */
+public class FeedMerger {
+
+    /** Newest post first; ties broken by post ID so the order is stable. */
+    public static final Comparator<Post> NEWEST_FIRST = (p1, p2) -> {
+        int byTime = Long.compare(p2.getTimestampLong(), p1.getTimestampLong());
+        if (byTime != 0) return byTime;
+        String id1 = p1.getPostId() != null ? p1.getPostId() : "";
+        String id2 = p2.getPostId() != null ? p2.getPostId() : "";
+        return id2.compareTo(id1);
+    };
+
+    private FeedMerger() {}
+
+    /**
+     * K-way heap merge of the given streams, O(n log k) for n posts in k clubs.
+     * @param streams Per-club lists, each sorted with {@link #NEWEST_FIRST}
+     * @param limit Maximum number of posts to return, or 0 for no limit
+     */
+    public static List<Post> merge(Collection<List<Post>> streams, int limit) {
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Math.max(1, streams.size()),
+            (c1, c2) -> NEWEST_FIRST.compare(c1.head(), c2.head()));
+        int total = 0;
+        for (List<Post> stream : streams) {
+            if (stream != null && !stream.isEmpty()) {
+                heap.add(new Cursor(stream));
+                total += stream.size();
+            }
+        }
+
+        int size = limit > 0 ? Math.min(limit, total) : total;
+        List<Post> merged = new ArrayList<>(size);
+        while (!heap.isEmpty() && merged.size() < size) {
+            Cursor cursor = heap.poll();
+            merged.add(cursor.head());
+            if (cursor.advance()) {
+                heap.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private static class Cursor {
+        private final List<Post> stream;
+        private int position;
+
+        Cursor(List<Post> stream) {
+            this.stream = stream;
+        }
+
+        Post head() {
+            return stream.get(position);
+        }
+
+        boolean advance() {
+            return ++position < stream.size();
+        }
+    }
+}
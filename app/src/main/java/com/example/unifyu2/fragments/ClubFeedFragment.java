@@ -18,6 +18,7 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.unifyu2.R;
 import com.example.unifyu2.adapters.PostAdapter;
+import com.example.unifyu2.feed.ClubFeedEngine;
 import com.example.unifyu2.models.Post;
 import com.google.android.material.floatingactionbutton.ExtendedFloatingActionButton;
 import com.google.firebase.auth.FirebaseAuth;
@@ -28,8 +29,6 @@ import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.Query;
 import com.google.firebase.database.ValueEventListener;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -38,6 +37,7 @@ import java.util.Set;
 
 public class ClubFeedFragment extends Fragment implements PostAdapter.OnPostInteractionListener {
     private static final String TAG = "ClubFeedFragment";
+    private static final int LOAD_MORE_THRESHOLD = 5;
     private RecyclerView recyclerView;
     private SwipeRefreshLayout swipeRefreshLayout;
     private View emptyStateContainer;
@@ -49,7 +49,7 @@ public class ClubFeedFragment extends Fragment implements PostAdapter.OnPostInte
     private DatabaseReference postsRef;
     private FirebaseAuth firebaseAuth;
     private DatabaseReference membershipsRef;
-    private ValueEventListener feedListener;
+    private ClubFeedEngine feedEngine;
 
     public ClubFeedFragment() {
         // Required empty constructor
@@ -89,10 +89,21 @@ public class ClubFeedFragment extends Fragment implements PostAdapter.OnPostInte
             //createPostFab = view.findViewById(R.id.createPostFab);
 
             // Initialize RecyclerView for posts
-            recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+            LinearLayoutManager layoutManager = new LinearLayoutManager(getContext());
+            recyclerView.setLayoutManager(layoutManager);
             adapter = new PostAdapter(requireContext(), this);
             recyclerView.setAdapter(adapter);
 
+            // Load older pages as the user nears the end of the feed. RecyclerView also calls
+            // onScrolled with dy == 0 when a layout changes the visible range, which keeps
+            // pages coming while the feed is too short to scroll.
+            recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+                @Override
+                public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                    if (dy >= 0) loadOlderIfNearEnd();
+                }
+            });
+
             // Setup SwipeRefreshLayout
             swipeRefreshLayout.setOnRefreshListener(this::loadPosts);
 
@@ -110,6 +121,17 @@ public class ClubFeedFragment extends Fragment implements PostAdapter.OnPostInte
         }
     }
 
+    private void loadOlderIfNearEnd() {
+        if (!isAdded() || feedEngine == null || !feedEngine.canLoadOlder()) return;
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        if (layoutManager == null) return;
+        int lastVisible = layoutManager.findLastVisibleItemPosition();
+        // Counts posts still being diffed in, which the next layout will check again once shown
+        if (lastVisible >= adapter.getPostCount() - LOAD_MORE_THRESHOLD) {
+            feedEngine.loadOlder();
+        }
+    }
+
     private void loadPosts() {
         if (!isAdded() || getContext() == null) {
             Log.d(TAG, "Fragment not attached, skipping loadPosts");
@@ -122,8 +144,8 @@ public class ClubFeedFragment extends Fragment implements PostAdapter.OnPostInte
             return;
         }
 
-        if (feedListener != null) {
-            postsRef.removeEventListener(feedListener);
+        if (feedEngine != null) {
+            feedEngine.stop();
         }
 
         progressBar.setVisibility(View.VISIBLE);
@@ -131,73 +153,60 @@ public class ClubFeedFragment extends Fragment implements PostAdapter.OnPostInte
         recyclerView.setVisibility(View.GONE);
 
         try {
-            Log.d(TAG, "Starting to load posts from: " + postsRef.toString());
-            Log.d(TAG, "Looking for posts matching club IDs: " + clubIds);
-            
-            // Query posts for all clubs in one go
-            feedListener = postsRef.addValueEventListener(new ValueEventListener() {
+            Log.d(TAG, "Starting to load posts for club IDs: " + clubIds);
+
+            // One indexed query per club, merged by timestamp (newest first) and paged
+            feedEngine = new ClubFeedEngine(postsRef, clubIds);
+            feedEngine.start(new ClubFeedEngine.FeedListener() {
                 @Override
-                public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
+                public void onFeedLoaded(List<Post> posts) {
                     if (!isAdded() || getContext() == null) {
-                        Log.d(TAG, "Fragment not attached during data change");
+                        Log.d(TAG, "Fragment not attached during feed load");
                         return;
                     }
 
-                    try {
-                        Log.d(TAG, "Processing " + dataSnapshot.getChildrenCount() + " total posts");
-                        List<Post> posts = new ArrayList<>();
-                        
-                        for (DataSnapshot snapshot : dataSnapshot.getChildren()) {
-                            try {
-                                // Get post data
-                                Post post = snapshot.getValue(Post.class);
-                                if (post != null) {
-                                    // Set post ID
-                                    post.setPostId(snapshot.getKey());
-                                    
-                                    // Check if post belongs to one of the user's clubs
-                                    String postClubId = post.getClubId();
-                                    if (postClubId != null && clubIds.contains(postClubId)) {
-                                        posts.add(post);
-                                    } else {
-                                        Log.d(TAG, "Skipped post: clubId " + postClubId + 
-                                            " not in user's clubs: " + clubIds);
-                                    }
-                                }
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error parsing post: " + snapshot.getKey(), e);
-                            }
-                        }
-
-                        Log.d(TAG, "Found " + posts.size() + " matching posts");
-
-                        if (posts.isEmpty()) {
-                            Log.d(TAG, "No posts to display");
-                            showEmptyView();
-                        } else {
-                            // Sort posts by timestamp (newest first)
-                            Collections.sort(posts, (p1, p2) -> {
-                                Long timestamp1 = p1.getTimestamp() instanceof Long ? (Long) p1.getTimestamp() : 0L;
-                                Long timestamp2 = p2.getTimestamp() instanceof Long ? (Long) p2.getTimestamp() : 0L;
-                                return timestamp2.compareTo(timestamp1);
-                            });
-                            
-                            Log.d(TAG, "Setting " + posts.size() + " posts to adapter");
-                            adapter.setPosts(posts);
-                            recyclerView.setVisibility(View.VISIBLE);
-                            emptyStateContainer.setVisibility(View.GONE);
-                        }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error processing posts", e);
-                        showError("Error loading posts: " + e.getMessage());
-                    } finally {
-                        progressBar.setVisibility(View.GONE);
-                        swipeRefreshLayout.setRefreshing(false);
-                    }
+                    Log.d(TAG, "Found " + posts.size() + " matching posts");
+                    adapter.setPosts(posts);
+                    updateFeedVisibility();
+                    recyclerView.post(ClubFeedFragment.this::loadOlderIfNearEnd);
+                }
+
+                @Override
+                public void onPostInserted(int position, Post post) {
+                    if (!isAdded() || getContext() == null) return;
+                    adapter.insertPost(position, post);
+                    updateFeedVisibility();
+                }
+
+                @Override
+                public void onPostChanged(int position, Post post) {
+                    if (!isAdded() || getContext() == null) return;
+                    adapter.changePost(position, post);
+                }
+
+                @Override
+                public void onPostMoved(int fromPosition, int toPosition, Post post) {
+                    if (!isAdded() || getContext() == null) return;
+                    adapter.movePost(fromPosition, toPosition);
+                }
+
+                @Override
+                public void onPostRemoved(int position) {
+                    if (!isAdded() || getContext() == null) return;
+                    adapter.removePost(position);
+                    updateFeedVisibility();
                 }
 
                 @Override
-                public void onCancelled(@NonNull DatabaseError databaseError) {
+                public void onOlderPostsLoaded(List<Post> olderPosts) {
+                    if (!isAdded() || getContext() == null) return;
+                    Log.d(TAG, "Appending " + olderPosts.size() + " older posts");
+                    adapter.appendPosts(olderPosts);
+                    recyclerView.post(ClubFeedFragment.this::loadOlderIfNearEnd);
+                }
+
+                @Override
+                public void onFeedError(DatabaseError databaseError) {
                     if (!isAdded() || getContext() == null) return;
                     Log.e(TAG, "Database error", databaseError.toException());
                     showError("Error loading posts: " + databaseError.getMessage());
@@ -209,11 +218,24 @@ public class ClubFeedFragment extends Fragment implements PostAdapter.OnPostInte
         }
     }
 
+    private void updateFeedVisibility() {
+        progressBar.setVisibility(View.GONE);
+        swipeRefreshLayout.setRefreshing(false);
+
+        if (adapter.getPostCount() == 0) {
+            Log.d(TAG, "No posts to display");
+            showEmptyView();
+        } else {
+            recyclerView.setVisibility(View.VISIBLE);
+            emptyStateContainer.setVisibility(View.GONE);
+        }
+    }
+
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-        if (feedListener != null) {
-            postsRef.removeEventListener(feedListener);
+        if (feedEngine != null) {
+            feedEngine.stop();
         }
     }
 
@@ -16,16 +16,19 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.unifyu2.R;
 import com.example.unifyu2.adapters.EnhancedEventAdapter;
+import com.example.unifyu2.mapping.EventMapper;
+import com.example.unifyu2.mapping.SnapshotCache;
+import com.example.unifyu2.mapping.SnapshotDecoder;
 import com.example.unifyu2.models.Event;
+import com.example.unifyu2.utils.RegistrationTracker;
 import com.google.android.material.progressindicator.CircularProgressIndicator;
+import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 
-import java.util.ArrayList;
-import java.util.List;
 
 public class EventsFragment extends Fragment {
     private static final String TAG = "EventsFragment";
@@ -37,6 +40,8 @@ public class EventsFragment extends Fragment {
     private SwipeRefreshLayout swipeRefreshLayout;
     private DatabaseReference eventsRef;
     private ValueEventListener eventsListener;
+    private final SnapshotCache<Event> eventCache = new SnapshotCache<>(EventMapper.INSTANCE);
+    private RegistrationTracker registrationTracker;
     
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -56,6 +61,12 @@ public class EventsFragment extends Fragment {
         adapter = new EnhancedEventAdapter(getContext());
         recyclerView.setAdapter(adapter);
         
+        // Registration state comes from the user's index rather than the events themselves
+        registrationTracker = new RegistrationTracker(FirebaseAuth.getInstance().getCurrentUser().getUid());
+        registrationTracker.start(eventIds -> {
+            if (isAdded()) adapter.setRegisteredEventIds(eventIds);
+        });
+        
         // Setup SwipeRefreshLayout
         swipeRefreshLayout.setOnRefreshListener(this::loadEvents);
         
@@ -79,31 +90,21 @@ public class EventsFragment extends Fragment {
             public void onDataChange(@NonNull DataSnapshot snapshot) {
                 if (!isAdded() || getContext() == null) return;
                 
-                List<Event> events = new ArrayList<>();
-                for (DataSnapshot eventSnapshot : snapshot.getChildren()) {
-                    try {
-                        Event event = eventSnapshot.getValue(Event.class);
-                        if (event != null) {
-                            event.setEventId(eventSnapshot.getKey());
-                            events.add(event);
-                        }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error parsing event", e);
+                SnapshotDecoder.decodeChildren(snapshot, eventCache, events -> {
+                    if (!isAdded() || getContext() == null) return;
+                    adapter.updateEvents(events);
+                    
+                    if (events.isEmpty()) {
+                        noEventsText.setVisibility(View.VISIBLE);
+                        recyclerView.setVisibility(View.GONE);
+                    } else {
+                        noEventsText.setVisibility(View.GONE);
+                        recyclerView.setVisibility(View.VISIBLE);
                     }
-                }
-                
-                adapter.updateEvents(events);
-                
-                if (events.isEmpty()) {
-                    noEventsText.setVisibility(View.VISIBLE);
-                    recyclerView.setVisibility(View.GONE);
-                } else {
-                    noEventsText.setVisibility(View.GONE);
-                    recyclerView.setVisibility(View.VISIBLE);
-                }
-                
-                progressBar.setVisibility(View.GONE);
-                swipeRefreshLayout.setRefreshing(false);
+                    
+                    progressBar.setVisibility(View.GONE);
+                    swipeRefreshLayout.setRefreshing(false);
+                });
             }
             
             @Override
@@ -124,5 +125,8 @@ public class EventsFragment extends Fragment {
         if (eventsListener != null) {
             eventsRef.removeEventListener(eventsListener);
         }
+        if (registrationTracker != null) {
+            registrationTracker.stop();
+        }
     }
 } 
\ No newline at end of file
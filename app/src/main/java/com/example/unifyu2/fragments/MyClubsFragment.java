@@ -17,8 +17,10 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.unifyu2.ManageClubActivity;
 import com.example.unifyu2.R;
 import com.example.unifyu2.adapters.ClubAdapter;
+import com.example.unifyu2.mapping.ClubMapper;
 import com.example.unifyu2.models.Club;
-import com.example.unifyu2.models.ClubMembership;
+import com.example.unifyu2.utils.MemberCounter;
+import com.example.unifyu2.utils.MembershipTracker;
 import com.google.android.material.progressindicator.CircularProgressIndicator;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.firebase.auth.FirebaseAuth;
@@ -39,6 +41,9 @@ public class MyClubsFragment extends Fragment implements ClubAdapter.OnClubClick
     private CircularProgressIndicator progressBar;
     private ClubAdapter adapter;
     private List<Club> clubList;
+    private MembershipTracker membershipTracker;
+    // Bumped on every membership change so reads for an outdated set are ignored
+    private int loadGeneration;
     
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -68,57 +73,43 @@ public class MyClubsFragment extends Fragment implements ClubAdapter.OnClubClick
         
         Log.d(TAG, "Starting to load clubs for user: " + userId);
         
-        // First get all club memberships for this user
-        DatabaseReference membershipRef = FirebaseDatabase.getInstance().getReference("memberships");
-        Log.d(TAG, "Querying memberships at path: " + membershipRef.toString());
-        
-        membershipRef.orderByChild("userId").equalTo(userId).addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                if (!isAdded() || getContext() == null) return;
-                
-                Log.d(TAG, "Membership snapshot exists: " + snapshot.exists());
-                Log.d(TAG, "Membership snapshot count: " + snapshot.getChildrenCount());
-                
-                List<String> clubIds = new ArrayList<>();
-                for (DataSnapshot membershipSnapshot : snapshot.getChildren()) {
-                    Log.d(TAG, "Membership key: " + membershipSnapshot.getKey());
-                    
-                    ClubMembership membership = membershipSnapshot.getValue(ClubMembership.class);
-                    if (membership != null) {
-                        Log.d(TAG, "Found membership with clubId: " + membership.getClubId());
-                        clubIds.add(membership.getClubId());
-                    } else {
-                        Log.e(TAG, "Failed to parse membership from: " + membershipSnapshot.getKey());
-                    }
-                }
-                
-                if (clubIds.isEmpty()) {
-                    Log.d(TAG, "No club IDs found for user");
-                    noClubsText.setVisibility(View.VISIBLE);
-                    recyclerView.setVisibility(View.GONE);
-                    progressBar.setVisibility(View.GONE);
-                    return;
-                }
-                
-                Log.d(TAG, "Found " + clubIds.size() + " club IDs: " + clubIds);
-                
-                // Now fetch the club details for each club ID
-                loadClubDetails(clubIds);
-            }
+        // One memberships query for the user, updated as clubs are joined or left
+        membershipTracker = new MembershipTracker(userId);
+        membershipTracker.start(clubIdSet -> {
+            if (!isAdded() || getContext() == null) return;
+            
+            loadGeneration++;
+            List<String> clubIds = new ArrayList<>(clubIdSet);
+            adapter.setMemberClubIds(clubIdSet);
             
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                if (!isAdded() || getContext() == null) return;
-                Log.e(TAG, "Database error: ", error.toException());
-                Toast.makeText(getContext(), "Failed to load clubs", Toast.LENGTH_SHORT).show();
+            if (clubIds.isEmpty()) {
+                Log.d(TAG, "No club IDs found for user");
+                clubList.clear();
+                adapter.updateClubs(clubList);
+                noClubsText.setVisibility(View.VISIBLE);
+                recyclerView.setVisibility(View.GONE);
                 progressBar.setVisibility(View.GONE);
+                return;
             }
+            
+            Log.d(TAG, "Found " + clubIds.size() + " club IDs: " + clubIds);
+            
+            // Now fetch the club details for each club ID
+            loadClubDetails(clubIds);
         });
     }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (membershipTracker != null) {
+            membershipTracker.stop();
+        }
+    }
     
     private void loadClubDetails(List<String> clubIds) {
         clubList.clear();
+        final int generation = loadGeneration;
         DatabaseReference clubsRef = FirebaseDatabase.getInstance().getReference("clubs");
         Log.d(TAG, "Loading club details from: " + clubsRef.toString());
         
@@ -132,15 +123,14 @@ public class MyClubsFragment extends Fragment implements ClubAdapter.OnClubClick
             clubsRef.child(clubId).addListenerForSingleValueEvent(new ValueEventListener() {
                 @Override
                 public void onDataChange(@NonNull DataSnapshot snapshot) {
-                    if (!isAdded() || getContext() == null) return;
+                    if (!isAdded() || getContext() == null || generation != loadGeneration) return;
                     
                     loadedClubs[0]++;
                     Log.d(TAG, "Club snapshot exists: " + snapshot.exists() + " for ID: " + clubId);
                     
                     try {
-                        Club club = snapshot.getValue(Club.class);
+                        Club club = ClubMapper.INSTANCE.fromSnapshot(snapshot);
                         if (club != null) {
-                            club.setId(snapshot.getKey());
                             clubList.add(club);
                             Log.d(TAG, "Added club to list: " + club.getName() + " (ID: " + club.getId() + ")");
                             
@@ -159,16 +149,14 @@ public class MyClubsFragment extends Fragment implements ClubAdapter.OnClubClick
                     if (loadedClubs[0] >= totalClubs[0]) {
                         Log.d(TAG, "All " + clubList.size() + " clubs loaded, updating adapter");
                         Log.d(TAG, "Club list contents: " + clubList.toString());
-                        adapter = new ClubAdapter(clubList, MyClubsFragment.this, 
-                                FirebaseAuth.getInstance().getCurrentUser().getUid());
-                        recyclerView.setAdapter(adapter);
+                        adapter.updateClubs(clubList);
                         progressBar.setVisibility(View.GONE);
                     }
                 }
                 
                 @Override
                 public void onCancelled(@NonNull DatabaseError error) {
-                    if (!isAdded() || getContext() == null) return;
+                    if (!isAdded() || getContext() == null || generation != loadGeneration) return;
                     Log.e(TAG, "Database error for club " + clubId + ": ", error.toException());
                     
                     loadedClubs[0]++;
@@ -205,7 +193,7 @@ public class MyClubsFragment extends Fragment implements ClubAdapter.OnClubClick
     public void onMembershipChanged(Club club) {
         // Refresh the clubs list when membership status changes
         Log.d(TAG, "Membership changed for club: " + club.getName());
-        loadMyClubs();
+        // The membership tracker reloads the list when the membership lands
     }
     
     private void showExitConfirmationDialog(Club club) {
@@ -229,7 +217,7 @@ public class MyClubsFragment extends Fragment implements ClubAdapter.OnClubClick
         membershipsRef.child(membershipId).removeValue()
             .addOnSuccessListener(aVoid -> {
                 // Decrement member count
-                decrementMemberCount(club.getId());
+                decrementMemberCount(club);
             })
             .addOnFailureListener(e -> {
                 progressBar.setVisibility(View.GONE);
@@ -239,28 +227,14 @@ public class MyClubsFragment extends Fragment implements ClubAdapter.OnClubClick
             });
     }
     
-    private void decrementMemberCount(String clubId) {
-        DatabaseReference clubRef = FirebaseDatabase.getInstance().getReference("clubs").child(clubId).child("memberCount");
-        clubRef.get().addOnCompleteListener(task -> {
+    private void decrementMemberCount(Club club) {
+        MemberCounter.decrement(club).addOnCompleteListener(task -> {
+            progressBar.setVisibility(View.GONE);
             if (task.isSuccessful()) {
-                Integer currentCount = task.getResult().getValue(Integer.class);
-                if (currentCount != null && currentCount > 0) {
-                    int newCount = currentCount - 1;
-                    clubRef.setValue(newCount).addOnCompleteListener(updateTask -> {
-                        progressBar.setVisibility(View.GONE);
-                        if (updateTask.isSuccessful()) {
-                            Toast.makeText(getContext(),
-                                "Successfully exited club",
-                                Toast.LENGTH_SHORT).show();
-                            // Refresh the list
-                            loadMyClubs();
-                        }
-                    });
-                } else {
-                    progressBar.setVisibility(View.GONE);
-                }
+                Toast.makeText(getContext(),
+                    "Successfully exited club",
+                    Toast.LENGTH_SHORT).show();
             } else {
-                progressBar.setVisibility(View.GONE);
                 Toast.makeText(getContext(),
                     "Error updating member count",
                     Toast.LENGTH_SHORT).show();
@@ -16,7 +16,9 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.unifyu2.R;
 import com.example.unifyu2.adapters.EnhancedEventAdapter;
+import com.example.unifyu2.mapping.EventMapper;
 import com.example.unifyu2.models.Event;
+import com.example.unifyu2.utils.EventRegistrationManager;
 import com.google.android.material.progressindicator.CircularProgressIndicator;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.database.DataSnapshot;
@@ -26,6 +28,7 @@ import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 public class MyEventsFragment extends Fragment implements EnhancedEventAdapter.OnEventAdminActionListener {
@@ -36,6 +39,9 @@ public class MyEventsFragment extends Fragment implements EnhancedEventAdapter.O
     private TextView emptyView;
     private CircularProgressIndicator progressBar;
     private EnhancedEventAdapter adapter;
+    private DatabaseReference registrationsRef;
+    private ValueEventListener registrationsListener;
+    private int loadGeneration;
     
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -66,7 +72,6 @@ public class MyEventsFragment extends Fragment implements EnhancedEventAdapter.O
         if (!isAdded() || getContext() == null) return;
         
         String userId = FirebaseAuth.getInstance().getCurrentUser().getUid();
-        DatabaseReference eventsRef = FirebaseDatabase.getInstance().getReference("events");
         
         progressBar.setVisibility(View.VISIBLE);
         recyclerView.setVisibility(View.GONE);
@@ -74,65 +79,32 @@ public class MyEventsFragment extends Fragment implements EnhancedEventAdapter.O
         
         Log.d(TAG, "Starting to load events for user: " + userId);
         
-        eventsRef.addValueEventListener(new ValueEventListener() {
+        // Index registrations made before user_registrations existed, then read only the index
+        EventRegistrationManager.backfillUserIndex(requireContext(), userId,
+            () -> listenForRegistrations(userId));
+    }
+    
+    private void listenForRegistrations(String userId) {
+        if (!isAdded() || getContext() == null) return;
+        
+        if (registrationsListener != null) {
+            registrationsRef.removeEventListener(registrationsListener);
+        }
+        
+        registrationsRef = FirebaseDatabase.getInstance()
+            .getReference("user_registrations").child(userId);
+        registrationsListener = registrationsRef.addValueEventListener(new ValueEventListener() {
             @Override
             public void onDataChange(@NonNull DataSnapshot snapshot) {
                 if (!isAdded() || getContext() == null) return;
                 
-                Log.d(TAG, "Total events found: " + snapshot.getChildrenCount());
-                
-                List<Event> events = new ArrayList<>();
-                for (DataSnapshot eventSnapshot : snapshot.getChildren()) {
-                    try {
-                        // Log key for debugging
-                        String eventKey = eventSnapshot.getKey();
-                        Log.d(TAG, "Processing event with key: " + eventKey);
-                        
-                        Event event = eventSnapshot.getValue(Event.class);
-                        if (event != null) {
-                            event.setEventId(eventKey);
-                            
-                            // There are 3 ways a user might be registered:
-                            // 1. registeredUsers/{userId} = true
-                            // 2. registeredUsers/{userId} = phone number
-                            // 3. registeredUsers/{userId} = registration object
-                            
-                            // First check if the registeredUsers node exists
-                            if (eventSnapshot.hasChild("registeredUsers")) {
-                                DataSnapshot registeredUsers = eventSnapshot.child("registeredUsers");
-                                Log.d(TAG, "Event " + event.getTitle() + " has " + registeredUsers.getChildrenCount() + " registrations");
-                                
-                                if (registeredUsers.hasChild(userId)) {
-                                    Log.d(TAG, "User " + userId + " is registered for event: " + event.getTitle());
-                                    events.add(event);
-                                } else {
-                                    Log.d(TAG, "User " + userId + " is NOT registered for event: " + event.getTitle());
-                                }
-                            } else {
-                                Log.d(TAG, "Event " + event.getTitle() + " has no registeredUsers node");
-                            }
-                        } else {
-                            Log.e(TAG, "Failed to parse event from snapshot: " + eventKey);
-                        }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error parsing event data", e);
-                    }
-                }
-                
-                progressBar.setVisibility(View.GONE);
-                swipeRefreshLayout.setRefreshing(false);
-                
-                if (events.isEmpty()) {
-                    Log.d(TAG, "No registered events found for user: " + userId);
-                    recyclerView.setVisibility(View.GONE);
-                    emptyView.setVisibility(View.VISIBLE);
-                    emptyView.setText("You haven't registered for any events yet");
-                } else {
-                    Log.d(TAG, "Found " + events.size() + " registered events for user");
-                    recyclerView.setVisibility(View.VISIBLE);
-                    emptyView.setVisibility(View.GONE);
-                    adapter.updateEvents(events);
+                List<String> eventIds = new ArrayList<>();
+                for (DataSnapshot registration : snapshot.getChildren()) {
+                    eventIds.add(registration.getKey());
                 }
+                Log.d(TAG, "User " + userId + " is registered for " + eventIds.size() + " events");
+                adapter.setRegisteredEventIds(new HashSet<>(eventIds));
+                loadRegisteredEvents(eventIds);
             }
             
             @Override
@@ -147,6 +119,74 @@ public class MyEventsFragment extends Fragment implements EnhancedEventAdapter.O
         });
     }
     
+    private void loadRegisteredEvents(List<String> eventIds) {
+        int generation = ++loadGeneration;
+        if (eventIds.isEmpty()) {
+            showEvents(new ArrayList<>());
+            return;
+        }
+        
+        DatabaseReference eventsRef = FirebaseDatabase.getInstance().getReference("events");
+        List<Event> events = new ArrayList<>();
+        final int[] remaining = {eventIds.size()};
+        
+        for (String eventId : eventIds) {
+            eventsRef.child(eventId).addListenerForSingleValueEvent(new ValueEventListener() {
+                @Override
+                public void onDataChange(@NonNull DataSnapshot eventSnapshot) {
+                    if (generation != loadGeneration) return;
+                    try {
+                        Event event = EventMapper.INSTANCE.fromSnapshot(eventSnapshot);
+                        if (event != null) {
+                            events.add(event);
+                        } else {
+                            // The event was deleted; drop the dangling index entry
+                            Log.d(TAG, "Removing index entry for missing event: " + eventId);
+                            registrationsRef.child(eventId).removeValue();
+                        }
+                    } catch (Exception e) {
+                        Log.e(TAG, "Error parsing event data", e);
+                    }
+                    if (--remaining[0] == 0) showEvents(events);
+                }
+                
+                @Override
+                public void onCancelled(@NonNull DatabaseError error) {
+                    if (generation != loadGeneration) return;
+                    Log.e(TAG, "Error loading event: " + eventId, error.toException());
+                    if (--remaining[0] == 0) showEvents(events);
+                }
+            });
+        }
+    }
+    
+    private void showEvents(List<Event> events) {
+        if (!isAdded() || getContext() == null) return;
+        
+        progressBar.setVisibility(View.GONE);
+        swipeRefreshLayout.setRefreshing(false);
+        
+        if (events.isEmpty()) {
+            Log.d(TAG, "No registered events found");
+            recyclerView.setVisibility(View.GONE);
+            emptyView.setVisibility(View.VISIBLE);
+            emptyView.setText("You haven't registered for any events yet");
+        } else {
+            Log.d(TAG, "Found " + events.size() + " registered events for user");
+            recyclerView.setVisibility(View.VISIBLE);
+            emptyView.setVisibility(View.GONE);
+            adapter.updateEvents(events);
+        }
+    }
+    
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (registrationsListener != null) {
+            registrationsRef.removeEventListener(registrationsListener);
+        }
+    }
+    
     @Override
     public void onEditEvent(Event event) {
         // Only event admins can edit events
@@ -16,14 +16,15 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 import com.example.unifyu2.R;
 import com.example.unifyu2.adapters.PostAdapter;
+import com.example.unifyu2.mapping.PostMapper;
+import com.example.unifyu2.mapping.SnapshotCache;
+import com.example.unifyu2.mapping.SnapshotDecoder;
 import com.example.unifyu2.models.Post;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.progressindicator.CircularProgressIndicator;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.database.*;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
 
 public class MyPostsFragment extends Fragment implements PostAdapter.OnPostInteractionListener {
     private static final String TAG = "MyPostsFragment";
@@ -33,6 +34,7 @@ public class MyPostsFragment extends Fragment implements PostAdapter.OnPostInter
     private TextView emptyView;
     private CircularProgressIndicator progressBar;
     private PostAdapter adapter;
+    private final SnapshotCache<Post> postCache = new SnapshotCache<>(PostMapper.INSTANCE);
     
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -74,19 +76,8 @@ public class MyPostsFragment extends Fragment implements PostAdapter.OnPostInter
             public void onDataChange(@NonNull DataSnapshot snapshot) {
                 if (!isAdded() || getContext() == null) return;
                 
-                    List<Post> posts = new ArrayList<>();
-                for (DataSnapshot postSnapshot : snapshot.getChildren()) {
-                        try {
-                    Post post = postSnapshot.getValue(Post.class);
-                    if (post != null) {
-                        post.setPostId(postSnapshot.getKey());
-                                posts.add(post);
-                                Log.d(TAG, "Loaded post: " + post.getPostId());
-                            }
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error parsing post: " + postSnapshot.getKey(), e);
-                        }
-                    }
+                SnapshotDecoder.decodeChildren(snapshot, postCache, posts -> {
+                    if (!isAdded() || getContext() == null) return;
                     
                     // Sort posts by timestamp (newest first)
                     Collections.sort(posts, (p1, p2) -> {
@@ -109,7 +100,8 @@ public class MyPostsFragment extends Fragment implements PostAdapter.OnPostInter
                         adapter.setPosts(posts);
                         Log.d(TAG, "Found " + posts.size() + " posts for user: " + userId);
                     }
-                }
+                });
+            }
                 
                 @Override
                 public void onCancelled(@NonNull DatabaseError error) {
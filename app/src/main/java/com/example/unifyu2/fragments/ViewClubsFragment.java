@@ -18,8 +18,13 @@ import com.example.unifyu2.R;
 import com.example.unifyu2.CreateClubActivity;
 import com.example.unifyu2.ManageClubActivity;
 import com.example.unifyu2.adapters.ClubAdapter;
+import com.example.unifyu2.mapping.ClubMapper;
+import com.example.unifyu2.mapping.SnapshotCache;
+import com.example.unifyu2.mapping.SnapshotDecoder;
 import com.example.unifyu2.models.Club;
 import com.example.unifyu2.models.ClubMembership;
+import com.example.unifyu2.utils.MemberCounter;
+import com.example.unifyu2.utils.MembershipTracker;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.floatingactionbutton.ExtendedFloatingActionButton;
 import com.google.firebase.auth.FirebaseAuth;
@@ -30,7 +35,6 @@ import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
-import java.util.List;
 
 public class ViewClubsFragment extends Fragment implements ClubAdapter.OnClubClickListener {
     private RecyclerView recyclerView;
@@ -42,6 +46,8 @@ public class ViewClubsFragment extends Fragment implements ClubAdapter.OnClubCli
     private DatabaseReference membershipsRef;
     private FirebaseAuth firebaseAuth;
     private ValueEventListener clubsListener;
+    private final SnapshotCache<Club> clubCache = new SnapshotCache<>(ClubMapper.INSTANCE);
+    private MembershipTracker membershipTracker;
 
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -63,6 +69,11 @@ public class ViewClubsFragment extends Fragment implements ClubAdapter.OnClubCli
         String currentUserId = firebaseAuth.getCurrentUser().getUid();
         adapter = new ClubAdapter(new ArrayList<>(), this, currentUserId);
         recyclerView.setAdapter(adapter);
+
+        membershipTracker = new MembershipTracker(currentUserId);
+        membershipTracker.start(clubIds -> {
+            if (isAdded()) adapter.setMemberClubIds(clubIds);
+        });
         
         // Setup FAB
         createClubFab.setOnClickListener(v -> {
@@ -81,6 +92,9 @@ public class ViewClubsFragment extends Fragment implements ClubAdapter.OnClubCli
         if (clubsListener != null) {
             clubsRef.removeEventListener(clubsListener);
         }
+        if (membershipTracker != null) {
+            membershipTracker.stop();
+        }
     }
 
     private void loadClubs() {
@@ -90,24 +104,18 @@ public class ViewClubsFragment extends Fragment implements ClubAdapter.OnClubCli
         clubsListener = clubsRef.addValueEventListener(new ValueEventListener() {
             @Override
             public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                List<Club> clubs = new ArrayList<>();
-                for (DataSnapshot snapshot : dataSnapshot.getChildren()) {
-                    Club club = snapshot.getValue(Club.class);
-                    if (club != null) {
-                        club.setId(snapshot.getKey());
-                        clubs.add(club);
+                SnapshotDecoder.decodeChildren(dataSnapshot, clubCache, clubs -> {
+                    if (!isAdded()) return;
+                    progressBar.setVisibility(View.GONE);
+                    if (clubs.isEmpty()) {
+                        emptyView.setVisibility(View.VISIBLE);
+                        recyclerView.setVisibility(View.GONE);
+                    } else {
+                        emptyView.setVisibility(View.GONE);
+                        recyclerView.setVisibility(View.VISIBLE);
+                        adapter.updateClubs(clubs);
                     }
-                }
-                
-                progressBar.setVisibility(View.GONE);
-                if (clubs.isEmpty()) {
-                    emptyView.setVisibility(View.VISIBLE);
-                    recyclerView.setVisibility(View.GONE);
-                } else {
-                    emptyView.setVisibility(View.GONE);
-                    recyclerView.setVisibility(View.VISIBLE);
-                    adapter.updateClubs(clubs);
-                }
+                });
             }
 
             @Override
@@ -155,7 +163,7 @@ public class ViewClubsFragment extends Fragment implements ClubAdapter.OnClubCli
                     membershipsRef.child(membershipId).setValue(membership)
                             .addOnSuccessListener(aVoid -> {
                                 // Increment member count
-                                incrementMemberCount(club.getId());
+                                incrementMemberCount(club);
                             })
                             .addOnFailureListener(e -> {
                                 progressBar.setVisibility(View.GONE);
@@ -173,20 +181,13 @@ public class ViewClubsFragment extends Fragment implements ClubAdapter.OnClubCli
         });
     }
 
-    private void incrementMemberCount(String clubId) {
-        DatabaseReference clubRef = clubsRef.child(clubId).child("memberCount");
-        clubRef.get().addOnCompleteListener(task -> {
-            if (task.isSuccessful()) {
-                Integer currentCount = task.getResult().getValue(Integer.class);
-                int newCount = (currentCount != null ? currentCount : 0) + 1;
-                clubRef.setValue(newCount).addOnCompleteListener(updateTask -> {
-                    progressBar.setVisibility(View.GONE);
-                    if (updateTask.isSuccessful()) {
-                        Toast.makeText(getContext(),
-                            getString(R.string.join_success),
-                            Toast.LENGTH_SHORT).show();
-                    }
-                });
+    private void incrementMemberCount(Club club) {
+        MemberCounter.increment(club).addOnCompleteListener(task -> {
+            progressBar.setVisibility(View.GONE);
+            if (task.isSuccessful() && isAdded()) {
+                Toast.makeText(getContext(),
+                    getString(R.string.join_success),
+                    Toast.LENGTH_SHORT).show();
             }
         });
     }
@@ -208,20 +209,8 @@ public class ViewClubsFragment extends Fragment implements ClubAdapter.OnClubCli
         // Refresh the clubs data when membership status changes
         Log.d("ViewClubsFragment", "Membership changed for club: " + club.getName());
         
-        // Update the member count in the clubs list
-        DatabaseReference clubRef = FirebaseDatabase.getInstance()
-            .getReference("clubs").child(club.getId());
-        clubRef.child("memberCount").get().addOnSuccessListener(snapshot -> {
-            if (snapshot.exists()) {
-                Integer newCount = snapshot.getValue(Integer.class);
-                if (newCount != null) {
-                    club.setMemberCount(newCount);
-                }
-            }
-            
-            // Reload the clubs to ensure proper categorization
-            loadClubs();
-        });
+        // The clubs listener and membership tracker pick up the new count and
+        // membership, so there is nothing to reload here
     }
     
     private void showExitConfirmationDialog(Club club) {
@@ -244,7 +233,7 @@ public class ViewClubsFragment extends Fragment implements ClubAdapter.OnClubCli
         membershipsRef.child(membershipId).removeValue()
             .addOnSuccessListener(aVoid -> {
                 // Decrement member count
-                decrementMemberCount(club.getId());
+                decrementMemberCount(club);
             })
             .addOnFailureListener(e -> {
                 progressBar.setVisibility(View.GONE);
@@ -254,26 +243,14 @@ public class ViewClubsFragment extends Fragment implements ClubAdapter.OnClubCli
             });
     }
     
-    private void decrementMemberCount(String clubId) {
-        DatabaseReference clubRef = clubsRef.child(clubId).child("memberCount");
-        clubRef.get().addOnCompleteListener(task -> {
+    private void decrementMemberCount(Club club) {
+        MemberCounter.decrement(club).addOnCompleteListener(task -> {
+            progressBar.setVisibility(View.GONE);
             if (task.isSuccessful()) {
-                Integer currentCount = task.getResult().getValue(Integer.class);
-                if (currentCount != null && currentCount > 0) {
-                    int newCount = currentCount - 1;
-                    clubRef.setValue(newCount).addOnCompleteListener(updateTask -> {
-                        progressBar.setVisibility(View.GONE);
-                        if (updateTask.isSuccessful()) {
-                            Toast.makeText(getContext(),
-                                "Successfully exited club",
-                                Toast.LENGTH_SHORT).show();
-                        }
-                    });
-                } else {
-                    progressBar.setVisibility(View.GONE);
-                }
+                Toast.makeText(getContext(),
+                    "Successfully exited club",
+                    Toast.LENGTH_SHORT).show();
             } else {
-                progressBar.setVisibility(View.GONE);
                 Toast.makeText(getContext(),
                     "Error updating member count",
                     Toast.LENGTH_SHORT).show();
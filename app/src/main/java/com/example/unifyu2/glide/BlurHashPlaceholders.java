@@ -0,0 +1,93 @@
+package com.example.unifyu2.glide;
+
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
+import com.example.unifyu2.R;
+import com.example.unifyu2.blurhash.BlurHash;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Starts Glide requests with the image's BlurHash as the placeholder, so list items
+ * paint a blurred preview immediately instead of an empty box. Hashes are decoded
+ * off the main thread into small bitmaps that the view scales up.
+ */
+public final class BlurHashPlaceholders {
+    private static final String TAG = "BlurHashPlaceholders";
+    private static final int SIZE = 32;
+    // A 32x32 bitmap is 4KB, so recently bound items stay decoded
+    private static final int MAX_CACHED = 64;
+
+    private static final LruCache<String, Bitmap> cache = new LruCache<>(MAX_CACHED);
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private BlurHashPlaceholders() {
+    }
+
+    /**
+     * Starts {@code request} into {@code view}, with the decoded hash as its placeholder.
+     * Without a hash the request starts straight away. Call from the main thread.
+     */
+    public static void into(RequestBuilder<Drawable> request, ImageView view, @Nullable String blurHash) {
+        if (blurHash == null || blurHash.isEmpty()) {
+            view.setTag(R.id.blur_hash_placeholder, null);
+            request.into(view);
+            return;
+        }
+
+        Bitmap cached = cache.get(blurHash);
+        if (cached != null) {
+            view.setTag(R.id.blur_hash_placeholder, null);
+            start(request, view, cached);
+            return;
+        }
+
+        // Stop the recycled view showing its previous image while the hash decodes
+        Glide.with(view).clear(view);
+        Object binding = new Object();
+        view.setTag(R.id.blur_hash_placeholder, binding);
+        executor.execute(() -> {
+            Bitmap bitmap = decode(blurHash);
+            mainHandler.post(() -> {
+                // The view was bound to another item in the meantime
+                if (view.getTag(R.id.blur_hash_placeholder) != binding) return;
+                view.setTag(R.id.blur_hash_placeholder, null);
+                if (bitmap != null) {
+                    start(request, view, bitmap);
+                } else {
+                    request.into(view);
+                }
+            });
+        });
+    }
+
+    private static void start(RequestBuilder<Drawable> request, ImageView view, Bitmap placeholder) {
+        request.placeholder(new BitmapDrawable(view.getResources(), placeholder)).into(view);
+    }
+
+    @Nullable
+    private static Bitmap decode(String blurHash) {
+        try {
+            int[] pixels = BlurHash.decode(blurHash, SIZE, SIZE, 1);
+            Bitmap bitmap = Bitmap.createBitmap(pixels, SIZE, SIZE, Bitmap.Config.ARGB_8888);
+            cache.put(blurHash, bitmap);
+            return bitmap;
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Ignoring invalid BlurHash " + blurHash, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.unifyu2.glide;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+import com.bumptech.glide.load.model.stream.BaseGlideUrlLoader;
+import com.example.unifyu2.models.ImageVariants;
+
+import java.io.InputStream;
+
+/**
+ * Loads the smallest stored size of an image that covers the target view, so list
+ * items decode thumbnails instead of full-size images. Each size is cached under its
+ * own URL.
+ */
+public class ImageVariantsLoader extends BaseGlideUrlLoader<ImageVariants> {
+
+    ImageVariantsLoader(ModelLoader<GlideUrl, InputStream> urlLoader) {
+        super(urlLoader);
+    }
+
+    /** @return The model to pass to Glide: the variants when present, else the single image URL */
+    public static Object model(@Nullable ImageVariants variants, @Nullable String imageUrl) {
+        return variants != null && variants.getFull() != null ? variants : imageUrl;
+    }
+
+    @Override
+    protected String getUrl(ImageVariants variants, int width, int height, Options options) {
+        return variants.urlCovering(width, height);
+    }
+
+    @Override
+    public boolean handles(@NonNull ImageVariants variants) {
+        return true;
+    }
+
+    public static class Factory implements ModelLoaderFactory<ImageVariants, InputStream> {
+        @NonNull
+        @Override
+        public ModelLoader<ImageVariants, InputStream> build(@NonNull MultiModelLoaderFactory multiFactory) {
+            return new ImageVariantsLoader(multiFactory.build(GlideUrl.class, InputStream.class));
+        }
+
+        @Override
+        public void teardown() {
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.unifyu2.glide;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.module.AppGlideModule;
+import com.example.unifyu2.models.ImageVariants;
+
+import java.io.InputStream;
+
+@GlideModule
+public class UnifyUGlideModule extends AppGlideModule {
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        registry.prepend(ImageVariants.class, InputStream.class, new ImageVariantsLoader.Factory());
+    }
+}
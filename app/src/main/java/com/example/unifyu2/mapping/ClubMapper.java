@@ -0,0 +1,42 @@
+package com.example.unifyu2.mapping;
+
+import androidx.annotation.Nullable;
+
+import com.example.unifyu2.models.Club;
+
+import java.util.Map;
+
+public final class ClubMapper extends SnapshotMapper<Club> {
+    public static final ClubMapper INSTANCE = new ClubMapper();
+
+    private ClubMapper() {
+    }
+
+    @Nullable
+    @Override
+    public Club fromValue(@Nullable Object value) {
+        Map<String, Object> fields = Values.map(value);
+        if (fields == null) return null;
+
+        Club club = new Club();
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            Object v = field.getValue();
+            switch (field.getKey()) {
+                case "id": club.setId(Values.string(v)); break;
+                case "name": club.setName(Values.string(v)); break;
+                case "description": club.setDescription(Values.string(v)); break;
+                case "imageUrl": club.setImageUrl(Values.string(v)); break;
+                case "memberCount": club.setMemberCount(Values.intValue(v, 0)); break;
+                case "memberCountShards": club.setMemberCountShards(Values.longMap(v)); break;
+                case "adminId": club.setAdminId(Values.string(v)); break;
+                default: break;
+            }
+        }
+        return club;
+    }
+
+    @Override
+    protected void setKey(Club club, String key) {
+        club.setId(key);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.unifyu2.mapping;
+
+import androidx.annotation.Nullable;
+
+import com.example.unifyu2.models.Event;
+
+import java.util.Map;
+
+public final class EventMapper extends SnapshotMapper<Event> {
+    public static final EventMapper INSTANCE = new EventMapper();
+
+    private EventMapper() {
+    }
+
+    @Nullable
+    @Override
+    public Event fromValue(@Nullable Object value) {
+        Map<String, Object> fields = Values.map(value);
+        if (fields == null) return null;
+
+        Event event = new Event();
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            Object v = field.getValue();
+            switch (field.getKey()) {
+                case "eventId": event.setEventId(Values.string(v)); break;
+                case "clubId": event.setClubId(Values.string(v)); break;
+                case "title": event.setTitle(Values.string(v)); break;
+                case "description": event.setDescription(Values.string(v)); break;
+                case "venue": event.setVenue(Values.string(v)); break;
+                case "date": event.setDate(Values.longValue(v, 0L)); break;
+                case "imageUrl": event.setImageUrl(Values.string(v)); break;
+                case "imageVariants": event.setImageVariants(ImageVariantsMapper.INSTANCE.fromValue(v)); break;
+                case "blurHash": event.setBlurHash(Values.string(v)); break;
+                case "maxParticipants": event.setMaxParticipants(Values.intValue(v, 0)); break;
+                case "registrationOpen": event.setRegistrationOpen(Values.booleanValue(v, false)); break;
+                case "registeredCount": event.setRegisteredCount(Values.intValue(v, 0)); break;
+                case "full": event.setFull(Values.booleanValue(v, false)); break;
+                default: break;
+            }
+        }
+        return event;
+    }
+
+    @Override
+    protected void setKey(Event event, String key) {
+        event.setEventId(key);
+    }
+}
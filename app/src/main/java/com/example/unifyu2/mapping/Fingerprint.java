@@ -0,0 +1,76 @@
+package com.example.unifyu2.mapping;
+
+import androidx.annotation.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 64-bit fingerprints of snapshot value trees. Equal trees get equal fingerprints whatever
+ * order their maps iterate in; a changed value anywhere in the tree almost certainly changes
+ * the fingerprint.
+ */
+final class Fingerprint {
+    // Distinct seeds per value type, so 1, 1.0, "1" and true don't collide by construction
+    private static final long NULL = 0x6a09e667f3bcc909L;
+    private static final long TRUE = 0xbb67ae8584caa73bL;
+    private static final long FALSE = 0x3c6ef372fe94f82bL;
+    private static final long LONG = 0xa54ff53a5f1d36f1L;
+    private static final long DOUBLE = 0x510e527fade682d1L;
+    private static final long STRING = 0x9b05688c2b3e6c1fL;
+    private static final long MAP = 0x1f83d9abfb41bd6bL;
+    private static final long LIST = 0x5be0cd19137e2179L;
+    private static final long OTHER = 0xcbbb9d5dc1059ed8L;
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Fingerprint() {
+    }
+
+    static long of(@Nullable Object value) {
+        if (value == null) return NULL;
+        if (value instanceof String) return string((String) value);
+        if (value instanceof Boolean) return (Boolean) value ? TRUE : FALSE;
+        if (value instanceof Long) return mix((Long) value + LONG);
+        if (value instanceof Double) return mix(Double.doubleToLongBits((Double) value) + DOUBLE);
+        if (value instanceof Map) return map((Map<?, ?>) value);
+        if (value instanceof List) return list((List<?>) value);
+        return mix(value.hashCode() + OTHER);
+    }
+
+    // 64-bit FNV-1a over the chars. String.hashCode is only 32 bits and easy to collide,
+    // and a collision here would keep a stale model
+    private static long string(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return mix(hash + STRING);
+    }
+
+    private static long map(Map<?, ?> value) {
+        // Summing the entries' fingerprints makes the result independent of iteration order
+        long sum = 0;
+        for (Map.Entry<?, ?> entry : value.entrySet()) {
+            sum += mix(of(entry.getKey()) + GOLDEN_GAMMA * of(entry.getValue()));
+        }
+        return mix(sum + MAP + value.size());
+    }
+
+    private static long list(List<?> value) {
+        long hash = LIST;
+        for (Object item : value) {
+            hash = mix(hash + of(item));
+        }
+        return mix(hash + value.size());
+    }
+
+    /** The SplitMix64 finalizer, a bijection that spreads every input bit across the output */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
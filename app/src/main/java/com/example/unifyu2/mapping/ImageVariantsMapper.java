@@ -0,0 +1,32 @@
+package com.example.unifyu2.mapping;
+
+import androidx.annotation.Nullable;
+
+import com.example.unifyu2.models.ImageVariants;
+
+import java.util.Map;
+
+public final class ImageVariantsMapper extends SnapshotMapper<ImageVariants> {
+    public static final ImageVariantsMapper INSTANCE = new ImageVariantsMapper();
+
+    private ImageVariantsMapper() {
+    }
+
+    @Nullable
+    @Override
+    public ImageVariants fromValue(@Nullable Object value) {
+        Map<String, Object> fields = Values.map(value);
+        if (fields == null) return null;
+
+        ImageVariants variants = new ImageVariants();
+        variants.setThumb(Values.string(fields.get("thumb")));
+        variants.setCard(Values.string(fields.get("card")));
+        variants.setFull(Values.string(fields.get("full")));
+        return variants;
+    }
+
+    // Variants are always nested under their image's owner
+    @Override
+    protected void setKey(ImageVariants model, String key) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.unifyu2.mapping;
+
+import androidx.annotation.Nullable;
+
+import com.example.unifyu2.models.Post;
+
+import java.util.Map;
+
+public final class PostMapper extends SnapshotMapper<Post> {
+    public static final PostMapper INSTANCE = new PostMapper();
+
+    private PostMapper() {
+    }
+
+    @Nullable
+    @Override
+    public Post fromValue(@Nullable Object value) {
+        Map<String, Object> fields = Values.map(value);
+        if (fields == null) return null;
+
+        Post post = new Post();
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            Object v = field.getValue();
+            switch (field.getKey()) {
+                case "postId": post.setPostId(Values.string(v)); break;
+                case "id": post.setId(Values.string(v)); break;
+                case "userId": post.setUserId(Values.string(v)); break;
+                case "authorId": post.setAuthorId(Values.string(v)); break;
+                case "userName": post.setUserName(Values.string(v)); break;
+                case "authorName": post.setAuthorName(Values.string(v)); break;
+                case "content": post.setContent(Values.string(v)); break;
+                case "imageUrl": post.setImageUrl(Values.string(v)); break;
+                case "imageVariants": post.setImageVariants(ImageVariantsMapper.INSTANCE.fromValue(v)); break;
+                case "blurHash": post.setBlurHash(Values.string(v)); break;
+                case "linkUrl": post.setLinkUrl(Values.string(v)); break;
+                case "linkTitle": post.setLinkTitle(Values.string(v)); break;
+                case "linkDescription": post.setLinkDescription(Values.string(v)); break;
+                case "likes": post.setLikes(Values.booleanMap(v)); break;
+                case "reactions": post.setReactions(Values.objectMap(v)); break;
+                case "reactedUsers": post.setReactedUsers(Values.stringListMap(v)); break;
+                // Stays a plain value: a long once written, the server timestamp placeholder before
+                case "timestamp": post.setTimestamp(v); break;
+                case "postType": post.setPostType(Values.string(v)); break;
+                case "clubId": post.setClubId(Values.string(v)); break;
+                case "clubName": post.setClubName(Values.string(v)); break;
+                case "totalReactions": post.setTotalReactions(Values.intValue(v, 0)); break;
+                default: break;
+            }
+        }
+        return post;
+    }
+
+    @Override
+    protected void setKey(Post post, String key) {
+        post.setPostId(key);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.unifyu2.mapping;
+
+import android.util.Log;
+
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the children of a listener's snapshots, reusing the model built for a child last
+ * time when its key and content {@link Fingerprint} are unchanged. Unchanged rows keep
+ * their instance, so list diffs see them as identical without comparing fields.
+ *
+ * <p>Use one cache per listened-to node. Models are shared between updates, so treat
+ * them as read-only.
+ */
+public final class SnapshotCache<T> {
+    private static final String TAG = "SnapshotCache";
+
+    private static final class Entry<T> {
+        final long fingerprint;
+        final T model;
+
+        Entry(long fingerprint, T model) {
+            this.fingerprint = fingerprint;
+            this.model = model;
+        }
+    }
+
+    private final SnapshotMapper<T> mapper;
+    private Map<String, Entry<T>> entries = new HashMap<>();
+
+    public SnapshotCache(SnapshotMapper<T> mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Maps every child of {@code parent}, keyed by its snapshot key. Children that aren't
+     * objects are skipped. Children missing from {@code parent} are dropped from the cache.
+     */
+    public synchronized List<T> mapChildren(DataSnapshot parent) {
+        Map<String, Entry<T>> previous = entries;
+        entries = new HashMap<>(previous.size() * 2);
+        List<T> models = new ArrayList<>((int) parent.getChildrenCount());
+
+        for (DataSnapshot child : parent.getChildren()) {
+            String key = child.getKey();
+            Object value = child.getValue();
+            long fingerprint = Fingerprint.of(value);
+
+            Entry<T> entry = previous.get(key);
+            if (entry == null || entry.fingerprint != fingerprint) {
+                try {
+                    entry = new Entry<>(fingerprint, mapper.fromKeyedValue(key, value));
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Error mapping " + key, e);
+                    continue;
+                }
+            }
+            entries.put(key, entry);
+            if (entry.model != null) models.add(entry.model);
+        }
+        return models;
+    }
+}
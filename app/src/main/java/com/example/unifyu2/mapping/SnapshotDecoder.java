@@ -0,0 +1,35 @@
+package com.example.unifyu2.mapping;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Maps the children of large snapshots off the main thread. Snapshots are immutable, so
+ * they can be read from the decoding thread while the listener moves on. Results are
+ * delivered on the main thread in the order the snapshots were submitted.
+ */
+public final class SnapshotDecoder {
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public interface Callback<T> {
+        void onDecoded(List<T> models);
+    }
+
+    private SnapshotDecoder() {
+    }
+
+    /** Maps every child of {@code parent} through {@code cache}, see {@link SnapshotCache#mapChildren}. */
+    public static <T> void decodeChildren(DataSnapshot parent, SnapshotCache<T> cache, Callback<T> callback) {
+        executor.execute(() -> {
+            List<T> models = cache.mapChildren(parent);
+            mainHandler.post(() -> callback.onDecoded(models));
+        });
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.unifyu2.mapping;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.DataSnapshot;
+
+/**
+ * Builds a model from a snapshot's plain value tree (maps, lists, strings, numbers and
+ * booleans) with direct setter calls, in place of {@code snapshot.getValue(Class)} and its
+ * reflective class mapper. Mappers are stateless, so they can be used from any thread.
+ *
+ * <p>A property with a value of the wrong type keeps its default instead of failing the
+ * whole record. Unknown properties are ignored.
+ */
+public abstract class SnapshotMapper<T> {
+
+    /** @param value The value of {@code snapshot.getValue()}, or a nested part of one */
+    @Nullable
+    public abstract T fromValue(@Nullable Object value);
+
+    /** Stores the snapshot's key in the model's ID property. */
+    protected abstract void setKey(T model, String key);
+
+    /** @return The model at the snapshot with its key as its ID, or null if there's no object there */
+    @Nullable
+    public final T fromSnapshot(DataSnapshot snapshot) {
+        return fromKeyedValue(snapshot.getKey(), snapshot.getValue());
+    }
+
+    @Nullable
+    final T fromKeyedValue(@Nullable String key, @Nullable Object value) {
+        T model = fromValue(value);
+        if (model != null && key != null) {
+            setKey(model, key);
+        }
+        return model;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.unifyu2.mapping;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Typed reads from a snapshot value tree, converting numbers the way the database client does. */
+final class Values {
+    private Values() {
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> map(@Nullable Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : null;
+    }
+
+    @Nullable
+    static String string(@Nullable Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+
+    // Whole numbers arrive as Long and fractional ones as Double
+    static int intValue(@Nullable Object value, int defaultValue) {
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    static long longValue(@Nullable Object value, long defaultValue) {
+        return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+    }
+
+    static boolean booleanValue(@Nullable Object value, boolean defaultValue) {
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    @Nullable
+    static Map<String, Boolean> booleanMap(@Nullable Object value) {
+        Map<String, Object> source = map(value);
+        if (source == null) return null;
+        Map<String, Boolean> result = new HashMap<>(source.size() * 2);
+        for (Map.Entry<String, Object> entry : source.entrySet()) {
+            if (entry.getValue() instanceof Boolean) {
+                result.put(entry.getKey(), (Boolean) entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    static Map<String, Long> longMap(@Nullable Object value) {
+        Map<String, Object> source = map(value);
+        if (source == null) return null;
+        Map<String, Long> result = new HashMap<>(source.size() * 2);
+        for (Map.Entry<String, Object> entry : source.entrySet()) {
+            if (entry.getValue() instanceof Number) {
+                result.put(entry.getKey(), ((Number) entry.getValue()).longValue());
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    static Map<String, Object> objectMap(@Nullable Object value) {
+        Map<String, Object> source = map(value);
+        return source != null ? new HashMap<>(source) : null;
+    }
+
+    /** Lists are stored as maps keyed by index; the client hands dense ones back as a List. */
+    @Nullable
+    static Map<String, List<String>> stringListMap(@Nullable Object value) {
+        Map<String, Object> source = map(value);
+        if (source == null) return null;
+        Map<String, List<String>> result = new HashMap<>(source.size() * 2);
+        for (Map.Entry<String, Object> entry : source.entrySet()) {
+            if (!(entry.getValue() instanceof List)) continue;
+            List<?> items = (List<?>) entry.getValue();
+            List<String> strings = new ArrayList<>(items.size());
+            for (Object item : items) {
+                if (item instanceof String) strings.add((String) item);
+            }
+            result.put(entry.getKey(), strings);
+        }
+        return result;
+    }
+}
@@ -2,14 +2,20 @@ package com.example.unifyu2.models;
 
 import android.os.Parcel;
 import android.os.Parcelable;
+import com.google.firebase.database.Exclude;
 import com.google.firebase.database.PropertyName;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class Club implements Parcelable {
     private String id;
     private String name;
     private String description;
     private String imageUrl;
     private int memberCount;
+    // Only present for clubs using sharded member counting, see MemberCounter
+    private Map<String, Long> memberCountShards;
     private String adminId;
 
     // Required empty constructor for Firebase
@@ -22,6 +28,13 @@ public class Club implements Parcelable {
         imageUrl = in.readString();
         memberCount = in.readInt();
         adminId = in.readString();
+        int shardCount = in.readInt();
+        if (shardCount >= 0) {
+            memberCountShards = new HashMap<>();
+            for (int i = 0; i < shardCount; i++) {
+                memberCountShards.put(in.readString(), in.readLong());
+            }
+        }
     }
 
     public static final Creator<Club> CREATOR = new Creator<Club>() {
@@ -49,6 +62,15 @@ public class Club implements Parcelable {
         dest.writeString(imageUrl);
         dest.writeInt(memberCount);
         dest.writeString(adminId);
+        if (memberCountShards == null) {
+            dest.writeInt(-1);
+        } else {
+            dest.writeInt(memberCountShards.size());
+            for (Map.Entry<String, Long> shard : memberCountShards.entrySet()) {
+                dest.writeString(shard.getKey());
+                dest.writeLong(shard.getValue());
+            }
+        }
     }
 
     public Club(String id, String name, String description, String imageUrl, String adminId) {
@@ -90,6 +112,24 @@ public class Club implements Parcelable {
     @PropertyName("memberCount")
     public void setMemberCount(int memberCount) { this.memberCount = memberCount; }
 
+    @PropertyName("memberCountShards")
+    public Map<String, Long> getMemberCountShards() { return memberCountShards; }
+
+    @PropertyName("memberCountShards")
+    public void setMemberCountShards(Map<String, Long> memberCountShards) { this.memberCountShards = memberCountShards; }
+
+    /** The member count including any sharded increments not yet folded into memberCount. */
+    @Exclude
+    public int getTotalMemberCount() {
+        long total = memberCount;
+        if (memberCountShards != null) {
+            for (Long shard : memberCountShards.values()) {
+                if (shard != null) total += shard;
+            }
+        }
+        return (int) total;
+    }
+
     @PropertyName("adminId")
     public String getAdminId() { return adminId; }
     
@@ -101,7 +141,7 @@ public class Club implements Parcelable {
         return "Club{" +
                 "id='" + id + '\'' +
                 ", name='" + name + '\'' +
-                ", memberCount=" + memberCount +
+                ", memberCount=" + getTotalMemberCount() +
                 ", adminId='" + adminId + '\'' +
                 '}';
     }
@@ -3,8 +3,6 @@ package com.example.unifyu2.models;
 import android.os.Parcel;
 import android.os.Parcelable;
 import com.google.firebase.database.PropertyName;
-import java.util.HashMap;
-import java.util.Map;
 
 public class Event implements Parcelable {
     private String eventId;
@@ -14,13 +12,16 @@ public class Event implements Parcelable {
     private String venue;
     private long date;
     private String imageUrl;
-    private Map<String, Object> registeredUsers;
+    private ImageVariants imageVariants;
+    private String blurHash;
     private int maxParticipants;
     private boolean registrationOpen;
+    // Registrations live under event_registrations/{eventId}; these are kept in step with them
+    private int registeredCount;
+    private boolean full;
 
     // Required empty constructor for Firebase
     public Event() {
-        this.registeredUsers = new HashMap<>();
     }
 
     public Event(String eventId, String clubId, String title, String description, 
@@ -33,7 +34,6 @@ public class Event implements Parcelable {
         this.date = date;
         this.maxParticipants = maxParticipants;
         this.registrationOpen = true;
-        this.registeredUsers = new HashMap<>();
     }
 
     protected Event(Parcel in) {
@@ -46,6 +46,15 @@ public class Event implements Parcelable {
         imageUrl = in.readString();
         maxParticipants = in.readInt();
         registrationOpen = in.readByte() != 0;
+        registeredCount = in.readInt();
+        full = in.readByte() != 0;
+        if (in.readByte() != 0) {
+            imageVariants = new ImageVariants();
+            imageVariants.setThumb(in.readString());
+            imageVariants.setCard(in.readString());
+            imageVariants.setFull(in.readString());
+        }
+        blurHash = in.readString();
     }
 
     @Override
@@ -59,6 +68,15 @@ public class Event implements Parcelable {
         dest.writeString(imageUrl);
         dest.writeInt(maxParticipants);
         dest.writeByte((byte) (registrationOpen ? 1 : 0));
+        dest.writeInt(registeredCount);
+        dest.writeByte((byte) (full ? 1 : 0));
+        dest.writeByte((byte) (imageVariants != null ? 1 : 0));
+        if (imageVariants != null) {
+            dest.writeString(imageVariants.getThumb());
+            dest.writeString(imageVariants.getCard());
+            dest.writeString(imageVariants.getFull());
+        }
+        dest.writeString(blurHash);
     }
 
     @Override
@@ -121,15 +139,17 @@ public class Event implements Parcelable {
     @PropertyName("imageUrl")
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
     
-    @PropertyName("registeredUsers")
-    public Map<String, Object> getRegisteredUsers() { 
-        return registeredUsers; 
-    }
+    @PropertyName("imageVariants")
+    public ImageVariants getImageVariants() { return imageVariants; }
     
-    @PropertyName("registeredUsers")
-    public void setRegisteredUsers(Map<String, Object> registeredUsers) { 
-        this.registeredUsers = registeredUsers; 
-    }
+    @PropertyName("imageVariants")
+    public void setImageVariants(ImageVariants imageVariants) { this.imageVariants = imageVariants; }
+    
+    @PropertyName("blurHash")
+    public String getBlurHash() { return blurHash; }
+    
+    @PropertyName("blurHash")
+    public void setBlurHash(String blurHash) { this.blurHash = blurHash; }
     
     @PropertyName("maxParticipants")
     public int getMaxParticipants() { return maxParticipants; }
@@ -147,20 +167,22 @@ public class Event implements Parcelable {
         this.registrationOpen = registrationOpen; 
     }
 
-    public int getRegisteredCount() {
-        return registeredUsers != null ? registeredUsers.size() : 0;
-    }
+    @PropertyName("registeredCount")
+    public int getRegisteredCount() { return registeredCount; }
 
-    public boolean isRegistered(String userId) {
-        return registeredUsers != null && registeredUsers.containsKey(userId);
+    @PropertyName("registeredCount")
+    public void setRegisteredCount(int registeredCount) {
+        this.registeredCount = registeredCount;
     }
 
-    public String getRegisteredUserPhone(String userId) {
-        Object value = registeredUsers != null ? registeredUsers.get(userId) : null;
-        return value != null ? value.toString() : null;
-    }
+    /** Set once registeredCount reaches maxParticipants, see EventRegistrationManager */
+    @PropertyName("full")
+    public boolean isFull() { return full; }
+
+    @PropertyName("full")
+    public void setFull(boolean full) { this.full = full; }
 
     public boolean canRegister() {
-        return registrationOpen && (maxParticipants == 0 || getRegisteredCount() < maxParticipants);
+        return registrationOpen && !full && (maxParticipants == 0 || registeredCount < maxParticipants);
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.example.unifyu2.models;
+
+import com.google.firebase.database.Exclude;
+
+import java.util.Objects;
+
+/**
+ * Download URLs of an uploaded image stored at several sizes. The owning model's
+ * imageUrl still points at the full size, for older clients and full-screen views.
+ */
+public class ImageVariants {
+    public enum Size {
+        THUMB("thumb", 320),
+        CARD("card", 800),
+        FULL("full", 1600);
+
+        public final String key;
+        /** Maximum length of the variant's longer side, in pixels */
+        public final int maxLongEdge;
+
+        Size(String key, int maxLongEdge) {
+            this.key = key;
+            this.maxLongEdge = maxLongEdge;
+        }
+    }
+
+    private String thumb;
+    private String card;
+    private String full;
+
+    // Required empty constructor for Firebase
+    public ImageVariants() {
+    }
+
+    public String getThumb() { return thumb; }
+    public void setThumb(String thumb) { this.thumb = thumb; }
+
+    public String getCard() { return card; }
+    public void setCard(String card) { this.card = card; }
+
+    public String getFull() { return full; }
+    public void setFull(String full) { this.full = full; }
+
+    @Exclude
+    public String urlFor(Size size) {
+        switch (size) {
+            case THUMB: return thumb;
+            case CARD: return card;
+            default: return full;
+        }
+    }
+
+    @Exclude
+    public void setUrl(Size size, String url) {
+        switch (size) {
+            case THUMB: thumb = url; break;
+            case CARD: card = url; break;
+            default: full = url; break;
+        }
+    }
+
+    /**
+     * @return The URL of the smallest variant whose longer side covers the target's
+     *         longer side, falling back to larger variants when one is missing
+     */
+    @Exclude
+    public String urlCovering(int targetWidth, int targetHeight) {
+        int targetLongEdge = Math.max(targetWidth, targetHeight);
+        String fallback = null;
+        for (Size size : Size.values()) {
+            String url = urlFor(size);
+            if (url == null) continue;
+            // Non-positive sizes mean the target wants the original
+            if (targetLongEdge > 0 && size.maxLongEdge >= targetLongEdge) return url;
+            fallback = url;
+        }
+        return fallback;
+    }
+
+    // Glide keys its memory cache on the model, so equal URLs must hit the same entry
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ImageVariants)) return false;
+        ImageVariants that = (ImageVariants) o;
+        return Objects.equals(thumb, that.thumb)
+            && Objects.equals(card, that.card)
+            && Objects.equals(full, that.full);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(thumb, card, full);
+    }
+}
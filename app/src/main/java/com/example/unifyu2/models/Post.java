@@ -13,6 +13,8 @@ public class Post {
     private String userName;
     private String content;
     private String imageUrl;
+    private ImageVariants imageVariants;
+    private String blurHash;
     private String linkUrl;
     private String linkTitle;
     private String linkDescription;
@@ -76,6 +78,12 @@ public class Post {
     public String getImageUrl() { return imageUrl; }
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
 
+    public ImageVariants getImageVariants() { return imageVariants; }
+    public void setImageVariants(ImageVariants imageVariants) { this.imageVariants = imageVariants; }
+
+    public String getBlurHash() { return blurHash; }
+    public void setBlurHash(String blurHash) { this.blurHash = blurHash; }
+
     public String getLinkUrl() { return linkUrl; }
     public void setLinkUrl(String linkUrl) { this.linkUrl = linkUrl; }
 
@@ -0,0 +1,273 @@
+package com.example.unifyu2.notifications;
+
+import android.app.Notification;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.service.notification.StatusBarNotification;
+import android.util.Log;
+
+import androidx.core.app.NotificationCompat;
+
+import com.example.unifyu2.MainActivity;
+import com.example.unifyu2.R;
+import com.example.unifyu2.ViewEventActivity;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Posts event notifications in coalesced bursts. Messages arriving within a short
+ * window are collected and posted together, grouped by club with an InboxStyle
+ * summary, so a burst of event creations alerts once rather than once per event.
+ *
+ * The same event can be delivered more than once, e.g. through a token and a topic,
+ * so recently shown event IDs are remembered across process restarts and repeats
+ * are dropped. An event only counts as shown once its notification was posted, so a
+ * copy redelivered after the process died mid-burst is still shown.
+ */
+public class EventNotificationCoalescer {
+    private static final String TAG = "NotificationCoalescer";
+    private static final String PREFS_NAME = "event_notifications";
+    private static final String KEY_SEEN = "seen";
+    // Quiet period after the last message before a burst is posted
+    private static final long DEBOUNCE_MILLIS = 2000;
+    // A steady stream of messages is still posted at least this often
+    private static final long MAX_DELAY_MILLIS = 5000;
+    private static final long DEDUPE_WINDOW_MILLIS = 24 * 60 * 60 * 1000;
+    private static final int MAX_SEEN_EVENTS = 200;
+    private static final int MAX_SUMMARY_LINES = 5;
+    private static final String GROUP_PREFIX = "club_";
+
+    private static EventNotificationCoalescer instance;
+
+    private static class PendingNotification {
+        final String eventId;
+        final String clubId;
+        final String clubName;
+        final String title;
+        final String message;
+
+        PendingNotification(String eventId, String clubId, String clubName, String title, String message) {
+            this.eventId = eventId;
+            this.clubId = clubId;
+            this.clubName = clubName;
+            this.title = title;
+            this.message = message;
+        }
+    }
+
+    private final Context context;
+    private final SharedPreferences prefs;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::flush;
+    // Shown event IDs by the time they were shown, oldest first
+    private final LinkedHashMap<String, Long> seenEvents = new LinkedHashMap<>();
+    private final Map<String, List<PendingNotification>> pendingByClub = new LinkedHashMap<>();
+    private long burstStartedAt;
+
+    private EventNotificationCoalescer(Context context) {
+        this.context = context.getApplicationContext();
+        this.prefs = this.context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        loadSeenEvents();
+    }
+
+    public static synchronized EventNotificationCoalescer getInstance(Context context) {
+        if (instance == null) {
+            instance = new EventNotificationCoalescer(context);
+        }
+        return instance;
+    }
+
+    /** Queues a notification for the event unless it was already shown; safe to call from any thread. */
+    public synchronized void enqueue(String eventId, String clubId, String clubName, String title, String message) {
+        long now = System.currentTimeMillis();
+        Long seenAt = seenEvents.get(eventId);
+        if (seenAt != null && now - seenAt < DEDUPE_WINDOW_MILLIS) {
+            Log.d(TAG, "Dropping repeated notification for event " + eventId);
+            return;
+        }
+
+        String groupClubId = clubId != null ? clubId : "";
+        List<PendingNotification> pending = pendingByClub.get(groupClubId);
+        if (pending == null) {
+            pending = new ArrayList<>();
+            pendingByClub.put(groupClubId, pending);
+        }
+        for (PendingNotification queued : pending) {
+            if (queued.eventId.equals(eventId)) {
+                Log.d(TAG, "Dropping repeated notification for queued event " + eventId);
+                return;
+            }
+        }
+        pending.add(new PendingNotification(eventId, clubId, clubName, title, message));
+
+        if (burstStartedAt == 0) burstStartedAt = now;
+        long delay = Math.min(DEBOUNCE_MILLIS, burstStartedAt + MAX_DELAY_MILLIS - now);
+        handler.removeCallbacks(flushRunnable);
+        handler.postDelayed(flushRunnable, Math.max(0, delay));
+    }
+
+    /** Records an event notification shown by other means, so a pushed copy of it is dropped. */
+    public synchronized void markShown(String eventId) {
+        markSeen(eventId, System.currentTimeMillis());
+        saveSeenEvents();
+    }
+
+    private synchronized void flush() {
+        NotificationManager notificationManager =
+            (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        boolean alerted = false;
+        long now = System.currentTimeMillis();
+
+        for (List<PendingNotification> burst : pendingByClub.values()) {
+            PendingNotification first = burst.get(0);
+            String group = GROUP_PREFIX + (first.clubId != null ? first.clubId : "");
+            List<CharSequence> activeTitles = getActiveTitles(notificationManager, group);
+            boolean grouped = activeTitles.size() + burst.size() > 1;
+
+            for (PendingNotification notification : burst) {
+                NotificationCompat.Builder builder = buildEventNotification(notification, group);
+                // Within a group only the summary alerts
+                builder.setSilent(grouped || alerted);
+                if (notify(notificationManager, notification.eventId.hashCode(), builder.build())) {
+                    markSeen(notification.eventId, now);
+                }
+                activeTitles.add(0, notification.title);
+            }
+
+            if (grouped) {
+                notify(notificationManager, group.hashCode(),
+                    buildSummary(first, group, activeTitles).setSilent(alerted).build());
+            }
+            alerted = true;
+            Log.d(TAG, "Posted " + burst.size() + " notifications for group " + group);
+        }
+
+        pendingByClub.clear();
+        burstStartedAt = 0;
+        saveSeenEvents();
+    }
+
+    private NotificationCompat.Builder buildEventNotification(PendingNotification notification, String group) {
+        Intent intent = new Intent(context, ViewEventActivity.class);
+        intent.putExtra("eventId", notification.eventId);
+        if (notification.clubId != null) {
+            intent.putExtra("clubId", notification.clubId);
+        }
+        intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_SINGLE_TOP);
+        PendingIntent pendingIntent = PendingIntent.getActivity(context, notification.eventId.hashCode(), intent,
+            PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+
+        return new NotificationCompat.Builder(context, NotificationHelper.MESSAGING_CHANNEL_ID)
+            .setSmallIcon(R.drawable.ic_notification)
+            .setContentTitle(notification.title)
+            .setContentText(notification.message)
+            .setAutoCancel(true)
+            .setContentIntent(pendingIntent)
+            .setPriority(NotificationCompat.PRIORITY_HIGH)
+            .setCategory(NotificationCompat.CATEGORY_EVENT)
+            .setVisibility(NotificationCompat.VISIBILITY_PUBLIC)
+            .setStyle(new NotificationCompat.BigTextStyle().bigText(notification.message))
+            .setGroup(group);
+    }
+
+    private NotificationCompat.Builder buildSummary(PendingNotification first, String group, List<CharSequence> titles) {
+        String clubName = first.clubName != null && !first.clubName.isEmpty() ? first.clubName : "your clubs";
+        String summary = titles.size() + " new events in " + clubName;
+
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle().setSummaryText(clubName);
+        for (int i = 0; i < Math.min(titles.size(), MAX_SUMMARY_LINES); i++) {
+            style.addLine(titles.get(i));
+        }
+
+        Intent intent = new Intent(context, MainActivity.class);
+        intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_SINGLE_TOP);
+        PendingIntent pendingIntent = PendingIntent.getActivity(context, group.hashCode(), intent,
+            PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+
+        return new NotificationCompat.Builder(context, NotificationHelper.MESSAGING_CHANNEL_ID)
+            .setSmallIcon(R.drawable.ic_notification)
+            .setContentTitle(summary)
+            .setContentText(titles.get(0))
+            .setStyle(style)
+            .setAutoCancel(true)
+            .setContentIntent(pendingIntent)
+            .setPriority(NotificationCompat.PRIORITY_HIGH)
+            .setCategory(NotificationCompat.CATEGORY_EVENT)
+            .setGroup(group)
+            .setGroupSummary(true)
+            .setGroupAlertBehavior(NotificationCompat.GROUP_ALERT_SUMMARY);
+    }
+
+    /** @return Titles of the group's notifications still in the shade, excluding its summary */
+    private static List<CharSequence> getActiveTitles(NotificationManager notificationManager, String group) {
+        List<CharSequence> titles = new ArrayList<>();
+        for (StatusBarNotification active : notificationManager.getActiveNotifications()) {
+            Notification notification = active.getNotification();
+            if (!group.equals(notification.getGroup())) continue;
+            if ((notification.flags & Notification.FLAG_GROUP_SUMMARY) != 0) continue;
+            CharSequence title = notification.extras.getCharSequence(Notification.EXTRA_TITLE);
+            if (title != null) titles.add(title);
+        }
+        return titles;
+    }
+
+    /** @return true if the notification was posted */
+    private static boolean notify(NotificationManager notificationManager, int id, Notification notification) {
+        try {
+            notificationManager.notify(id, notification);
+            return true;
+        } catch (SecurityException e) {
+            Log.e(TAG, "Error showing notification: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void markSeen(String eventId, long now) {
+        seenEvents.remove(eventId);
+        seenEvents.put(eventId, now);
+        Iterator<Map.Entry<String, Long>> oldest = seenEvents.entrySet().iterator();
+        while (oldest.hasNext()) {
+            Map.Entry<String, Long> entry = oldest.next();
+            if (seenEvents.size() <= MAX_SEEN_EVENTS && now - entry.getValue() < DEDUPE_WINDOW_MILLIS) break;
+            oldest.remove();
+        }
+    }
+
+    private void saveSeenEvents() {
+        Set<String> entries = new HashSet<>();
+        for (Map.Entry<String, Long> entry : seenEvents.entrySet()) {
+            entries.add(entry.getValue() + ":" + entry.getKey());
+        }
+        prefs.edit().putStringSet(KEY_SEEN, entries).apply();
+    }
+
+    private void loadSeenEvents() {
+        // Stored as "shownAt:eventId"; sorted by time to restore the eviction order
+        List<Map.Entry<String, Long>> loaded = new ArrayList<>();
+        for (String entry : prefs.getStringSet(KEY_SEEN, new HashSet<>())) {
+            int separator = entry.indexOf(':');
+            try {
+                loaded.add(new AbstractMap.SimpleEntry<>(entry.substring(separator + 1),
+                    Long.parseLong(entry.substring(0, separator))));
+            } catch (IndexOutOfBoundsException | NumberFormatException e) {
+                Log.w(TAG, "Skipping malformed entry " + entry);
+            }
+        }
+        loaded.sort((a, b) -> Long.compare(a.getValue(), b.getValue()));
+        for (Map.Entry<String, Long> entry : loaded) {
+            seenEvents.put(entry.getKey(), entry.getValue());
+        }
+    }
+}
@@ -1,31 +1,29 @@
 package com.example.unifyu2.notifications;
 
-import android.content.Context;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 
 import com.example.unifyu2.models.Event;
-import com.google.android.gms.tasks.OnCompleteListener;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ServerValue;
 import com.google.firebase.database.ValueEventListener;
 import com.google.firebase.messaging.FirebaseMessaging;
-import com.google.firebase.messaging.RemoteMessage;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 public class FCMManager {
     private static final String TAG = "FCMManager";
+    private static final String LEGACY_ALL_USERS_TOPIC = "all_users";
     private static final DatabaseReference tokensRef = FirebaseDatabase.getInstance().getReference("fcm_tokens");
     private static final DatabaseReference usersRef = FirebaseDatabase.getInstance().getReference("users");
+    private static final DatabaseReference jobsRef = FirebaseDatabase.getInstance().getReference("notification_jobs");
 
     public static void updateUserToken() {
         FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
@@ -37,13 +35,12 @@ public class FCMManager {
         String userId = currentUser.getUid();
         Log.d(TAG, "⭐ Updating FCM token for user: " + userId);
         
-        // Subscribe to a general topic for all app users
-        FirebaseMessaging.getInstance().subscribeToTopic("all_users")
+        // Event notifications go to per-club topics, see TopicSubscriptionManager; leave the
+        // topic every device used to be subscribed to
+        FirebaseMessaging.getInstance().unsubscribeFromTopic(LEGACY_ALL_USERS_TOPIC)
             .addOnCompleteListener(task -> {
-                if (task.isSuccessful()) {
-                    Log.d(TAG, "⭐ Subscribed to all_users topic");
-                } else {
-                    Log.e(TAG, "⭐ Failed to subscribe to all_users topic", task.getException());
+                if (!task.isSuccessful()) {
+                    Log.e(TAG, "⭐ Failed to unsubscribe from " + LEGACY_ALL_USERS_TOPIC, task.getException());
                 }
             });
         
@@ -98,6 +95,12 @@ public class FCMManager {
             });
     }
 
+    /**
+     * Asks the server to notify the club's members about a new event. The client
+     * writes a single job record and the fanOutNotificationJob function sends it to
+     * the club's topic, see {@link TopicSubscriptionManager}, so creating an event
+     * costs one write regardless of the number of users.
+     */
     public static void notifyNewEvent(Event event) {
         Log.d(TAG, "⭐ Starting notifyNewEvent for event: " + event.getTitle() + " | ID: " + event.getEventId());
 
@@ -106,194 +109,27 @@ public class FCMManager {
             Log.e(TAG, "⭐ Event is missing required fields: " + event);
             return;
         }
-        
-        // First, get the club information to include in the notification
-        DatabaseReference clubRef = FirebaseDatabase.getInstance().getReference("clubs").child(event.getClubId());
-        clubRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                String clubName = "Club";
-                if (snapshot.exists()) {
-                    clubName = snapshot.child("name").getValue(String.class);
-                }
-                
-                final String finalClubName = clubName;
-                Log.d(TAG, "⭐ Sending notification for event in club: " + finalClubName);
-                
-                // Get all users' tokens
-                tokensRef.addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        int tokenCount = 0;
-                        Log.d(TAG, "⭐ Found " + snapshot.getChildrenCount() + " total FCM tokens");
-                        
-                        if (snapshot.getChildrenCount() == 0) {
-                            Log.w(TAG, "⭐ No FCM tokens found! Sending to 'all_users' topic instead.");
-                            
-                            // Send to the all_users topic
-                            sendTopicNotification("all_users", event, finalClubName);
-                            
-                            // Also show local notification
-                            try {
-                                Context context = getApplicationContext();
-                                if (context != null) {
-                                    NotificationHelper.showEventNotification(context, event, finalClubName);
-                                    Log.d(TAG, "⭐ Local notification shown for event as fallback: " + event.getTitle());
-                                }
-                            } catch (Exception e) {
-                                Log.e(TAG, "⭐ Error showing local notification: " + e.getMessage());
-                            }
-                            return;
-                        }
-                        
-                        // Send to all users
-                        for (DataSnapshot tokenSnapshot : snapshot.getChildren()) {
-                            String userId = tokenSnapshot.getKey();
-                            String token = tokenSnapshot.getValue(String.class);
-                            
-                            // Skip null or empty tokens
-                            if (token == null || token.isEmpty()) {
-                                Log.w(TAG, "⭐ Skipping null/empty token for user: " + userId);
-                                continue;
-                            }
-                            
-                            // Send notification to all users
-                            sendNotification(token, event, finalClubName, "all_users", userId);
-                            tokenCount++;
-                            Log.d(TAG, "⭐ Queued notification for user: " + userId + " with token: " + token.substring(0, 10) + "...");
-                        }
-                        
-                        Log.d(TAG, "⭐ Queued notifications for " + tokenCount + " devices");
-                        
-                        // Also send to topic as a backup
-                        sendTopicNotification("all_users", event, finalClubName);
-                        Log.d(TAG, "⭐ Also sent to all_users topic as backup");
-                        
-                        // Show local notification for the creator
-                        try {
-                            Context context = getApplicationContext();
-                            if (context != null) {
-                                NotificationHelper.showEventNotification(context, event, finalClubName);
-                                Log.d(TAG, "⭐ Local notification shown for event: " + event.getTitle());
-                            }
-                        } catch (Exception e) {
-                            Log.e(TAG, "⭐ Error showing local notification: " + e.getMessage());
-                        }
-                        
-                        // If we didn't send any notifications, log a warning
-                        if (tokenCount == 0) {
-                            Log.w(TAG, "⭐ No notifications were queued! All tokens may be invalid.");
-                        }
-                    }
-
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        Log.e(TAG, "⭐ Error fetching tokens: " + error.getMessage());
-                    }
-                });
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "⭐ Error fetching club details: " + error.getMessage());
-            }
-        });
-    }
 
-    private static void sendNotification(String token, Event event, String clubName, String notificationType, String userId) {
-        // Create notification data
-        Map<String, String> data = new HashMap<>();
-        data.put("eventId", event.getEventId());
-        data.put("title", "New Event: " + event.getTitle());
-        data.put("description", "New event in " + clubName + ": " + event.getDescription());
-        data.put("clubId", event.getClubId());
-        data.put("clubName", clubName);
-        data.put("type", notificationType);
-        data.put("timestamp", String.valueOf(System.currentTimeMillis()));
-        data.put("userId", userId); // Add userId for token cleanup if needed
-        
-        // Store notification in Firebase to trigger Cloud Functions
-        DatabaseReference notificationsRef = FirebaseDatabase.getInstance()
-            .getReference("notifications");
-        
-        // Add token to notification data
-        data.put("token", token);
-        
-        // Create a notification entry that will trigger Cloud Functions
-        notificationsRef.push().setValue(data)
-            .addOnSuccessListener(aVoid -> 
-                Log.d(TAG, "Notification data saved to Firebase for user: " + userId))
-            .addOnFailureListener(e -> 
-                Log.e(TAG, "Failed to save notification data for user " + userId + ": " + e.getMessage()));
-    }
-
-    private static void sendTopicNotification(String topic, Event event, String clubName) {
-        Log.d(TAG, "⭐ Attempting to send topic notification directly to: " + topic);
-        
-        // Create data payload
-        Map<String, String> data = new HashMap<>();
-        data.put("eventId", event.getEventId());
-        data.put("title", "New Event: " + event.getTitle());
-        data.put("description", "New event in " + clubName + ": " + event.getDescription());
-        data.put("clubId", event.getClubId());
-        data.put("clubName", clubName);
-        data.put("type", "topic");
-        data.put("timestamp", String.valueOf(System.currentTimeMillis()));
-        
-        // Create message
-        RemoteMessage.Builder builder = new RemoteMessage.Builder(topic + "@gcm.googleapis.com");
-        builder.setMessageId("m-" + System.currentTimeMillis());
-        for (Map.Entry<String, String> entry : data.entrySet()) {
-            builder.addData(entry.getKey(), entry.getValue());
-        }
-        
-        try {
-            // Send message locally if possible (for testing only)
-            try {
-                Context context = getApplicationContext();
-                if (context != null) {
-                    // Send local notification
-                    NotificationHelper.showEventNotification(context, event, clubName);
-                    Log.d(TAG, "⭐ Local notification sent instead of topic message (testing only)");
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "⭐ Error showing local notification: " + e.getMessage());
-            }
-            
-            // Store notification in a different location that should have write permissions
-            DatabaseReference notificationsRef = FirebaseDatabase.getInstance()
-                .getReference("events").child(event.getEventId()).child("notifications");
-            
-            // Add a notification entry
-            Map<String, Object> notificationData = new HashMap<>();
-            notificationData.put("title", data.get("title"));
-            notificationData.put("body", data.get("description"));
-            notificationData.put("sentToTopic", topic);
-            notificationData.put("timestamp", System.currentTimeMillis());
-            
-            notificationsRef.push().setValue(notificationData)
-                .addOnSuccessListener(aVoid -> 
-                    Log.d(TAG, "⭐ Notification record saved for event: " + event.getEventId()))
-                .addOnFailureListener(e -> 
-                    Log.e(TAG, "⭐ Failed to save notification record: " + e.getMessage()));
-        } catch (Exception e) {
-            Log.e(TAG, "⭐ Error sending topic notification: " + e.getMessage());
-            e.printStackTrace();
+        FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
+        if (currentUser == null) {
+            Log.e(TAG, "⭐ Cannot queue notification: No user logged in");
+            return;
         }
-    }
 
-    // Helper method to get application context
-    private static Context getApplicationContext() {
-        try {
-            // Use reflection to get the application context
-            Class<?> activityThreadClass = Class.forName("android.app.ActivityThread");
-            Object activityThread = activityThreadClass.getMethod("currentActivityThread").invoke(null);
-            Object application = activityThreadClass.getMethod("getApplication").invoke(activityThread);
-            return (Context) application;
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting application context: " + e.getMessage());
-            return null;
-        }
+        Map<String, Object> job = new HashMap<>();
+        job.put("type", "new_event");
+        job.put("eventId", event.getEventId());
+        job.put("clubId", event.getClubId());
+        job.put("topic", TopicSubscriptionManager.topicForClub(event.getClubId()));
+        job.put("createdBy", currentUser.getUid());
+        job.put("createdAt", ServerValue.TIMESTAMP);
+        job.put("status", "pending");
+
+        jobsRef.push().setValue(job)
+            .addOnSuccessListener(aVoid ->
+                Log.d(TAG, "⭐ Notification job queued for event: " + event.getEventId()))
+            .addOnFailureListener(e ->
+                Log.e(TAG, "⭐ Failed to queue notification job: " + e.getMessage()));
     }
 
     // Add this new method to verify tokens
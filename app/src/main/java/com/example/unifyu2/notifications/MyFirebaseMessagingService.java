@@ -1,14 +1,11 @@
 package com.example.unifyu2.notifications;
 
-import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
-import android.graphics.Color;
 import android.media.RingtoneManager;
 import android.net.Uri;
-import android.os.Build;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -16,7 +13,6 @@ import androidx.core.app.NotificationCompat;
 
 import com.example.unifyu2.MainActivity;
 import com.example.unifyu2.R;
-import com.example.unifyu2.ViewEventActivity;
 import com.google.firebase.messaging.FirebaseMessagingService;
 import com.google.firebase.messaging.RemoteMessage;
 
@@ -24,8 +20,6 @@ import java.util.Map;
 
 public class MyFirebaseMessagingService extends FirebaseMessagingService {
     private static final String TAG = "FCMService";
-    private static final String CHANNEL_ID = "unifyu_notifications";
-    private static final String CHANNEL_NAME = "UnifyU Notifications";
     private static final int NOTIFICATION_ID = 100;
 
     @Override
@@ -85,39 +79,18 @@ public class MyFirebaseMessagingService extends FirebaseMessagingService {
 
     private void showNotification(String title, String message, Map<String, String> data) {
         Log.d(TAG, "🔔 Preparing to show notification: " + title);
+        // Event notifications are debounced, grouped by club and deduplicated
+        if (data != null && data.containsKey("eventId")) {
+            EventNotificationCoalescer.getInstance(this).enqueue(data.get("eventId"), data.get("clubId"),
+                data.get("clubName"), title, message);
+            return;
+        }
+
         NotificationManager notificationManager = 
             (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
         
-        // Create notification channel for Android O and above
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            NotificationChannel channel = new NotificationChannel(
-                CHANNEL_ID,
-                CHANNEL_NAME,
-                NotificationManager.IMPORTANCE_HIGH
-            );
-            channel.setDescription("Notifications for new events and updates");
-            channel.enableVibration(true);
-            channel.setVibrationPattern(new long[]{100, 200, 300, 400, 500});
-            channel.enableLights(true);
-            channel.setLightColor(Color.BLUE);
-            notificationManager.createNotificationChannel(channel);
-        }
-        
-        // Create an explicit intent for the appropriate activity
-        Intent intent;
-        if (data != null && data.containsKey("eventId")) {
-            // If notification is about an event, open event details
-            intent = new Intent(this, ViewEventActivity.class);
-            intent.putExtra("eventId", data.get("eventId"));
-            if (data.containsKey("clubId")) {
-                intent.putExtra("clubId", data.get("clubId"));
-            }
-            Log.d(TAG, "🔔 Creating intent for event: " + data.get("eventId"));
-        } else {
-            // Otherwise open main activity
-            intent = new Intent(this, MainActivity.class);
-            Log.d(TAG, "🔔 Creating intent for main activity");
-        }
+        // Open the main activity
+        Intent intent = new Intent(this, MainActivity.class);
         
         intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_SINGLE_TOP);
         PendingIntent pendingIntent = PendingIntent.getActivity(
@@ -126,7 +99,7 @@ public class MyFirebaseMessagingService extends FirebaseMessagingService {
         Uri defaultSoundUri = RingtoneManager.getDefaultUri(RingtoneManager.TYPE_NOTIFICATION);
         
         // Build notification
-        NotificationCompat.Builder builder = new NotificationCompat.Builder(this, CHANNEL_ID)
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(this, NotificationHelper.MESSAGING_CHANNEL_ID)
             .setSmallIcon(R.drawable.ic_notification)
             .setContentTitle(title)
             .setContentText(message)
@@ -138,11 +111,7 @@ public class MyFirebaseMessagingService extends FirebaseMessagingService {
             .setVisibility(NotificationCompat.VISIBILITY_PUBLIC)
             .setStyle(new NotificationCompat.BigTextStyle().bigText(message));
         
-        // Generate unique notification ID
         int notificationId = NOTIFICATION_ID;
-        if (data != null && data.containsKey("eventId")) {
-            notificationId = data.get("eventId").hashCode();
-        }
             
         // Show the notification
         try {
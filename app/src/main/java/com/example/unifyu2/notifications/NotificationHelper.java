@@ -5,6 +5,7 @@ import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
+import android.graphics.Color;
 import android.os.Build;
 import android.util.Log;
 
@@ -20,6 +21,9 @@ public class NotificationHelper {
     private static final String CHANNEL_NAME = "New Events";
     private static final String CHANNEL_DESC = "Notifications for new club events";
     private static final int NOTIFICATION_ID = 1;
+    // Channel for pushed messages; the server targets it by ID
+    static final String MESSAGING_CHANNEL_ID = "unifyu_notifications";
+    private static final String MESSAGING_CHANNEL_NAME = "UnifyU Notifications";
 
     public static void createNotificationChannel(Context context) {
         // Create the NotificationChannel, but only on API 26+ because
@@ -32,9 +36,21 @@ public class NotificationHelper {
             );
             channel.setDescription(CHANNEL_DESC);
 
-            // Register the channel with the system
+            NotificationChannel messagingChannel = new NotificationChannel(
+                MESSAGING_CHANNEL_ID,
+                MESSAGING_CHANNEL_NAME,
+                NotificationManager.IMPORTANCE_HIGH
+            );
+            messagingChannel.setDescription("Notifications for new events and updates");
+            messagingChannel.enableVibration(true);
+            messagingChannel.setVibrationPattern(new long[]{100, 200, 300, 400, 500});
+            messagingChannel.enableLights(true);
+            messagingChannel.setLightColor(Color.BLUE);
+
+            // Register the channels with the system
             NotificationManager notificationManager = context.getSystemService(NotificationManager.class);
             notificationManager.createNotificationChannel(channel);
+            notificationManager.createNotificationChannel(messagingChannel);
         }
     }
 
@@ -80,6 +96,7 @@ public class NotificationHelper {
         int notificationId = event.getEventId().hashCode();
         try {
             notificationManager.notify(notificationId, builder.build());
+            EventNotificationCoalescer.getInstance(context).markShown(event.getEventId());
             Log.d("NotificationHelper", "Local notification displayed with ID: " + notificationId);
         } catch (SecurityException e) {
             Log.e("NotificationHelper", "Permission denied for notification: " + e.getMessage());
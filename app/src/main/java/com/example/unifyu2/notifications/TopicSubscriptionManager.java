@@ -0,0 +1,119 @@
+package com.example.unifyu2.notifications;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.unifyu2.utils.MembershipTracker;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.messaging.FirebaseMessaging;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Keeps this device subscribed to the club_{clubId} topic of every club the
+ * signed-in user belongs to, so event notifications can target a club's topic.
+ *
+ * The subscribed topics are persisted and diffed against the membership set, so
+ * joining or leaving a club costs one subscribe or unsubscribe call rather than a
+ * full resubscription. Signing out unsubscribes from every club topic.
+ */
+public class TopicSubscriptionManager {
+    private static final String TAG = "TopicSubscriptions";
+    private static final String PREFS_NAME = "topic_subscriptions";
+    private static final String KEY_TOPICS = "topics";
+    private static final String TOPIC_PREFIX = "club_";
+
+    private static TopicSubscriptionManager instance;
+
+    private final SharedPreferences prefs;
+    private final FirebaseMessaging messaging;
+    private final Set<String> subscribedTopics;
+    private final Set<String> desiredTopics = new HashSet<>();
+    // Topics with a subscribe or unsubscribe call in flight
+    private final Set<String> pendingTopics = new HashSet<>();
+    private String userId;
+    private MembershipTracker membershipTracker;
+
+    private TopicSubscriptionManager(Context context) {
+        this.prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.messaging = FirebaseMessaging.getInstance();
+        this.subscribedTopics = new HashSet<>(prefs.getStringSet(KEY_TOPICS, new HashSet<>()));
+    }
+
+    public static synchronized TopicSubscriptionManager getInstance(Context context) {
+        if (instance == null) {
+            instance = new TopicSubscriptionManager(context);
+        }
+        return instance;
+    }
+
+    public static String topicForClub(String clubId) {
+        return TOPIC_PREFIX + clubId;
+    }
+
+    /** Follows the given user's memberships, or unsubscribes from every club when signed out. */
+    public void setUser(@Nullable String newUserId) {
+        if (newUserId == null ? userId == null : newUserId.equals(userId)) return;
+        if (membershipTracker != null) {
+            membershipTracker.stop();
+            membershipTracker = null;
+        }
+        userId = newUserId;
+        desiredTopics.clear();
+        reconcile();
+        if (userId == null) return;
+
+        membershipTracker = new MembershipTracker(userId);
+        membershipTracker.start(this::onMembershipsChanged);
+    }
+
+    private void onMembershipsChanged(Set<String> clubIds) {
+        desiredTopics.clear();
+        for (String clubId : clubIds) {
+            desiredTopics.add(topicForClub(clubId));
+        }
+        reconcile();
+    }
+
+    private void reconcile() {
+        for (String topic : desiredTopics) {
+            if (!subscribedTopics.contains(topic) && !pendingTopics.contains(topic)) {
+                update(topic, true);
+            }
+        }
+        for (String topic : new HashSet<>(subscribedTopics)) {
+            if (!desiredTopics.contains(topic) && !pendingTopics.contains(topic)) {
+                update(topic, false);
+            }
+        }
+    }
+
+    private void update(String topic, boolean subscribe) {
+        pendingTopics.add(topic);
+        Task<Void> task = subscribe ? messaging.subscribeToTopic(topic) : messaging.unsubscribeFromTopic(topic);
+        task.addOnCompleteListener(result -> {
+            pendingTopics.remove(topic);
+            if (!result.isSuccessful()) {
+                // Retried on the next membership change or sign-in
+                Log.e(TAG, "Failed to " + (subscribe ? "subscribe to " : "unsubscribe from ") + topic,
+                    result.getException());
+                return;
+            }
+
+            if (subscribe) {
+                subscribedTopics.add(topic);
+            } else {
+                subscribedTopics.remove(topic);
+            }
+            prefs.edit().putStringSet(KEY_TOPICS, new HashSet<>(subscribedTopics)).apply();
+            Log.d(TAG, (subscribe ? "Subscribed to " : "Unsubscribed from ") + topic);
+
+            // Memberships may have changed while the call was in flight
+            reconcile();
+        });
+    }
+}
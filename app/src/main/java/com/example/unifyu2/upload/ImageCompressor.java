@@ -0,0 +1,198 @@
+package com.example.unifyu2.upload;
+
+import android.content.ContentResolver;
+import android.content.res.AssetFileDescriptor;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+
+import com.example.unifyu2.blurhash.BlurHash;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Downscales and re-encodes a picked image before upload. The image is decoded
+ * with a power-of-two sample size, rotated upright, scaled to the target long edge
+ * and compressed. Re-encoding writes no metadata, so EXIF data such as the camera
+ * model and GPS position is stripped. Blocking; run it from a background thread.
+ */
+public class ImageCompressor {
+    public static final int DEFAULT_MAX_LONG_EDGE = 1600;
+    public static final int DEFAULT_QUALITY = 80;
+    // The hash only keeps a few components, so it's computed from a tiny copy
+    private static final int BLUR_HASH_LONG_EDGE = 64;
+    private static final int BLUR_HASH_COMPONENTS_X = 4;
+    private static final int BLUR_HASH_COMPONENTS_Y = 3;
+
+    public static class Options {
+        public static final Options DEFAULT = new Options(DEFAULT_MAX_LONG_EDGE, DEFAULT_QUALITY, ImageFormat.WEBP);
+
+        public final int maxLongEdge;
+        public final int quality;
+        public final ImageFormat format;
+
+        /** @param quality 0-100, passed to {@link Bitmap#compress} */
+        public Options(int maxLongEdge, int quality, ImageFormat format) {
+            this.maxLongEdge = maxLongEdge;
+            this.quality = quality;
+            this.format = format;
+        }
+    }
+
+    public static class CompressedImage {
+        public final byte[] data;
+        public final ImageFormat format;
+        public final int width;
+        public final int height;
+        /** Size of the original file, or -1 if the provider doesn't report it */
+        public final long originalBytes;
+        /** BlurHash of the image, shared by every size decoded together */
+        public final String blurHash;
+
+        CompressedImage(byte[] data, ImageFormat format, int width, int height, long originalBytes,
+                        String blurHash) {
+            this.data = data;
+            this.format = format;
+            this.width = width;
+            this.height = height;
+            this.originalBytes = originalBytes;
+            this.blurHash = blurHash;
+        }
+    }
+
+    private final ContentResolver resolver;
+
+    public ImageCompressor(ContentResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    public CompressedImage compress(Uri uri, Options options) throws IOException {
+        return compressAll(uri, Collections.singletonList(options)).get(0);
+    }
+
+    /**
+     * Encodes the image once per options from a single decode, e.g. to produce
+     * several size variants.
+     * @return The encoded images, in the order of the options
+     */
+    public List<CompressedImage> compressAll(Uri uri, List<Options> variants) throws IOException {
+        int maxLongEdge = 0;
+        for (Options options : variants) {
+            maxLongEdge = Math.max(maxLongEdge, options.maxLongEdge);
+        }
+
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(uri)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Not a decodable image: " + uri);
+        }
+
+        BitmapFactory.Options decodeOptions = new BitmapFactory.Options();
+        decodeOptions.inSampleSize = ImageSizing.calculateInSampleSize(
+            bounds.outWidth, bounds.outHeight, maxLongEdge);
+        Bitmap decoded;
+        try (InputStream in = open(uri)) {
+            decoded = BitmapFactory.decodeStream(in, null, decodeOptions);
+        }
+        if (decoded == null) {
+            throw new IOException("Failed to decode " + uri);
+        }
+
+        long originalBytes = readSize(uri);
+        Bitmap upright = scaleAndRotate(decoded, readRotation(uri), maxLongEdge);
+        if (upright != decoded) decoded.recycle();
+        List<CompressedImage> images = new ArrayList<>();
+        try {
+            String blurHash = blurHash(upright);
+            for (Options options : variants) {
+                Bitmap scaled = scaleAndRotate(upright, 0, options.maxLongEdge);
+                try {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    if (!scaled.compress(options.format.compressFormat(), options.quality, out)) {
+                        throw new IOException("Failed to encode " + uri);
+                    }
+                    images.add(new CompressedImage(out.toByteArray(), options.format,
+                        scaled.getWidth(), scaled.getHeight(), originalBytes, blurHash));
+                } finally {
+                    if (scaled != upright) scaled.recycle();
+                }
+            }
+        } finally {
+            upright.recycle();
+        }
+        return images;
+    }
+
+    private static String blurHash(Bitmap upright) {
+        Bitmap small = scaleAndRotate(upright, 0, BLUR_HASH_LONG_EDGE);
+        try {
+            int width = small.getWidth();
+            int height = small.getHeight();
+            int[] pixels = new int[width * height];
+            small.getPixels(pixels, 0, width, 0, 0, width, height);
+            return BlurHash.encode(pixels, width, height, BLUR_HASH_COMPONENTS_X, BLUR_HASH_COMPONENTS_Y);
+        } finally {
+            if (small != upright) small.recycle();
+        }
+    }
+
+    /** @return A new bitmap, or the same one if it's already upright and small enough */
+    private static Bitmap scaleAndRotate(Bitmap bitmap, int rotation, int maxLongEdge) {
+        int[] size = ImageSizing.scaledSize(bitmap.getWidth(), bitmap.getHeight(), maxLongEdge);
+        if (rotation == 0 && size[0] == bitmap.getWidth() && size[1] == bitmap.getHeight()) {
+            return bitmap;
+        }
+
+        Matrix matrix = new Matrix();
+        matrix.postScale((float) size[0] / bitmap.getWidth(), (float) size[1] / bitmap.getHeight());
+        matrix.postRotate(rotation);
+        return Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+    }
+
+    /** The orientation would be lost with the rest of the EXIF data, so it's applied to the pixels. */
+    private int readRotation(Uri uri) {
+        try (InputStream in = open(uri)) {
+            int orientation = new ExifInterface(in).getAttributeInt(
+                ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+            switch (orientation) {
+                case ExifInterface.ORIENTATION_ROTATE_90:
+                    return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180:
+                    return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270:
+                    return 270;
+                default:
+                    return 0;
+            }
+        } catch (IOException e) {
+            // Formats without EXIF, e.g. PNG
+            return 0;
+        }
+    }
+
+    private long readSize(Uri uri) {
+        try (AssetFileDescriptor descriptor = resolver.openAssetFileDescriptor(uri, "r")) {
+            return descriptor != null ? descriptor.getLength() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private InputStream open(Uri uri) throws IOException {
+        InputStream in = resolver.openInputStream(uri);
+        if (in == null) {
+            throw new IOException("Couldn't open " + uri);
+        }
+        return in;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.unifyu2.upload;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+
+public enum ImageFormat {
+    WEBP("webp", "image/webp"),
+    JPEG("jpg", "image/jpeg");
+
+    public final String extension;
+    public final String mimeType;
+
+    ImageFormat(String extension, String mimeType) {
+        this.extension = extension;
+        this.mimeType = mimeType;
+    }
+
+    @SuppressWarnings("deprecation")
+    public Bitmap.CompressFormat compressFormat() {
+        if (this == JPEG) return Bitmap.CompressFormat.JPEG;
+        // Before API 30 WEBP is lossy at any quality below 100
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+            ? Bitmap.CompressFormat.WEBP_LOSSY : Bitmap.CompressFormat.WEBP;
+    }
+}
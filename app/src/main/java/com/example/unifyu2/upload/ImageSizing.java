@@ -0,0 +1,32 @@
+package com.example.unifyu2.upload;
+
+/** Size calculations for downscaling images to a maximum long edge. */
+public final class ImageSizing {
+    private ImageSizing() {
+    }
+
+    /**
+     * @return The largest power-of-two sample size that still decodes the image with
+     *         a long edge of at least {@code maxLongEdge}, so the decode never upscales
+     */
+    public static int calculateInSampleSize(int width, int height, int maxLongEdge) {
+        int longEdge = Math.max(width, height);
+        int sampleSize = 1;
+        while (longEdge / (sampleSize * 2) >= maxLongEdge) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /** @return The {width, height} that fits within {@code maxLongEdge}, keeping the aspect ratio */
+    public static int[] scaledSize(int width, int height, int maxLongEdge) {
+        int longEdge = Math.max(width, height);
+        if (longEdge <= maxLongEdge) return new int[] {width, height};
+
+        float scale = (float) maxLongEdge / longEdge;
+        return new int[] {
+            Math.max(1, Math.round(width * scale)),
+            Math.max(1, Math.round(height * scale))
+        };
+    }
+}
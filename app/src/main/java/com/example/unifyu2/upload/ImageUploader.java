@@ -0,0 +1,124 @@
+package com.example.unifyu2.upload;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import com.example.unifyu2.models.ImageVariants;
+import com.example.unifyu2.workers.ImageUploadWorker;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Compresses a picked image on a background thread and uploads the result to
+ * Storage, instead of uploading the camera original. Uploads either run while the
+ * caller waits, or are queued to run in the background.
+ */
+public class ImageUploader {
+    private static final String TAG = "ImageUploader";
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    public static class Result {
+        public final Uri downloadUrl;
+        public final long uploadedBytes;
+        /** Size of the original file, or -1 if unknown */
+        public final long originalBytes;
+        /** Placeholder to store alongside the URL, see {@link com.example.unifyu2.glide.BlurHashPlaceholders} */
+        public final String blurHash;
+
+        Result(Uri downloadUrl, long uploadedBytes, long originalBytes, String blurHash) {
+            this.downloadUrl = downloadUrl;
+            this.uploadedBytes = uploadedBytes;
+            this.originalBytes = originalBytes;
+            this.blurHash = blurHash;
+        }
+
+        public long getBytesSaved() {
+            return originalBytes < 0 ? 0 : Math.max(0, originalBytes - uploadedBytes);
+        }
+    }
+
+    public static Task<Result> upload(Context context, Uri imageUri, StorageReference ref) {
+        return upload(context, imageUri, ref, ImageCompressor.Options.DEFAULT);
+    }
+
+    /** Callbacks added to the returned task run on the main thread. */
+    public static Task<Result> upload(Context context, Uri imageUri, StorageReference ref,
+                                      ImageCompressor.Options options) {
+        ImageCompressor compressor = new ImageCompressor(context.getApplicationContext().getContentResolver());
+        return compressInBackground(imageUri, () -> compressor.compress(imageUri, options))
+            .continueWithTask(task -> {
+                if (!task.isSuccessful()) return Tasks.forException(task.getException());
+                ImageCompressor.CompressedImage image = task.getResult();
+                return putAndGetUrl(ref, image).continueWith(url -> {
+                    if (!url.isSuccessful()) throw url.getException();
+                    Result result = new Result(url.getResult(), image.data.length, image.originalBytes,
+                        image.blurHash);
+                    Log.d(TAG, "Uploaded " + ref.getPath() + ": " + image.width + "x" + image.height + ", "
+                        + result.uploadedBytes + " bytes, saved " + result.getBytesSaved() + " bytes");
+                    return result;
+                });
+            });
+    }
+
+    /**
+     * Compresses the image at every {@link ImageVariants.Size} into app storage and queues
+     * a background upload to {@code dir/<size key>}, which survives the user leaving and
+     * process death. When it finishes, imageUrl, imageVariants and blurHash are written
+     * to the database node at {@code ownerPath}. Callbacks added to the returned task run
+     * on the main thread, once the image is queued.
+     * @return The queued upload
+     */
+    public static Task<PendingUpload> enqueueVariants(Context context, Uri imageUri, StorageReference dir,
+                                                      String ownerPath) {
+        List<ImageCompressor.Options> variants = new ArrayList<>();
+        for (ImageVariants.Size size : ImageVariants.Size.values()) {
+            variants.add(new ImageCompressor.Options(size.maxLongEdge, ImageCompressor.DEFAULT_QUALITY,
+                ImageCompressor.Options.DEFAULT.format));
+        }
+
+        Context appContext = context.getApplicationContext();
+        ImageCompressor compressor = new ImageCompressor(appContext.getContentResolver());
+        return compressInBackground(imageUri, () -> {
+            // The picked URI may not be readable after process death, so compress before queueing
+            List<ImageCompressor.CompressedImage> images = compressor.compressAll(imageUri, variants);
+            PendingUpload upload = PendingUpload.create(appContext, dir.getPath(), ownerPath, images);
+            ImageUploadWorker.enqueue(appContext, upload);
+            Log.d(TAG, "Queued upload to " + dir.getPath() + " for " + ownerPath);
+            return upload;
+        });
+    }
+
+    private static <T> Task<T> compressInBackground(Uri imageUri, Callable<T> compression) {
+        TaskCompletionSource<T> source = new TaskCompletionSource<>();
+        executor.execute(() -> {
+            try {
+                source.setResult(compression.call());
+            } catch (Exception | OutOfMemoryError e) {
+                Log.e(TAG, "Failed to compress " + imageUri, e);
+                source.setException(e instanceof Exception ? (Exception) e : new RuntimeException(e));
+            }
+        });
+        return source.getTask();
+    }
+
+    private static Task<Uri> putAndGetUrl(StorageReference ref, ImageCompressor.CompressedImage image) {
+        StorageMetadata metadata = new StorageMetadata.Builder()
+            .setContentType(image.format.mimeType)
+            .build();
+        return ref.putBytes(image.data, metadata).continueWithTask(upload -> {
+            if (!upload.isSuccessful()) return Tasks.forException(upload.getException());
+            return ref.getDownloadUrl();
+        });
+    }
+}
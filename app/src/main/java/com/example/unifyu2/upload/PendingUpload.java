@@ -0,0 +1,103 @@
+package com.example.unifyu2.upload;
+
+import android.content.Context;
+
+import androidx.work.Data;
+
+import com.example.unifyu2.models.ImageVariants;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An image compressed at every {@link ImageVariants.Size} into app storage, waiting
+ * to be uploaded by {@link com.example.unifyu2.workers.ImageUploadWorker}. The files
+ * outlive the picked content URI, so the upload can resume after process death.
+ */
+public class PendingUpload {
+    private static final String DIR_NAME = "image_uploads";
+    private static final String KEY_ID = "upload_id";
+    private static final String KEY_STORAGE_PATH = "storage_path";
+    private static final String KEY_OWNER_PATH = "owner_path";
+    private static final String KEY_BLUR_HASH = "blur_hash";
+    private static final String KEY_FORMAT = "format";
+
+    public final String id;
+    /** Storage directory the sizes are uploaded to, each as {@code <size key>} */
+    public final String storagePath;
+    /** Database node that gets imageUrl, imageVariants and blurHash once uploaded */
+    public final String ownerPath;
+    public final String blurHash;
+    public final ImageFormat format;
+    private final File dir;
+
+    private PendingUpload(Context context, String id, String storagePath, String ownerPath,
+                          String blurHash, ImageFormat format) {
+        this.id = id;
+        this.storagePath = storagePath;
+        this.ownerPath = ownerPath;
+        this.blurHash = blurHash;
+        this.format = format;
+        this.dir = new File(new File(context.getFilesDir(), DIR_NAME), id);
+    }
+
+    /** @param images One per {@link ImageVariants.Size}, in declaration order */
+    static PendingUpload create(Context context, String storagePath, String ownerPath,
+                                List<ImageCompressor.CompressedImage> images) throws IOException {
+        ImageCompressor.CompressedImage first = images.get(0);
+        PendingUpload upload = new PendingUpload(context, UUID.randomUUID().toString(), storagePath,
+            ownerPath, first.blurHash, first.format);
+        if (!upload.dir.mkdirs()) {
+            throw new IOException("Couldn't create " + upload.dir);
+        }
+
+        ImageVariants.Size[] sizes = ImageVariants.Size.values();
+        try {
+            for (int i = 0; i < sizes.length; i++) {
+                try (FileOutputStream out = new FileOutputStream(upload.fileFor(sizes[i]))) {
+                    out.write(images.get(i).data);
+                }
+            }
+        } catch (IOException e) {
+            upload.deleteFiles();
+            throw e;
+        }
+        return upload;
+    }
+
+    public static PendingUpload fromData(Context context, Data data) {
+        return new PendingUpload(context,
+            data.getString(KEY_ID),
+            data.getString(KEY_STORAGE_PATH),
+            data.getString(KEY_OWNER_PATH),
+            data.getString(KEY_BLUR_HASH),
+            ImageFormat.valueOf(data.getString(KEY_FORMAT)));
+    }
+
+    public Data toData() {
+        return new Data.Builder()
+            .putString(KEY_ID, id)
+            .putString(KEY_STORAGE_PATH, storagePath)
+            .putString(KEY_OWNER_PATH, ownerPath)
+            .putString(KEY_BLUR_HASH, blurHash)
+            .putString(KEY_FORMAT, format.name())
+            .build();
+    }
+
+    public File fileFor(ImageVariants.Size size) {
+        return new File(dir, size.key + "." + format.extension);
+    }
+
+    void deleteFiles() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.unifyu2.upload;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.util.Log;
+
+import com.example.unifyu2.models.ImageVariants;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageException;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+import com.google.firebase.storage.UploadTask;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Uploads a {@link PendingUpload} through Storage resumable-upload sessions and writes
+ * the URLs into its owner node. Each size's session URI is saved as soon as Storage
+ * creates it, and each finished size's download URL once it's known, so a retried
+ * upload continues from the last uploaded byte instead of starting over. Blocking;
+ * run it from a background thread, see {@link com.example.unifyu2.workers.ImageUploadWorker}.
+ */
+public class ResumableUploader {
+    private static final String TAG = "ResumableUploader";
+    private static final String PREFS_NAME = "image_uploads";
+    private static final String KEY_SESSION_SUFFIX = "_session";
+    private static final String KEY_URL_SUFFIX = "_url";
+    private static final long UPLOAD_TIMEOUT_MINUTES = 5;
+    private static final long TIMEOUT_SECONDS = 30;
+
+    private final SharedPreferences prefs;
+    private final FirebaseStorage storage;
+    private final DatabaseReference rootRef;
+
+    public ResumableUploader(Context context) {
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.storage = FirebaseStorage.getInstance();
+        this.rootRef = FirebaseDatabase.getInstance().getReference();
+    }
+
+    /**
+     * Uploads or resumes every size, then patches the owner node and deletes the local files.
+     * @param isStopped Checked between sizes; the upload stops early when it returns true
+     * @return true if the upload completed, false if it was stopped and should resume later
+     */
+    public boolean upload(PendingUpload upload, BooleanSupplier isStopped) throws Exception {
+        ImageVariants variants = new ImageVariants();
+        for (ImageVariants.Size size : ImageVariants.Size.values()) {
+            if (isStopped.getAsBoolean()) return false;
+            variants.setUrl(size, uploadSize(upload, size));
+        }
+
+        // The owner is saved while the upload is queued; don't recreate it if it's been deleted
+        DataSnapshot owner = Tasks.await(rootRef.child(upload.ownerPath).get(), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (!owner.exists()) {
+            throw new IllegalStateException(upload.ownerPath + " doesn't exist");
+        }
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("imageUrl", variants.getFull());
+        updates.put("imageVariants", variants);
+        updates.put("blurHash", upload.blurHash);
+        Tasks.await(rootRef.child(upload.ownerPath).updateChildren(updates), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Log.d(TAG, "Uploaded " + upload.storagePath + " for " + upload.ownerPath);
+        forget(upload);
+        return true;
+    }
+
+    /**
+     * Gives up on an upload: deletes the sizes already in Storage, the local files and
+     * the saved progress.
+     */
+    public void discard(PendingUpload upload) {
+        for (ImageVariants.Size size : ImageVariants.Size.values()) {
+            if (prefs.getString(key(upload, size) + KEY_URL_SUFFIX, null) == null) continue;
+            storage.getReference(upload.storagePath).child(size.key).delete()
+                .addOnFailureListener(e -> Log.w(TAG, "Failed to delete " + upload.storagePath + "/" + size.key, e));
+        }
+        forget(upload);
+        Log.d(TAG, "Discarded upload " + upload.storagePath + " for " + upload.ownerPath);
+    }
+
+    private String uploadSize(PendingUpload upload, ImageVariants.Size size) throws Exception {
+        String key = key(upload, size);
+        String url = prefs.getString(key + KEY_URL_SUFFIX, null);
+        if (url != null) return url;
+
+        StorageReference ref = storage.getReference(upload.storagePath).child(size.key);
+        Uri file = Uri.fromFile(upload.fileFor(size));
+        StorageMetadata metadata = new StorageMetadata.Builder()
+            .setContentType(upload.format.mimeType)
+            .build();
+        String session = prefs.getString(key + KEY_SESSION_SUFFIX, null);
+        UploadTask task = session != null
+            ? ref.putFile(file, metadata, Uri.parse(session))
+            : ref.putFile(file, metadata);
+        task.addOnProgressListener(Runnable::run, snapshot -> {
+            Uri sessionUri = snapshot.getUploadSessionUri();
+            if (sessionUri != null && !sessionUri.toString().equals(session)) {
+                prefs.edit().putString(key + KEY_SESSION_SUFFIX, sessionUri.toString()).apply();
+            }
+        });
+
+        try {
+            Tasks.await(task, UPLOAD_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        } catch (ExecutionException e) {
+            // Network failures keep the session for the retry; an expired or rejected one starts over
+            if (!isNetworkFailure(e.getCause())) {
+                prefs.edit().remove(key + KEY_SESSION_SUFFIX).apply();
+            }
+            throw e;
+        } finally {
+            // Pausing rather than cancelling keeps the session valid
+            if (!task.isComplete()) task.pause();
+        }
+
+        url = Tasks.await(ref.getDownloadUrl(), TIMEOUT_SECONDS, TimeUnit.SECONDS).toString();
+        prefs.edit()
+            .remove(key + KEY_SESSION_SUFFIX)
+            .putString(key + KEY_URL_SUFFIX, url)
+            .apply();
+        return url;
+    }
+
+    private void forget(PendingUpload upload) {
+        SharedPreferences.Editor editor = prefs.edit();
+        for (ImageVariants.Size size : ImageVariants.Size.values()) {
+            editor.remove(key(upload, size) + KEY_SESSION_SUFFIX);
+            editor.remove(key(upload, size) + KEY_URL_SUFFIX);
+        }
+        editor.apply();
+        upload.deleteFiles();
+    }
+
+    private static String key(PendingUpload upload, ImageVariants.Size size) {
+        return upload.id + "_" + size.key;
+    }
+
+    private static boolean isNetworkFailure(Throwable error) {
+        return error instanceof StorageException
+            && ((StorageException) error).getErrorCode() == StorageException.ERROR_RETRY_LIMIT_EXCEEDED;
+    }
+}
@@ -1,86 +1,223 @@
 package com.example.unifyu2.utils;
 
+import android.content.Context;
+import android.content.SharedPreferences;
 import android.util.Log;
-import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 /**
- * Utility class to fix member count discrepancies in clubs
+ * Reconciles club member counts with the actual memberships.
+ *
+ * Memberships are counted in key-ordered chunks and clubs are then checked in
+ * batches. The scanned counts can be a day old, so they only pick out clubs that look
+ * wrong: each of those is recounted with an indexed memberships query, read together
+ * with its current count, and the batch's corrections are written as one multi-path
+ * update of server-side increments by the difference, so joins and exits landing
+ * meanwhile aren't overwritten. Progress is checkpointed after every chunk and batch,
+ * so a run that is stopped resumes where it left off. Blocking; run it from a
+ * background thread, see {@link com.example.unifyu2.workers.MemberCountReconcileWorker}.
  */
 public class ClubMemberCountFixer {
     private static final String TAG = "ClubMemberCountFixer";
-    
+    private static final String PREFS_NAME = "member_count_reconciler";
+    private static final String KEY_PHASE = "phase";
+    private static final String KEY_CURSOR = "cursor";
+    private static final String KEY_COUNTS = "counts";
+    private static final String KEY_STARTED_AT = "started_at";
+
+    private static final String PHASE_MEMBERSHIPS = "memberships";
+    private static final String PHASE_CLUBS = "clubs";
+
+    private static final int MEMBERSHIP_CHUNK_SIZE = 500;
+    private static final int CLUB_BATCH_SIZE = 50;
+    private static final long TIMEOUT_SECONDS = 30;
+    // Partial counts older than this are discarded rather than mixed with fresh ones
+    private static final long MAX_CHECKPOINT_AGE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final SharedPreferences prefs;
+    private final DatabaseReference clubsRef;
+    private final DatabaseReference membershipsRef;
+
+    public ClubMemberCountFixer(Context context) {
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.clubsRef = FirebaseDatabase.getInstance().getReference("clubs");
+        this.membershipsRef = FirebaseDatabase.getInstance().getReference("memberships");
+    }
+
     /**
-     * Synchronizes the member count for all clubs based on actual memberships
-     * @param onComplete Callback to be called when the synchronization is complete
+     * Runs or resumes a reconciliation pass.
+     * @param isStopped Checked between chunks; the pass stops early when it returns true
+     * @return true if the pass completed, false if it was stopped and should resume later
      */
-    public static void synchronizeAllClubMemberCounts(Runnable onComplete) {
-        DatabaseReference clubsRef = FirebaseDatabase.getInstance().getReference("clubs");
-        DatabaseReference membershipsRef = FirebaseDatabase.getInstance().getReference("memberships");
-        
-        // First, get all clubs
-        clubsRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot clubsSnapshot) {
-                if (!clubsSnapshot.exists()) {
-                    Log.d(TAG, "No clubs found");
-                    if (onComplete != null) onComplete.run();
-                    return;
-                }
-                
-                // Get all memberships
-                membershipsRef.addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot membershipsSnapshot) {
-                        // Count memberships for each club
-                        Map<String, Integer> clubMemberCounts = new HashMap<>();
-                        
-                        for (DataSnapshot membershipSnapshot : membershipsSnapshot.getChildren()) {
-                            String clubId = membershipSnapshot.child("clubId").getValue(String.class);
-                            if (clubId != null) {
-                                int currentCount = clubMemberCounts.getOrDefault(clubId, 0);
-                                clubMemberCounts.put(clubId, currentCount + 1);
-                            }
-                        }
-                        
-                        // Update club member counts if different
-                        int fixedCount = 0;
-                        for (DataSnapshot clubSnapshot : clubsSnapshot.getChildren()) {
-                            String clubId = clubSnapshot.getKey();
-                            Integer actualCount = clubMemberCounts.getOrDefault(clubId, 0);
-                            Integer currentCount = clubSnapshot.child("memberCount").getValue(Integer.class);
-                            
-                            if (currentCount == null || !currentCount.equals(actualCount)) {
-                                clubsRef.child(clubId).child("memberCount").setValue(actualCount);
-                                fixedCount++;
-                                Log.d(TAG, "Fixed member count for club " + clubId + 
-                                      ": " + currentCount + " -> " + actualCount);
-                            }
-                        }
-                        
-                        Log.d(TAG, "Fixed " + fixedCount + " club member counts");
-                        if (onComplete != null) onComplete.run();
-                    }
-                    
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        Log.e(TAG, "Error getting memberships", error.toException());
-                        if (onComplete != null) onComplete.run();
+    public boolean reconcile(BooleanSupplier isStopped) throws Exception {
+        long startedAt = prefs.getLong(KEY_STARTED_AT, 0);
+        if (startedAt == 0 || System.currentTimeMillis() - startedAt > MAX_CHECKPOINT_AGE_MILLIS) {
+            Log.d(TAG, "Starting a new reconciliation pass");
+            clearCheckpoint();
+            prefs.edit().putLong(KEY_STARTED_AT, System.currentTimeMillis()).apply();
+        }
+
+        Map<String, Integer> counts = readCounts();
+        String phase = prefs.getString(KEY_PHASE, PHASE_MEMBERSHIPS);
+        String cursor = prefs.getString(KEY_CURSOR, null);
+
+        if (PHASE_MEMBERSHIPS.equals(phase)) {
+            while (true) {
+                if (isStopped.getAsBoolean()) return false;
+
+                DataSnapshot chunk = await(page(membershipsRef, cursor, MEMBERSHIP_CHUNK_SIZE));
+                for (DataSnapshot membership : chunk.getChildren()) {
+                    String clubId = membership.child("clubId").getValue(String.class);
+                    if (clubId != null) {
+                        counts.put(clubId, counts.getOrDefault(clubId, 0) + 1);
                     }
-                });
+                    cursor = membership.getKey();
+                }
+
+                boolean done = chunk.getChildrenCount() < MEMBERSHIP_CHUNK_SIZE;
+                if (done) {
+                    cursor = null;
+                    phase = PHASE_CLUBS;
+                }
+                saveCheckpoint(phase, cursor, counts);
+                if (done) break;
+            }
+            Log.d(TAG, "Counted memberships for " + counts.size() + " clubs");
+        }
+
+        int fixedCount = 0;
+        while (true) {
+            if (isStopped.getAsBoolean()) return false;
+
+            DataSnapshot batch = await(page(clubsRef, cursor, CLUB_BATCH_SIZE));
+            List<String> suspects = new ArrayList<>();
+            for (DataSnapshot club : batch.getChildren()) {
+                cursor = club.getKey();
+                if (!hasCount(club, counts.getOrDefault(cursor, 0))) suspects.add(cursor);
+            }
+
+            Map<String, Object> corrections = recount(suspects);
+            if (!corrections.isEmpty()) {
+                Tasks.await(clubsRef.updateChildren(corrections), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                fixedCount += corrections.size();
             }
-            
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Error getting clubs", error.toException());
-                if (onComplete != null) onComplete.run();
+
+            if (batch.getChildrenCount() < CLUB_BATCH_SIZE) break;
+            saveCheckpoint(PHASE_CLUBS, cursor, counts);
+        }
+
+        Log.d(TAG, "Fixed " + fixedCount + " club member counts");
+        clearCheckpoint();
+        return true;
+    }
+
+    /**
+     * Recounts the clubs' memberships, reading each club's count together with them to
+     * keep the window in which a join or exit lands between the two as short as possible.
+     * @return The increments that correct the clubs whose count is still wrong, keyed by path under /clubs
+     */
+    private Map<String, Object> recount(List<String> clubIds) throws Exception {
+        List<Task<DataSnapshot>> clubReads = new ArrayList<>();
+        List<Task<DataSnapshot>> membershipReads = new ArrayList<>();
+        for (String clubId : clubIds) {
+            clubReads.add(clubsRef.child(clubId).get());
+            membershipReads.add(membershipsRef.orderByChild("clubId").equalTo(clubId).get());
+        }
+        List<Task<DataSnapshot>> reads = new ArrayList<>(clubReads);
+        reads.addAll(membershipReads);
+        Tasks.await(Tasks.whenAll(reads), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        Map<String, Object> corrections = new HashMap<>();
+        for (int i = 0; i < clubIds.size(); i++) {
+            DataSnapshot club = clubReads.get(i).getResult();
+            if (!club.exists()) continue;
+            int actualCount = (int) membershipReads.get(i).getResult().getChildrenCount();
+            if (hasCount(club, actualCount)) continue;
+
+            int observed = totalCount(club);
+            corrections.put(club.getKey() + "/memberCount", ServerValue.increment(actualCount - observed));
+            Log.d(TAG, "Fixing member count for club " + club.getKey() + ": " + observed + " -> " + actualCount);
+        }
+        return corrections;
+    }
+
+    /** @return true if the club stores a count and, with its shards, it adds up to {@code actualCount} */
+    private static boolean hasCount(DataSnapshot club, int actualCount) {
+        return club.hasChild("memberCount") && totalCount(club) == actualCount;
+    }
+
+    private static int totalCount(DataSnapshot club) {
+        Integer memberCount = club.child("memberCount").getValue(Integer.class);
+        int total = memberCount != null ? memberCount : 0;
+        for (DataSnapshot shard : club.child("memberCountShards").getChildren()) {
+            Integer value = shard.getValue(Integer.class);
+            if (value != null) total += value;
+        }
+        return total;
+    }
+
+    private static Query page(DatabaseReference ref, String cursor, int size) {
+        Query query = ref.orderByKey();
+        if (cursor != null) query = query.startAfter(cursor);
+        return query.limitToFirst(size);
+    }
+
+    private static DataSnapshot await(Query query) throws Exception {
+        return Tasks.await(query.get(), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private Map<String, Integer> readCounts() {
+        Map<String, Integer> counts = new HashMap<>();
+        String json = prefs.getString(KEY_COUNTS, null);
+        if (json == null) return counts;
+        try {
+            JSONObject object = new JSONObject(json);
+            Iterator<String> keys = object.keys();
+            while (keys.hasNext()) {
+                String clubId = keys.next();
+                counts.put(clubId, object.getInt(clubId));
             }
-        });
+        } catch (JSONException e) {
+            Log.e(TAG, "Discarding unreadable checkpoint", e);
+            clearCheckpoint();
+            prefs.edit().putLong(KEY_STARTED_AT, System.currentTimeMillis()).apply();
+            counts.clear();
+        }
+        return counts;
+    }
+
+    private void saveCheckpoint(String phase, String cursor, Map<String, Integer> counts) {
+        prefs.edit()
+            .putString(KEY_PHASE, phase)
+            .putString(KEY_CURSOR, cursor)
+            .putString(KEY_COUNTS, new JSONObject(counts).toString())
+            .apply();
+    }
+
+    private void clearCheckpoint() {
+        prefs.edit()
+            .remove(KEY_PHASE)
+            .remove(KEY_CURSOR)
+            .remove(KEY_COUNTS)
+            .remove(KEY_STARTED_AT)
+            .apply();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,184 @@
+package com.example.unifyu2.utils;
+
+import android.util.Log;
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.unifyu2.mapping.ClubMapper;
+import com.example.unifyu2.models.Club;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide cache of club metadata read from clubs/{clubId}.
+ * Entries expire after a TTL, the least recently used ones are evicted past
+ * {@link #MAX_ENTRIES}, and concurrent lookups for the same club share one read.
+ */
+public class ClubMetadataCache {
+    private static final String TAG = "ClubMetadataCache";
+    private static final int MAX_ENTRIES = 256;
+    private static final long TTL_MILLIS = 5 * 60 * 1000;
+
+    private static ClubMetadataCache instance;
+
+    public interface Callback {
+        /** @param club The club, or null if it doesn't exist or couldn't be read */
+        void onClubLoaded(@Nullable Club club);
+    }
+
+    private static class Entry {
+        final Club club;
+        final long loadedAt;
+
+        Entry(Club club, long loadedAt) {
+            this.club = club;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final DatabaseReference clubsRef;
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private final Map<String, List<Callback>> inFlight = new HashMap<>();
+
+    private ClubMetadataCache() {
+        this.clubsRef = FirebaseDatabase.getInstance().getReference("clubs");
+    }
+
+    public static synchronized ClubMetadataCache getInstance() {
+        if (instance == null) {
+            instance = new ClubMetadataCache();
+        }
+        return instance;
+    }
+
+    /** @return true if the club is cached and fresh, with {@code club} possibly null for a missing club */
+    public synchronized boolean isCached(String clubId) {
+        Entry entry = entries.get(clubId);
+        return entry != null && System.currentTimeMillis() - entry.loadedAt < TTL_MILLIS;
+    }
+
+    /** @return The cached club if present and fresh, without triggering a read */
+    @Nullable
+    public synchronized Club peek(String clubId) {
+        return isCached(clubId) ? entries.get(clubId).club : null;
+    }
+
+    public void get(String clubId, Callback callback) {
+        boolean startRead;
+        Club cached = null;
+        boolean hit;
+        synchronized (this) {
+            hit = isCached(clubId);
+            if (hit) {
+                cached = entries.get(clubId).club;
+                startRead = false;
+            } else {
+                List<Callback> waiting = inFlight.get(clubId);
+                startRead = waiting == null;
+                if (startRead) {
+                    waiting = new ArrayList<>();
+                    inFlight.put(clubId, waiting);
+                }
+                waiting.add(callback);
+            }
+        }
+
+        if (hit) {
+            callback.onClubLoaded(cached);
+        } else if (startRead) {
+            read(clubId);
+        }
+    }
+
+    /** Replaces the cached copy, e.g. after the club was edited locally. */
+    public synchronized void put(Club club) {
+        if (club != null && club.getId() != null) {
+            entries.put(club.getId(), new Entry(club, System.currentTimeMillis()));
+        }
+    }
+
+    public synchronized void invalidate(String clubId) {
+        entries.remove(clubId);
+    }
+
+    /**
+     * Shows the club's name in a recycled list row. The view is tagged with the
+     * club ID so a late result doesn't overwrite a row rebound to another club.
+     */
+    public void bindClubName(TextView clubNameText, String clubId) {
+        clubNameText.setTag(clubId);
+        clubNameText.setVisibility(View.VISIBLE);
+        Club cached = peek(clubId);
+        if (cached != null) {
+            clubNameText.setText(displayName(cached));
+            return;
+        }
+
+        clubNameText.setText("Loading club...");
+        get(clubId, club -> {
+            if (clubId.equals(clubNameText.getTag())) {
+                clubNameText.setText(displayName(club));
+            }
+        });
+    }
+
+    private static String displayName(@Nullable Club club) {
+        return club != null && club.getName() != null && !club.getName().isEmpty()
+            ? club.getName() : "Unknown Club";
+    }
+
+    private void read(String clubId) {
+        clubsRef.child(clubId).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Club club = null;
+                try {
+                    club = ClubMapper.INSTANCE.fromSnapshot(snapshot);
+                } catch (Exception e) {
+                    Log.e(TAG, "Error parsing club: " + clubId, e);
+                }
+                List<Callback> waiting;
+                synchronized (ClubMetadataCache.this) {
+                    // Missing clubs are cached too, so they aren't re-read on every bind
+                    entries.put(clubId, new Entry(club, System.currentTimeMillis()));
+                    waiting = inFlight.remove(clubId);
+                }
+                dispatch(waiting, club);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Error loading club: " + clubId, error.toException());
+                List<Callback> waiting;
+                synchronized (ClubMetadataCache.this) {
+                    waiting = inFlight.remove(clubId);
+                }
+                dispatch(waiting, null);
+            }
+        });
+    }
+
+    private static void dispatch(List<Callback> callbacks, Club club) {
+        if (callbacks == null) return;
+        for (Callback callback : callbacks) {
+            callback.onClubLoaded(club);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.unifyu2.utils;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Formats event dates for display. The formatter is immutable and shared instead of
+ * being built on every bind, and recently formatted minutes are memoized, since a
+ * scrolling list formats the same few dates over and over. Thread-safe.
+ *
+ * The locale and time zone are read once; {@link #reset()} must be called when they
+ * change, see {@link com.example.unifyu2.UnifyUApplication}.
+ */
+public final class DateFormatter {
+    public static final String DATE_TIME_PATTERN = "dd MMM yyyy, HH:mm";
+    private static final long MILLIS_PER_MINUTE = 60_000;
+    private static final int MAX_MEMOIZED = 256;
+
+    private static volatile DateFormatter instance;
+
+    private final DateTimeFormatter formatter;
+    // Epoch minute to formatted string, least recently used first
+    private final Map<Long, String> memo = new LinkedHashMap<Long, String>(32, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > MAX_MEMOIZED;
+        }
+    };
+
+    private DateFormatter(Locale locale, ZoneId zone) {
+        this.formatter = DateTimeFormatter.ofPattern(DATE_TIME_PATTERN, locale).withZone(zone);
+    }
+
+    /** @return The time formatted with {@link #DATE_TIME_PATTERN}, to the minute */
+    public static String formatDateTime(long epochMillis) {
+        return current().format(epochMillis);
+    }
+
+    /** Picks up the current default locale and time zone, dropping memoized strings. */
+    public static void reset() {
+        instance = null;
+    }
+
+    private static DateFormatter current() {
+        DateFormatter current = instance;
+        if (current == null) {
+            current = new DateFormatter(Locale.getDefault(), ZoneId.systemDefault());
+            instance = current;
+        }
+        return current;
+    }
+
+    private String format(long epochMillis) {
+        long minute = Math.floorDiv(epochMillis, MILLIS_PER_MINUTE);
+        synchronized (memo) {
+            String formatted = memo.get(minute);
+            if (formatted != null) return formatted;
+        }
+
+        String formatted = formatter.format(Instant.ofEpochMilli(minute * MILLIS_PER_MINUTE));
+        synchronized (memo) {
+            memo.put(minute, formatted);
+        }
+        return formatted;
+    }
+}
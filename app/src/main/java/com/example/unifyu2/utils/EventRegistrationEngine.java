@@ -0,0 +1,453 @@
+package com.example.unifyu2.utils;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registers users for events without overbooking under contention.
+ *
+ * A seat is claimed in the same multi-path update that writes the registration: the
+ * update sets events/{eventId}/registeredCount to one more than the count it read, and
+ * names the registered user in seatChangedFor. Database rules only accept a count that
+ * is exactly one above the stored one, together with that user's registration being
+ * created, so concurrent claims and repeated taps are rejected and retried against a
+ * fresh read. Releasing a seat works the same way with one less and the registration
+ * removed. When the event is full the user joins event_waitlist/{eventId}, ordered by
+ * joinedAt. A cancellation hands its seat straight to the head of the waitlist, so new
+ * registrants can't jump the queue; only when the waitlist is empty is the seat released.
+ * A handover keeps the count and names the promoted user in seatHandedTo, which rules
+ * check against the registrations removed and created by the same update.
+ *
+ * Waitlist entries are claimed for promotion with a transaction on the entry, so two
+ * clients never promote the same user and a user can't leave while being promoted. A
+ * claim that isn't followed by a promotion expires after a minute.
+ */
+public class EventRegistrationEngine {
+    private static final String TAG = "RegistrationEngine";
+    // Attempts at a seat update whose read was overtaken by another client's write
+    private static final int MAX_CLAIM_ATTEMPTS = 20;
+    // Retries wait a random time up to this, doubling per attempt, so contending clients spread out
+    private static final long CLAIM_BACKOFF_MILLIS = 25;
+    private static final long MAX_CLAIM_BACKOFF_MILLIS = 2000;
+    // Candidates read per waitlist query; entries being promoted by others are skipped
+    private static final int WAITLIST_BATCH_SIZE = 10;
+    private static final int MAX_PROMOTION_ATTEMPTS = 5;
+    // A promotion claim older than this was abandoned and may be taken over
+    private static final long PROMOTION_TIMEOUT_MILLIS = 60 * 1000;
+
+    /** A waitlisted user this client has claimed for promotion. */
+    private static class WaitlistClaim {
+        final String userId;
+        final Object value;
+
+        WaitlistClaim(String userId, Object value) {
+            this.userId = userId;
+            this.value = value;
+        }
+    }
+
+    public enum Outcome {
+        REGISTERED("Successfully registered"),
+        WAITLISTED("The event is full, you've been added to the waitlist"),
+        ALREADY_REGISTERED("You're already registered"),
+        CLOSED("Registration is closed"),
+        UNREGISTERED("Successfully unregistered"),
+        LEFT_WAITLIST("You've left the waitlist"),
+        NOT_REGISTERED("You aren't registered for this event");
+
+        /** A message suitable for showing to the user */
+        public final String message;
+
+        Outcome(String message) {
+            this.message = message;
+        }
+    }
+
+    private static final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor();
+    private static EventRegistrationEngine defaultInstance;
+
+    private final DatabaseReference rootRef;
+
+    public EventRegistrationEngine(FirebaseDatabase database) {
+        this.rootRef = database.getReference();
+    }
+
+    public static synchronized EventRegistrationEngine getDefault() {
+        if (defaultInstance == null) {
+            defaultInstance = new EventRegistrationEngine(FirebaseDatabase.getInstance());
+        }
+        return defaultInstance;
+    }
+
+    /**
+     * Claims a seat for the user, or adds them to the waitlist when the event is full.
+     * @param registrationValue Stored under event_registrations/{eventId}/{uid}, e.g. the user's phone number
+     */
+    public Task<Outcome> register(String eventId, String userId, @Nullable Object registrationValue) {
+        return register(eventId, userId, registrationValue != null ? registrationValue : true, 1);
+    }
+
+    private Task<Outcome> register(String eventId, String userId, Object value, int attempt) {
+        Task<DataSnapshot> eventTask = eventRef(eventId).get();
+        Task<DataSnapshot> registrationTask = registrationRef(eventId, userId).get();
+        Task<DataSnapshot> waitlistTask = waitlistRef(eventId).child(userId).get();
+
+        return Tasks.whenAll(eventTask, registrationTask, waitlistTask).continueWithTask(task -> {
+            if (!task.isSuccessful()) return Tasks.forException(task.getException());
+            if (registrationTask.getResult().exists()) return Tasks.forResult(Outcome.ALREADY_REGISTERED);
+            if (waitlistTask.getResult().exists()) return Tasks.forResult(Outcome.WAITLISTED);
+
+            DataSnapshot event = eventTask.getResult();
+            Boolean open = event.child("registrationOpen").getValue(Boolean.class);
+            if (!event.exists() || !Boolean.TRUE.equals(open)) return Tasks.forResult(Outcome.CLOSED);
+            int maxParticipants = getInt(event, "maxParticipants");
+            int count = getInt(event, "registeredCount");
+            if (maxParticipants > 0 && count >= maxParticipants) return joinWaitlist(eventId, userId, value);
+
+            Map<String, Object> updates = new HashMap<>();
+            putSeatCount(updates, eventId, userId, count + 1);
+            putRegistration(updates, eventId, userId, value, false);
+            return rootRef.updateChildren(updates).continueWithTask(write -> {
+                if (write.isSuccessful()) {
+                    return refreshCapacityFlag(eventId).continueWith(refresh -> Outcome.REGISTERED);
+                }
+                // Rejected when another seat update or this user's registration got in first
+                if (attempt >= MAX_CLAIM_ATTEMPTS) return Tasks.forException(write.getException());
+                Log.d(TAG, "Seat claim for " + eventId + " contended, attempt " + attempt);
+                return backOff(attempt).continueWithTask(wait -> register(eventId, userId, value, attempt + 1));
+            });
+        });
+    }
+
+    /** Cancels the user's registration, handing their seat to the waitlist, or removes them from the waitlist. */
+    public Task<Outcome> cancel(String eventId, String userId) {
+        return cancel(eventId, userId, 1);
+    }
+
+    private Task<Outcome> cancel(String eventId, String userId, int attempt) {
+        Task<DataSnapshot> registrationTask = registrationRef(eventId, userId).get();
+        Task<DataSnapshot> waitlistTask = waitlistRef(eventId).child(userId).get();
+
+        return Tasks.whenAll(registrationTask, waitlistTask).continueWithTask(task -> {
+            if (!task.isSuccessful()) return Tasks.forException(task.getException());
+            if (waitlistTask.getResult().exists() && !registrationTask.getResult().exists()) {
+                return leaveWaitlist(eventId, userId);
+            }
+            if (!registrationTask.getResult().exists()) return Tasks.forResult(Outcome.NOT_REGISTERED);
+
+            return giveUpSeat(eventId, userId).continueWithTask(release -> {
+                if (release.isSuccessful()) return Tasks.forResult(Outcome.UNREGISTERED);
+                if (attempt >= MAX_CLAIM_ATTEMPTS) return Tasks.forException(release.getException());
+                Log.d(TAG, "Cancellation for " + eventId + " contended, attempt " + attempt);
+                return backOff(attempt).continueWithTask(wait -> cancel(eventId, userId, attempt + 1));
+            });
+        });
+    }
+
+    /** Promotes waitlisted users into any free seats, e.g. after the event's capacity was raised. */
+    public Task<Void> fillFromWaitlist(String eventId) {
+        return promoteWaitlisted(eventId, MAX_PROMOTION_ATTEMPTS);
+    }
+
+    /** @return The user's 1-based position on the event's waitlist, or 0 if they aren't on it */
+    public Task<Integer> getWaitlistPosition(String eventId, String userId) {
+        return waitlistRef(eventId).child(userId).get().continueWithTask(task -> {
+            if (!task.isSuccessful()) return Tasks.forException(task.getException());
+            Long joinedAt = task.getResult().child("joinedAt").getValue(Long.class);
+            if (joinedAt == null) return Tasks.forResult(0);
+            return waitlistRef(eventId).orderByChild("joinedAt").endAt(joinedAt).get()
+                .continueWith(ahead -> (int) ahead.getResult().getChildrenCount());
+        });
+    }
+
+    /**
+     * Recomputes the event's full flag from its current count and capacity. Rules
+     * only accept a flag that matches the count at the time of the write, so a
+     * refresh based on a stale read is rejected and the latest one wins.
+     * @return A task that completes once the flag is written or found current; failures are only logged
+     */
+    public Task<Void> refreshCapacityFlag(String eventId) {
+        return eventRef(eventId).get().continueWithTask(read -> {
+            if (!read.isSuccessful()) {
+                Log.e(TAG, "Error reading event " + eventId, read.getException());
+                return Tasks.forResult(null);
+            }
+            DataSnapshot snapshot = read.getResult();
+            Integer count = snapshot.child("registeredCount").getValue(Integer.class);
+            Boolean current = snapshot.child("full").getValue(Boolean.class);
+            if (!snapshot.exists() || count == null) return Tasks.forResult(null);
+
+            int max = getInt(snapshot, "maxParticipants");
+            boolean full = max > 0 && count >= max;
+            if (current != null && current == full) return Tasks.forResult(null);
+            return eventRef(eventId).child("full").setValue(full).continueWith(write -> {
+                if (!write.isSuccessful()) {
+                    Log.d(TAG, "Capacity flag for " + eventId + " changed concurrently", write.getException());
+                }
+                return null;
+            });
+        });
+    }
+
+    private Task<Outcome> joinWaitlist(String eventId, String userId, Object value) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("joinedAt", ServerValue.TIMESTAMP);
+        entry.put("value", value);
+        return waitlistRef(eventId).child(userId).setValue(entry)
+            // A seat may have been released while the waitlist looked empty; fill it from the head
+            .continueWithTask(join -> {
+                if (!join.isSuccessful()) return Tasks.forException(join.getException());
+                return promoteWaitlisted(eventId, MAX_PROMOTION_ATTEMPTS);
+            })
+            .continueWithTask(promotion -> registrationRef(eventId, userId).get())
+            .continueWith(registration -> registration.isSuccessful() && registration.getResult().exists()
+                ? Outcome.REGISTERED : Outcome.WAITLISTED);
+    }
+
+    private Task<Outcome> leaveWaitlist(String eventId, String userId) {
+        TaskCompletionSource<Outcome> source = new TaskCompletionSource<>();
+        waitlistRef(eventId).child(userId).runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData currentData) {
+                if (isBeingPromoted(currentData)) return Transaction.abort();
+                currentData.setValue(null);
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(@Nullable DatabaseError error, boolean committed, @Nullable DataSnapshot snapshot) {
+                if (error != null) {
+                    source.setException(error.toException());
+                } else {
+                    // Not committed means a seat is being handed to the user right now
+                    source.setResult(committed ? Outcome.LEFT_WAITLIST : Outcome.REGISTERED);
+                }
+            }
+        }, false);
+        return source.getTask();
+    }
+
+    /**
+     * Removes the user's registration, in the same update either registering the first
+     * waitlisted user in their seat or, if nobody is waiting, releasing the seat.
+     */
+    private Task<Void> giveUpSeat(String eventId, String userId) {
+        return claimHead(eventId).continueWithTask(head -> {
+            if (!head.isSuccessful()) return Tasks.forException(head.getException());
+            WaitlistClaim claim = head.getResult();
+
+            Map<String, Object> updates = new HashMap<>();
+            updates.put("event_registrations/" + eventId + "/" + userId, null);
+            updates.put("user_registrations/" + userId + "/" + eventId, null);
+            if (claim != null) {
+                updates.put("events/" + eventId + "/seatChangedFor", userId);
+                updates.put("events/" + eventId + "/seatHandedTo", claim.userId);
+                putRegistration(updates, eventId, claim.userId, claim.value, true);
+                return rootRef.updateChildren(updates).continueWithTask(write -> {
+                    if (!write.isSuccessful()) return releaseClaim(eventId, claim, write.getException());
+                    Log.d(TAG, "Handed a seat of event " + eventId + " to " + claim.userId);
+                    return Tasks.forResult(null);
+                });
+            }
+
+            // Nobody to hand over to; anyone who joins the waitlist from now on promotes themselves
+            return eventRef(eventId).child("registeredCount").get().continueWithTask(count -> {
+                if (!count.isSuccessful()) return Tasks.forException(count.getException());
+                Integer current = count.getResult().getValue(Integer.class);
+                putSeatCount(updates, eventId, userId, current != null && current > 0 ? current - 1 : 0);
+                return rootRef.updateChildren(updates);
+            }).continueWithTask(write -> {
+                if (!write.isSuccessful()) return Tasks.forException(write.getException());
+                return refreshCapacityFlag(eventId);
+            }).continueWithTask(refresh -> {
+                // Only a failed release gets here unsuccessfully, refreshes don't fail
+                if (!refresh.isSuccessful()) return Tasks.forException(refresh.getException());
+                // The seat is released either way; whoever joins the waitlist next fills it otherwise
+                return promoteWaitlisted(eventId, MAX_PROMOTION_ATTEMPTS).continueWith(promotion -> {
+                    if (!promotion.isSuccessful()) {
+                        Log.e(TAG, "Failed to fill released seat of event " + eventId, promotion.getException());
+                    }
+                    return null;
+                });
+            });
+        });
+    }
+
+    /** Fills free seats from the head of the waitlist until the event is full or nobody is waiting. */
+    private Task<Void> promoteWaitlisted(String eventId, int attemptsLeft) {
+        if (attemptsLeft == 0) return Tasks.forResult(null);
+        return eventRef(eventId).get().continueWithTask(read -> {
+            if (!read.isSuccessful()) return Tasks.forException(read.getException());
+            DataSnapshot event = read.getResult();
+            int maxParticipants = getInt(event, "maxParticipants");
+            int count = getInt(event, "registeredCount");
+            if (!event.exists() || (maxParticipants > 0 && count >= maxParticipants)) return Tasks.forResult(null);
+
+            return claimHead(eventId).continueWithTask(head -> {
+                if (!head.isSuccessful()) return Tasks.forException(head.getException());
+                WaitlistClaim claim = head.getResult();
+                if (claim == null) return Tasks.forResult(null);
+
+                Map<String, Object> updates = new HashMap<>();
+                putSeatCount(updates, eventId, claim.userId, count + 1);
+                putRegistration(updates, eventId, claim.userId, claim.value, true);
+                return rootRef.updateChildren(updates).continueWithTask(write -> {
+                    if (write.isSuccessful()) {
+                        Log.d(TAG, "Promoted " + claim.userId + " from the waitlist of event " + eventId);
+                        return refreshCapacityFlag(eventId)
+                            .continueWithTask(refresh -> promoteWaitlisted(eventId, attemptsLeft));
+                    }
+                    // The count moved since it was read; give the entry back and look again
+                    return releaseClaim(eventId, claim, write.getException())
+                        .continueWithTask(release -> promoteWaitlisted(eventId, attemptsLeft - 1));
+                });
+            });
+        });
+    }
+
+    /**
+     * Claims the first waitlisted user that isn't already being promoted.
+     * @return The claim, or null if nobody is waiting
+     */
+    private Task<WaitlistClaim> claimHead(String eventId) {
+        return waitlistRef(eventId).orderByChild("joinedAt").limitToFirst(WAITLIST_BATCH_SIZE).get()
+            .continueWithTask(task -> {
+                if (!task.isSuccessful()) return Tasks.forException(task.getException());
+                List<String> candidates = new ArrayList<>();
+                for (DataSnapshot entry : task.getResult().getChildren()) {
+                    if (!isBeingPromoted(entry.child("promotingAt").getValue(Long.class))) {
+                        candidates.add(entry.getKey());
+                    }
+                }
+                if (candidates.isEmpty() && task.getResult().getChildrenCount() == WAITLIST_BATCH_SIZE) {
+                    return Tasks.forException(new IllegalStateException("Waitlist head is busy"));
+                }
+                return claimFirst(eventId, candidates, 0);
+            });
+    }
+
+    private Task<WaitlistClaim> claimFirst(String eventId, List<String> candidates, int index) {
+        if (index == candidates.size()) return Tasks.forResult(null);
+        String userId = candidates.get(index);
+        return claimWaitlistEntry(eventId, userId).continueWithTask(claim -> {
+            if (!claim.isSuccessful()) return Tasks.forException(claim.getException());
+            Object value = claim.getResult();
+            if (value == null) return claimFirst(eventId, candidates, index + 1);
+            return Tasks.forResult(new WaitlistClaim(userId, value));
+        });
+    }
+
+    /**
+     * Marks a waitlist entry as being promoted by this client.
+     * @return The entry's registration value if the claim succeeded, or null if the
+     *         entry is gone or another client is promoting it
+     */
+    private Task<Object> claimWaitlistEntry(String eventId, String userId) {
+        TaskCompletionSource<Object> source = new TaskCompletionSource<>();
+        Object[] claimedValue = new Object[1];
+        waitlistRef(eventId).child(userId).runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData currentData) {
+                claimedValue[0] = null;
+                // Commit nulls unchanged: the first run often sees an empty cache, not the server value
+                if (currentData.getValue() == null) return Transaction.success(currentData);
+                if (isBeingPromoted(currentData)) return Transaction.abort();
+
+                Object value = currentData.child("value").getValue();
+                claimedValue[0] = value != null ? value : true;
+                currentData.child("promotingAt").setValue(System.currentTimeMillis());
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(@Nullable DatabaseError error, boolean committed, @Nullable DataSnapshot snapshot) {
+                if (error != null) {
+                    source.setException(error.toException());
+                } else {
+                    source.setResult(committed ? claimedValue[0] : null);
+                }
+            }
+        }, false);
+        return source.getTask();
+    }
+
+    /** Lets others promote a claimed entry again after this client failed to, then fails with {@code cause}. */
+    private <T> Task<T> releaseClaim(String eventId, WaitlistClaim claim, Exception cause) {
+        return waitlistRef(eventId).child(claim.userId).child("promotingAt").removeValue()
+            .continueWithTask(release -> Tasks.forException(cause));
+    }
+
+    /** @return A task that completes after a random wait, growing with the attempt that just failed */
+    private static Task<Void> backOff(int attempt) {
+        long bound = Math.min(MAX_CLAIM_BACKOFF_MILLIS, CLAIM_BACKOFF_MILLIS << Math.min(attempt, 16));
+        TaskCompletionSource<Void> source = new TaskCompletionSource<>();
+        retryScheduler.schedule(() -> source.setResult(null),
+            ThreadLocalRandom.current().nextLong(bound + 1), TimeUnit.MILLISECONDS);
+        return source.getTask();
+    }
+
+    /** Adds the seat count write, naming the user whose registration the same update creates or removes. */
+    private static void putSeatCount(Map<String, Object> updates, String eventId, String userId, int count) {
+        updates.put("events/" + eventId + "/registeredCount", count);
+        updates.put("events/" + eventId + "/seatChangedFor", userId);
+    }
+
+    /** Adds the registration and index entry, moving the user off the waitlist if they were promoted. */
+    private static void putRegistration(Map<String, Object> updates, String eventId, String userId,
+                                        Object value, boolean fromWaitlist) {
+        updates.put("event_registrations/" + eventId + "/" + userId, value);
+        updates.put("user_registrations/" + userId + "/" + eventId, true);
+        if (fromWaitlist) {
+            updates.put("event_waitlist/" + eventId + "/" + userId, null);
+        }
+    }
+
+    private static boolean isBeingPromoted(MutableData entry) {
+        return entry.getValue() != null && isBeingPromoted(entry.child("promotingAt").getValue(Long.class));
+    }
+
+    private static boolean isBeingPromoted(@Nullable Long promotingAt) {
+        return promotingAt != null && System.currentTimeMillis() - promotingAt < PROMOTION_TIMEOUT_MILLIS;
+    }
+
+    private static int getInt(DataSnapshot snapshot, String child) {
+        Integer value = snapshot.child(child).getValue(Integer.class);
+        return value != null ? value : 0;
+    }
+
+    private DatabaseReference eventRef(String eventId) {
+        return rootRef.child("events").child(eventId);
+    }
+
+    private DatabaseReference registrationRef(String eventId, String userId) {
+        return rootRef.child("event_registrations").child(eventId).child(userId);
+    }
+
+    private DatabaseReference waitlistRef(String eventId) {
+        return rootRef.child("event_waitlist").child(eventId);
+    }
+}
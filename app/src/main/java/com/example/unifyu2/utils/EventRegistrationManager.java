@@ -0,0 +1,118 @@
+package com.example.unifyu2.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.unifyu2.models.Event;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads and deletes event registrations, which live in event_registrations/{eventId}/{uid}
+ * alongside the user_registrations/{uid}/{eventId} reverse index, so a user's events can
+ * be read without scanning /events. Registering and cancelling go through
+ * {@link EventRegistrationEngine}.
+ */
+public class EventRegistrationManager {
+    private static final String TAG = "EventRegistrationMgr";
+    private static final String PREFS_NAME = "event_registrations";
+    private static final String KEY_BACKFILLED_PREFIX = "index_backfilled_";
+
+    /** Reads the event's registrations as uid to registration value, e.g. phone number. */
+    public static Task<Map<String, String>> loadRegistrations(String eventId) {
+        return FirebaseDatabase.getInstance().getReference("event_registrations").child(eventId).get()
+            .continueWith(task -> {
+                Map<String, String> registrations = new LinkedHashMap<>();
+                for (DataSnapshot registration : task.getResult().getChildren()) {
+                    registrations.put(registration.getKey(), String.valueOf(registration.getValue()));
+                }
+                return registrations;
+            });
+    }
+
+    /** Deletes the event along with its registrations, waitlist and every registrant's index entry. */
+    public static Task<Void> deleteEvent(Event event) {
+        String eventId = event.getEventId();
+        DatabaseReference root = FirebaseDatabase.getInstance().getReference();
+        Task<DataSnapshot> registrations = root.child("event_registrations").child(eventId).get();
+        // Events that haven't been migrated yet still embed their registrants
+        Task<DataSnapshot> legacyRegistrations = root.child("events").child(eventId).child("registeredUsers").get();
+
+        return Tasks.whenAllSuccess(registrations, legacyRegistrations).continueWithTask(task -> {
+            Map<String, Object> updates = new HashMap<>();
+            updates.put("events/" + eventId, null);
+            updates.put("event_registrations/" + eventId, null);
+            updates.put("event_waitlist/" + eventId, null);
+            for (Object result : task.getResult()) {
+                for (DataSnapshot registration : ((DataSnapshot) result).getChildren()) {
+                    updates.put("user_registrations/" + registration.getKey() + "/" + eventId, null);
+                }
+            }
+            return root.updateChildren(updates);
+        });
+    }
+
+    /**
+     * One-shot migration that indexes the user's registrations made before the
+     * reverse index existed. Runs once per user; later calls complete immediately.
+     * Only finds registrations still embedded in events that {@link EventRegistrationMigrator}
+     * hasn't moved yet, since the migrator indexes the ones it moves.
+     */
+    public static void backfillUserIndex(Context context, String userId, Runnable onComplete) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String key = KEY_BACKFILLED_PREFIX + userId;
+        if (prefs.getBoolean(key, false)) {
+            if (onComplete != null) onComplete.run();
+            return;
+        }
+
+        DatabaseReference eventsRef = FirebaseDatabase.getInstance().getReference("events");
+        eventsRef.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Map<String, Object> updates = new HashMap<>();
+                for (DataSnapshot eventSnapshot : snapshot.getChildren()) {
+                    if (eventSnapshot.child("registeredUsers").hasChild(userId)) {
+                        updates.put(eventSnapshot.getKey(), true);
+                    }
+                }
+
+                Log.d(TAG, "Backfilling " + updates.size() + " registrations for user " + userId);
+                if (updates.isEmpty()) {
+                    prefs.edit().putBoolean(key, true).apply();
+                    if (onComplete != null) onComplete.run();
+                    return;
+                }
+
+                FirebaseDatabase.getInstance().getReference("user_registrations").child(userId)
+                    .updateChildren(updates)
+                    .addOnCompleteListener(task -> {
+                        if (task.isSuccessful()) {
+                            prefs.edit().putBoolean(key, true).apply();
+                        } else {
+                            Log.e(TAG, "Failed to backfill registration index", task.getException());
+                        }
+                        if (onComplete != null) onComplete.run();
+                    });
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Error reading events for backfill", error.toException());
+                if (onComplete != null) onComplete.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.unifyu2.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Moves registrations embedded in events/{eventId}/registeredUsers to
+ * event_registrations/{eventId} and sets each event's registeredCount and full flag.
+ *
+ * Rules only let a club's admin rewrite its events, so each admin migrates the events
+ * of the clubs they run. Clubs are processed in key order and the last finished club
+ * is checkpointed, so a stopped run resumes where it left off; migrating an event
+ * twice is harmless. Blocking; run it from a background thread, see
+ * {@link com.example.unifyu2.workers.EventRegistrationMigrationWorker}.
+ */
+public class EventRegistrationMigrator {
+    private static final String TAG = "EventRegMigrator";
+    private static final String PREFS_NAME = "event_registration_migration";
+    private static final String KEY_CURSOR_PREFIX = "cursor_";
+    private static final String KEY_DONE_PREFIX = "done_";
+    private static final long TIMEOUT_SECONDS = 30;
+
+    private final SharedPreferences prefs;
+    private final DatabaseReference rootRef;
+
+    public EventRegistrationMigrator(Context context) {
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.rootRef = FirebaseDatabase.getInstance().getReference();
+    }
+
+    /**
+     * Runs or resumes the migration of the clubs the user administers.
+     * @param isStopped Checked between events; the run stops early when it returns true
+     * @return true if the migration completed, false if it was stopped and should resume later
+     */
+    public boolean migrate(String userId, BooleanSupplier isStopped) throws Exception {
+        if (prefs.getBoolean(KEY_DONE_PREFIX + userId, false)) return true;
+
+        DataSnapshot adminClubs = await(rootRef.child("clubs").orderByChild("adminId").equalTo(userId));
+        List<String> clubIds = new ArrayList<>();
+        for (DataSnapshot club : adminClubs.getChildren()) {
+            clubIds.add(club.getKey());
+        }
+        Collections.sort(clubIds);
+
+        String cursor = prefs.getString(KEY_CURSOR_PREFIX + userId, null);
+        int migratedCount = 0;
+        for (String clubId : clubIds) {
+            if (cursor != null && clubId.compareTo(cursor) <= 0) continue;
+
+            DataSnapshot events = await(rootRef.child("events").orderByChild("clubId").equalTo(clubId));
+            for (DataSnapshot event : events.getChildren()) {
+                if (isStopped.getAsBoolean()) return false;
+                if (migrateEvent(event)) migratedCount++;
+            }
+            prefs.edit().putString(KEY_CURSOR_PREFIX + userId, clubId).apply();
+        }
+
+        Log.d(TAG, "Migrated " + migratedCount + " events in " + clubIds.size() + " clubs");
+        prefs.edit()
+            .remove(KEY_CURSOR_PREFIX + userId)
+            .putBoolean(KEY_DONE_PREFIX + userId, true)
+            .apply();
+        return true;
+    }
+
+    /** @return true if the event still had embedded registrations or no count, and was migrated */
+    private boolean migrateEvent(DataSnapshot event) throws Exception {
+        DataSnapshot legacyRegistrations = event.child("registeredUsers");
+        if (!legacyRegistrations.hasChildren() && event.hasChild("registeredCount")) return false;
+
+        String eventId = event.getKey();
+        // Users may have registered through the new path before the event was migrated
+        DataSnapshot registrations = await(rootRef.child("event_registrations").child(eventId));
+        Set<String> registrants = new HashSet<>();
+        for (DataSnapshot registration : registrations.getChildren()) {
+            registrants.add(registration.getKey());
+        }
+
+        Map<String, Object> updates = new HashMap<>();
+        for (DataSnapshot registration : legacyRegistrations.getChildren()) {
+            String userId = registration.getKey();
+            if (registrants.add(userId)) {
+                Object value = registration.getValue();
+                updates.put("event_registrations/" + eventId + "/" + userId,
+                    value instanceof String || Boolean.TRUE.equals(value) ? value : String.valueOf(value));
+            }
+            updates.put("user_registrations/" + userId + "/" + eventId, true);
+        }
+
+        Integer max = event.child("maxParticipants").getValue(Integer.class);
+        int count = registrants.size();
+        updates.put("events/" + eventId + "/registeredUsers", null);
+        updates.put("events/" + eventId + "/registeredCount", count);
+        updates.put("events/" + eventId + "/full", max != null && max > 0 && count >= max);
+
+        Tasks.await(rootRef.updateChildren(updates), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Log.d(TAG, "Migrated event " + eventId + " with " + count + " registrations");
+        return true;
+    }
+
+    private static DataSnapshot await(Query query) throws Exception {
+        return Tasks.await(query.get(), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+}
@@ -1,72 +1,88 @@
 package com.example.unifyu2.utils;
 
-import android.content.Context;
 import android.os.Environment;
-import android.widget.Toast;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
 
+import com.example.unifyu2.export.ExportFormat;
+import com.example.unifyu2.export.SheetExporter;
 import com.example.unifyu2.models.Event;
 import com.example.unifyu2.models.User;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Exports event participants to CSV or .xlsx on a background thread, streaming
+ * rows to the file so memory use doesn't depend on the number of participants.
+ */
 public class ExcelExporter {
+    private static final String TAG = "ExcelExporter";
     private static final String[] HEADERS = {"Name", "Email", "Phone", "Registration Date"};
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("dd MMM yyyy, HH:mm", Locale.getDefault());
 
-    public static void exportParticipants(Context context, Event event, List<User> participants) {
-        String fileName = "participants_" + event.getEventId() + ".csv";
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /** Callbacks are delivered on the main thread. */
+    public interface ExportListener {
+        void onProgress(int rowsWritten, int totalRows);
+        void onExported(File file);
+        void onExportFailed(Exception e);
+    }
+
+    /**
+     * @param registrations Registration values by uid, see
+     *                      {@link EventRegistrationManager#loadRegistrations(String)}
+     */
+    public static void exportParticipants(Event event, List<User> participants, Map<String, String> registrations,
+                                          ExportFormat format, ExportListener listener) {
+        // Copy so later changes to the caller's collections don't race with the export
+        List<User> rows = new ArrayList<>(participants);
+        Map<String, String> phoneNumbers = new HashMap<>(registrations);
+
+        String fileName = "participants_" + event.getEventId() + "." + format.extension;
         File downloadsDir = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS);
         File outputFile = new File(downloadsDir, fileName);
 
-        try (FileWriter writer = new FileWriter(outputFile)) {
-            // Write headers
-            writer.write(String.join(",", HEADERS) + "\n");
+        executor.execute(() -> {
+            try {
+                String exportedAt = DateFormatter.formatDateTime(System.currentTimeMillis());
+                Iterator<String[]> rowIterator = new Iterator<String[]>() {
+                    private final Iterator<User> users = rows.iterator();
 
-            // Get phone numbers map
-            Map<String, String> phoneNumbers = new HashMap<>();
-            if (event.getRegisteredUsers() != null) {
-                for (Map.Entry<String, Object> entry : event.getRegisteredUsers().entrySet()) {
-                    phoneNumbers.put(entry.getKey(), entry.getValue().toString());
-                }
-            }
+                    @Override
+                    public boolean hasNext() {
+                        return users.hasNext();
+                    }
 
-            // Write participant data
-            for (User participant : participants) {
-                String phone = phoneNumbers != null ? phoneNumbers.get(participant.getId()) : "";
-                if (phone == null) phone = "";
-                
-                String[] rowData = {
-                    escapeSpecialCharacters(participant.getUsername()),
-                    escapeSpecialCharacters(participant.getEmail()),
-                    escapeSpecialCharacters(phone),
-                    DATE_FORMAT.format(new Date())
+                    @Override
+                    public String[] next() {
+                        User participant = users.next();
+                        String phone = phoneNumbers.get(participant.getId());
+                        return new String[] {
+                            participant.getUsername(),
+                            participant.getEmail(),
+                            phone != null ? phone : "",
+                            exportedAt
+                        };
+                    }
                 };
-                writer.write(String.join(",", rowData) + "\n");
-            }
 
-            Toast.makeText(context, 
-                "Participant list exported to Downloads/" + fileName, 
-                Toast.LENGTH_LONG).show();
-        } catch (IOException e) {
-            Toast.makeText(context, 
-                "Failed to export participant list: " + e.getMessage(), 
-                Toast.LENGTH_SHORT).show();
-        }
-    }
-
-    private static String escapeSpecialCharacters(String data) {
-        String escapedData = data.replaceAll("\"", "\"\"");
-        if (escapedData.contains(",") || escapedData.contains("\"") || escapedData.contains("\n")) {
-            escapedData = "\"" + escapedData + "\"";
-        }
-        return escapedData;
+                SheetExporter.writeToFile(outputFile, format, "Participants", HEADERS, rowIterator, rows.size(),
+                    (written, total) -> mainHandler.post(() -> listener.onProgress(written, total)));
+                mainHandler.post(() -> listener.onExported(outputFile));
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to export participants", e);
+                mainHandler.post(() -> listener.onExportFailed(e));
+            }
+        });
     }
-} 
\ No newline at end of file
+}
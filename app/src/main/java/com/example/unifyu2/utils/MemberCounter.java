@@ -0,0 +1,98 @@
+package com.example.unifyu2.utils;
+
+import com.example.unifyu2.models.Club;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ServerValue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Adjusts clubs/{clubId}/memberCount with server-side increments, so concurrent
+ * joins and exits can't overwrite each other the way get-then-set did.
+ *
+ * Clubs with a memberCountShards node are counted in sharded mode: each write goes
+ * to a random shard, and the count is memberCount plus the sum of the shards
+ * ({@link Club#getTotalMemberCount()}). Writes that only know the club ID still go
+ * to memberCount, which stays correct since it's summed with the shards.
+ */
+public class MemberCounter {
+    public static final int DEFAULT_SHARD_COUNT = 10;
+
+    private static final String SHARD_PREFIX = "shard_";
+
+    private final DatabaseReference clubsRef;
+
+    public MemberCounter(FirebaseDatabase database) {
+        this.clubsRef = database.getReference("clubs");
+    }
+
+    public static MemberCounter getDefault() {
+        return new MemberCounter(FirebaseDatabase.getInstance());
+    }
+
+    public static Task<Void> increment(Club club) {
+        return getDefault().adjust(club, 1);
+    }
+
+    public static Task<Void> decrement(Club club) {
+        return getDefault().adjust(club, -1);
+    }
+
+    public static Task<Void> increment(String clubId) {
+        return getDefault().adjust(clubId, 1);
+    }
+
+    public static Task<Void> decrement(String clubId) {
+        return getDefault().adjust(clubId, -1);
+    }
+
+    public Task<Void> adjust(Club club, int delta) {
+        Map<String, Long> shards = club.getMemberCountShards();
+        if (shards == null || shards.isEmpty()) {
+            return adjust(club.getId(), delta);
+        }
+        return adjustShard(club.getId(), ThreadLocalRandom.current().nextInt(shards.size()), delta);
+    }
+
+    public Task<Void> adjust(String clubId, int delta) {
+        return clubsRef.child(clubId).child("memberCount").setValue(ServerValue.increment(delta));
+    }
+
+    public Task<Void> adjustShard(String clubId, int shard, int delta) {
+        return clubsRef.child(clubId).child("memberCountShards").child(SHARD_PREFIX + shard)
+            .setValue(ServerValue.increment(delta));
+    }
+
+    /**
+     * Switches a club to sharded counting. Existing shards keep their values, and
+     * memberCount is left as the base the shards are added to.
+     */
+    public Task<Void> enableSharding(String clubId, int shardCount) {
+        Map<String, Object> updates = new HashMap<>();
+        for (int i = 0; i < shardCount; i++) {
+            updates.put(SHARD_PREFIX + i, ServerValue.increment(0));
+        }
+        return clubsRef.child(clubId).child("memberCountShards").updateChildren(updates);
+    }
+
+    /**
+     * Overwrites the count with a recounted value, folding any shards back into
+     * memberCount. Sharded mode stays on when it was enabled.
+     */
+    public Task<Void> reset(String clubId, int count, int shardCount) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("memberCount", count);
+        if (shardCount > 0) {
+            for (int i = 0; i < shardCount; i++) {
+                updates.put("memberCountShards/" + SHARD_PREFIX + i, 0);
+            }
+        } else {
+            updates.put("memberCountShards", null);
+        }
+        return clubsRef.child(clubId).updateChildren(updates);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.unifyu2.utils;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Keeps the set of club IDs the user belongs to, read with a single
+ * memberships query and updated incrementally as memberships are added or removed.
+ */
+public class MembershipTracker {
+    private static final String TAG = "MembershipTracker";
+
+    public interface Listener {
+        /** Called once the initial memberships are read, then after every change. */
+        void onMembershipsChanged(Set<String> clubIds);
+    }
+
+    private final Query membershipsQuery;
+    private final Set<String> clubIds = new HashSet<>();
+    private Listener listener;
+    private ChildEventListener childListener;
+    private ValueEventListener initialLoadListener;
+    private boolean loaded;
+
+    public MembershipTracker(String userId) {
+        this.membershipsQuery = FirebaseDatabase.getInstance().getReference("memberships")
+            .orderByChild("userId").equalTo(userId);
+    }
+
+    public void start(Listener listener) {
+        stop();
+        this.listener = listener;
+
+        childListener = new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+                String clubId = snapshot.child("clubId").getValue(String.class);
+                if (clubId != null && clubIds.add(clubId)) {
+                    notifyChanged();
+                }
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+                // The clubId of a membership never changes
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                String clubId = snapshot.child("clubId").getValue(String.class);
+                if (clubId != null && clubIds.remove(clubId)) {
+                    notifyChanged();
+                }
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Error listening for memberships", error.toException());
+            }
+        };
+        membershipsQuery.addChildEventListener(childListener);
+
+        // Fires after the initial onChildAdded calls, so the set is reported once rather than per child
+        initialLoadListener = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                loaded = true;
+                initialLoadListener = null;
+                notifyChanged();
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Error loading memberships", error.toException());
+                loaded = true;
+                initialLoadListener = null;
+                notifyChanged();
+            }
+        };
+        membershipsQuery.addListenerForSingleValueEvent(initialLoadListener);
+    }
+
+    public void stop() {
+        if (childListener != null) {
+            membershipsQuery.removeEventListener(childListener);
+            childListener = null;
+        }
+        if (initialLoadListener != null) {
+            membershipsQuery.removeEventListener(initialLoadListener);
+            initialLoadListener = null;
+        }
+        listener = null;
+        loaded = false;
+        clubIds.clear();
+    }
+
+    public boolean isMember(String clubId) {
+        return clubIds.contains(clubId);
+    }
+
+    public Set<String> getClubIds() {
+        return Collections.unmodifiableSet(new HashSet<>(clubIds));
+    }
+
+    private void notifyChanged() {
+        if (loaded && listener != null) {
+            listener.onMembershipsChanged(getClubIds());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.unifyu2.utils;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Keeps the set of event IDs the user is registered for, read from the
+ * user_registrations/{uid} index and updated incrementally as registrations change.
+ */
+public class RegistrationTracker {
+    private static final String TAG = "RegistrationTracker";
+
+    public interface Listener {
+        /** Called once the initial registrations are read, then after every change. */
+        void onRegistrationsChanged(Set<String> eventIds);
+    }
+
+    private final DatabaseReference registrationsRef;
+    private final Set<String> eventIds = new HashSet<>();
+    private Listener listener;
+    private ChildEventListener childListener;
+    private ValueEventListener initialLoadListener;
+    private boolean loaded;
+
+    public RegistrationTracker(String userId) {
+        this.registrationsRef = FirebaseDatabase.getInstance().getReference("user_registrations").child(userId);
+    }
+
+    public void start(Listener listener) {
+        stop();
+        this.listener = listener;
+
+        childListener = new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+                if (eventIds.add(snapshot.getKey())) {
+                    notifyChanged();
+                }
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                if (eventIds.remove(snapshot.getKey())) {
+                    notifyChanged();
+                }
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Error listening for registrations", error.toException());
+            }
+        };
+        registrationsRef.addChildEventListener(childListener);
+
+        // Fires after the initial onChildAdded calls, so the set is reported once rather than per child
+        initialLoadListener = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                loaded = true;
+                initialLoadListener = null;
+                notifyChanged();
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Error loading registrations", error.toException());
+                loaded = true;
+                initialLoadListener = null;
+                notifyChanged();
+            }
+        };
+        registrationsRef.addListenerForSingleValueEvent(initialLoadListener);
+    }
+
+    public void stop() {
+        if (childListener != null) {
+            registrationsRef.removeEventListener(childListener);
+            childListener = null;
+        }
+        if (initialLoadListener != null) {
+            registrationsRef.removeEventListener(initialLoadListener);
+            initialLoadListener = null;
+        }
+        listener = null;
+        loaded = false;
+        eventIds.clear();
+    }
+
+    public boolean isRegistered(String eventId) {
+        return eventIds.contains(eventId);
+    }
+
+    public Set<String> getEventIds() {
+        return Collections.unmodifiableSet(new HashSet<>(eventIds));
+    }
+
+    private void notifyChanged() {
+        if (loaded && listener != null) {
+            listener.onRegistrationsChanged(getEventIds());
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.unifyu2.utils;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.unifyu2.feed.ClubFeedEngine;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps only the signed-in user's data synced in the offline cache: their
+ * memberships and registrations, plus the metadata, recent posts and latest
+ * events of each club they belong to. Club scopes follow membership changes.
+ *
+ * Each synced path reports the approximate size of its data, sampled in the background
+ * at most once a minute, see {@link #getSyncedBytes()}.
+ */
+public class SyncPolicyManager {
+    private static final String TAG = "SyncPolicyManager";
+    private static final int POSTS_PER_CLUB = ClubFeedEngine.DEFAULT_PAGE_SIZE;
+    // Events are keyed by creation order, so the newest ones are the likely upcoming ones
+    private static final int EVENTS_PER_CLUB = 20;
+
+    private static SyncPolicyManager instance;
+
+    // Size estimates walk the whole synced subtree, so they're sampled off the main
+    // thread and at most once per interval for each path
+    private static final long SAMPLE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+
+    private static class SyncedPath implements ValueEventListener {
+        final String path;
+        final Query query;
+        volatile long bytes;
+        // Latest snapshot waiting for a scheduled sample, guarded by this
+        private DataSnapshot pending;
+        private long lastSampledAt = -SAMPLE_INTERVAL_MILLIS;
+
+        SyncedPath(String path, Query query) {
+            this.path = path;
+            this.query = query;
+        }
+
+        @Override
+        public void onDataChange(@NonNull DataSnapshot snapshot) {
+            long delay;
+            synchronized (this) {
+                boolean scheduled = pending != null;
+                pending = snapshot;
+                if (scheduled) return;
+                delay = Math.max(0, lastSampledAt + SAMPLE_INTERVAL_MILLIS - SystemClock.elapsedRealtime());
+            }
+            sampler.schedule(this::sample, delay, TimeUnit.MILLISECONDS);
+        }
+
+        private void sample() {
+            DataSnapshot snapshot;
+            synchronized (this) {
+                snapshot = pending;
+                pending = null;
+                lastSampledAt = SystemClock.elapsedRealtime();
+            }
+            bytes = estimateBytes(snapshot.getValue());
+            Log.d(TAG, "Synced " + path + ": " + bytes + " bytes");
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            Log.e(TAG, "Sync cancelled for " + path, error.toException());
+        }
+    }
+
+    private final FirebaseDatabase database;
+    private final Map<String, SyncedPath> syncedPaths = new LinkedHashMap<>();
+    private final Map<String, List<String>> pathsByClub = new HashMap<>();
+    private String userId;
+    private MembershipTracker membershipTracker;
+
+    private SyncPolicyManager() {
+        this.database = FirebaseDatabase.getInstance();
+    }
+
+    public static synchronized SyncPolicyManager getInstance() {
+        if (instance == null) {
+            instance = new SyncPolicyManager();
+        }
+        return instance;
+    }
+
+    /** Switches the synced scope to the given user, or stops syncing when signed out. */
+    public void setUser(@Nullable String newUserId) {
+        if (newUserId == null ? userId == null : newUserId.equals(userId)) return;
+        stop();
+        userId = newUserId;
+        if (userId == null) return;
+
+        Log.d(TAG, "Starting scoped sync for user " + userId);
+        sync("memberships?userId=" + userId,
+            database.getReference("memberships").orderByChild("userId").equalTo(userId));
+        sync("user_registrations/" + userId,
+            database.getReference("user_registrations").child(userId));
+
+        membershipTracker = new MembershipTracker(userId);
+        membershipTracker.start(this::updateClubScopes);
+    }
+
+    /** @return Approximate bytes currently synced for each path, in subscription order */
+    public Map<String, Long> getSyncedBytes() {
+        Map<String, Long> bytes = new LinkedHashMap<>();
+        for (SyncedPath syncedPath : syncedPaths.values()) {
+            bytes.put(syncedPath.path, syncedPath.bytes);
+        }
+        return bytes;
+    }
+
+    public long getTotalSyncedBytes() {
+        long total = 0;
+        for (SyncedPath syncedPath : syncedPaths.values()) {
+            total += syncedPath.bytes;
+        }
+        return total;
+    }
+
+    private void updateClubScopes(Set<String> clubIds) {
+        for (String clubId : new HashSet<>(pathsByClub.keySet())) {
+            if (!clubIds.contains(clubId)) {
+                for (String path : pathsByClub.remove(clubId)) {
+                    unsync(path);
+                }
+            }
+        }
+
+        for (String clubId : clubIds) {
+            if (pathsByClub.containsKey(clubId)) continue;
+
+            List<String> paths = new ArrayList<>();
+            paths.add(sync("clubs/" + clubId, database.getReference("clubs").child(clubId)));
+            paths.add(sync("posts?clubId=" + clubId, database.getReference("posts")
+                .orderByChild("clubId").equalTo(clubId).limitToLast(POSTS_PER_CLUB)));
+            paths.add(sync("events?clubId=" + clubId, database.getReference("events")
+                .orderByChild("clubId").equalTo(clubId).limitToLast(EVENTS_PER_CLUB)));
+            pathsByClub.put(clubId, paths);
+        }
+
+        Log.d(TAG, "Syncing " + syncedPaths.size() + " paths for " + clubIds.size()
+            + " clubs, " + getTotalSyncedBytes() + " bytes loaded so far");
+    }
+
+    private String sync(String path, Query query) {
+        SyncedPath syncedPath = new SyncedPath(path, query);
+        query.keepSynced(true);
+        query.addValueEventListener(syncedPath);
+        syncedPaths.put(path, syncedPath);
+        return path;
+    }
+
+    private void unsync(String path) {
+        SyncedPath syncedPath = syncedPaths.remove(path);
+        if (syncedPath != null) {
+            syncedPath.query.removeEventListener(syncedPath);
+            syncedPath.query.keepSynced(false);
+        }
+    }
+
+    private void stop() {
+        if (membershipTracker != null) {
+            membershipTracker.stop();
+            membershipTracker = null;
+        }
+        for (String path : new ArrayList<>(syncedPaths.keySet())) {
+            unsync(path);
+        }
+        pathsByClub.clear();
+    }
+
+    /** Approximates the JSON-encoded size of a value read from the database. */
+    static long estimateBytes(Object value) {
+        if (value == null) {
+            return 4;
+        } else if (value instanceof Map) {
+            long bytes = 2;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                bytes += utf8Length(String.valueOf(entry.getKey())) + 4 + estimateBytes(entry.getValue());
+            }
+            return bytes;
+        } else if (value instanceof List) {
+            long bytes = 2;
+            for (Object item : (List<?>) value) {
+                bytes += estimateBytes(item) + 1;
+            }
+            return bytes;
+        } else if (value instanceof String) {
+            return utf8Length((String) value) + 2;
+        }
+        return String.valueOf(value).length();
+    }
+
+    private static int utf8Length(String text) {
+        return text.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
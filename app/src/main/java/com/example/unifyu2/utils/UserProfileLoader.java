@@ -0,0 +1,251 @@
+package com.example.unifyu2.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.unifyu2.models.User;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads user profiles by ID from users/{uid} without reading the whole /users tree.
+ *
+ * At most {@link #MAX_CONCURRENT_READS} reads run at once across all requests,
+ * concurrent requests for the same user share one read, and profiles are cached
+ * by uid. A request that doesn't finish within its timeout completes with the
+ * profiles loaded so far. Must be called on the main thread.
+ */
+public class UserProfileLoader {
+    private static final String TAG = "UserProfileLoader";
+    private static final int MAX_CONCURRENT_READS = 8;
+    private static final int MAX_ENTRIES = 512;
+    private static final long TTL_MILLIS = 10 * 60 * 1000;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 15 * 1000;
+
+    private static UserProfileLoader instance;
+
+    public static class Result {
+        /** The loaded profiles, in the order they were requested */
+        public final List<User> users;
+        /** IDs with no profile, or still unread when the request timed out */
+        public final List<String> missingIds;
+        public final boolean timedOut;
+        /** False for progress updates delivered in partial-result mode */
+        public final boolean isFinal;
+
+        Result(List<User> users, List<String> missingIds, boolean timedOut, boolean isFinal) {
+            this.users = users;
+            this.missingIds = missingIds;
+            this.timedOut = timedOut;
+            this.isFinal = isFinal;
+        }
+    }
+
+    public interface Callback {
+        void onResult(Result result);
+    }
+
+    private static class Entry {
+        final User user;
+        final long loadedAt;
+
+        Entry(User user, long loadedAt) {
+            this.user = user;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private class Request {
+        final List<String> userIds;
+        final boolean partialResults;
+        final Callback callback;
+        final Map<String, User> loaded = new HashMap<>();
+        int remaining;
+        boolean finished;
+        Runnable timeout;
+
+        Request(List<String> userIds, boolean partialResults, Callback callback) {
+            this.userIds = userIds;
+            this.partialResults = partialResults;
+            this.callback = callback;
+        }
+
+        void onUserLoaded(String userId, User user) {
+            if (finished) return;
+            if (user != null) loaded.put(userId, user);
+            remaining--;
+            if (remaining == 0) {
+                finish(false);
+            } else if (partialResults) {
+                callback.onResult(buildResult(false, false));
+            }
+        }
+
+        void finish(boolean timedOut) {
+            if (finished) return;
+            finished = true;
+            if (timeout != null) handler.removeCallbacks(timeout);
+            if (timedOut) {
+                Log.w(TAG, "Timed out with " + remaining + " of " + userIds.size() + " users unread");
+                for (String userId : userIds) {
+                    List<Request> requests = waiting.get(userId);
+                    if (requests != null) requests.remove(this);
+                }
+            }
+            callback.onResult(buildResult(timedOut, true));
+        }
+
+        Result buildResult(boolean timedOut, boolean isFinal) {
+            List<User> users = new ArrayList<>();
+            List<String> missingIds = new ArrayList<>();
+            for (String userId : userIds) {
+                User user = loaded.get(userId);
+                if (user != null) {
+                    users.add(user);
+                } else {
+                    missingIds.add(userId);
+                }
+            }
+            return new Result(users, missingIds, timedOut, isFinal);
+        }
+    }
+
+    private final DatabaseReference usersRef;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private final Map<String, List<Request>> waiting = new HashMap<>();
+    private final ArrayDeque<String> readQueue = new ArrayDeque<>();
+    private int activeReads;
+
+    private UserProfileLoader() {
+        this.usersRef = FirebaseDatabase.getInstance().getReference("users");
+    }
+
+    public static synchronized UserProfileLoader getInstance() {
+        if (instance == null) {
+            instance = new UserProfileLoader();
+        }
+        return instance;
+    }
+
+    public void load(Collection<String> userIds, Callback callback) {
+        load(userIds, false, DEFAULT_TIMEOUT_MILLIS, callback);
+    }
+
+    /**
+     * @param partialResults If true, the callback also receives the profiles loaded
+     *                       so far as each read completes, before the final result
+     */
+    public void load(Collection<String> userIds, boolean partialResults, long timeoutMillis, Callback callback) {
+        Request request = new Request(new ArrayList<>(new LinkedHashSet<>(userIds)), partialResults, callback);
+
+        for (String userId : request.userIds) {
+            Entry entry = entries.get(userId);
+            if (entry != null && System.currentTimeMillis() - entry.loadedAt < TTL_MILLIS) {
+                if (entry.user != null) request.loaded.put(userId, entry.user);
+                continue;
+            }
+
+            request.remaining++;
+            List<Request> requests = waiting.get(userId);
+            if (requests == null) {
+                requests = new ArrayList<>();
+                waiting.put(userId, requests);
+                readQueue.add(userId);
+            }
+            requests.add(request);
+        }
+
+        if (request.remaining == 0) {
+            request.finish(false);
+            return;
+        }
+
+        request.timeout = () -> request.finish(true);
+        handler.postDelayed(request.timeout, timeoutMillis);
+        if (partialResults && !request.loaded.isEmpty()) {
+            callback.onResult(request.buildResult(false, false));
+        }
+        startReads();
+    }
+
+    /** Replaces the cached profile, e.g. after the user edited it. */
+    public void put(User user) {
+        if (user != null && user.getId() != null) {
+            entries.put(user.getId(), new Entry(user, System.currentTimeMillis()));
+        }
+    }
+
+    public void invalidate(String userId) {
+        entries.remove(userId);
+    }
+
+    private void startReads() {
+        while (activeReads < MAX_CONCURRENT_READS && !readQueue.isEmpty()) {
+            String userId = readQueue.poll();
+            List<Request> requests = waiting.get(userId);
+            if (requests == null || requests.isEmpty()) {
+                // Every request waiting on this user timed out before the read started
+                waiting.remove(userId);
+                continue;
+            }
+            activeReads++;
+            read(userId);
+        }
+    }
+
+    private void read(String userId) {
+        usersRef.child(userId).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                User user = null;
+                try {
+                    user = snapshot.getValue(User.class);
+                    if (user != null) user.setId(userId);
+                } catch (Exception e) {
+                    Log.e(TAG, "Error parsing user: " + userId, e);
+                }
+                // Missing users are cached too, so they aren't re-read on every lookup
+                entries.put(userId, new Entry(user, System.currentTimeMillis()));
+                onReadFinished(userId, user);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Error loading user: " + userId, error.toException());
+                onReadFinished(userId, null);
+            }
+        });
+    }
+
+    private void onReadFinished(String userId, User user) {
+        activeReads--;
+        List<Request> requests = waiting.remove(userId);
+        if (requests != null) {
+            for (Request request : new ArrayList<>(requests)) {
+                request.onUserLoaded(userId, user);
+            }
+        }
+        startReads();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.unifyu2.workers;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.unifyu2.utils.EventRegistrationMigrator;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+/**
+ * Moves the signed-in admin's event registrations out of the event nodes,
+ * resuming from its checkpoint if it was stopped.
+ */
+public class EventRegistrationMigrationWorker extends Worker {
+    private static final String TAG = "EventRegMigration";
+    private static final String WORK_NAME = "event_registration_migration";
+
+    public EventRegistrationMigrationWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /** Enqueues the migration unless it's already pending; finished users return immediately. */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+            .setRequiredNetworkType(NetworkType.CONNECTED)
+            .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(EventRegistrationMigrationWorker.class)
+            .setConstraints(constraints)
+            .build();
+
+        WorkManager.getInstance(context).enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) {
+            Log.d(TAG, "No signed-in user, skipping migration");
+            return Result.success();
+        }
+
+        try {
+            boolean completed = new EventRegistrationMigrator(getApplicationContext())
+                .migrate(user.getUid(), this::isStopped);
+            Log.d(TAG, completed ? "Migration completed" : "Migration stopped, will resume");
+            return completed ? Result.success() : Result.retry();
+        } catch (Exception e) {
+            Log.e(TAG, "Migration failed", e);
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.unifyu2.workers;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.unifyu2.upload.PendingUpload;
+import com.example.unifyu2.upload.ResumableUploader;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uploads a queued image and patches it into its post or event, retrying with
+ * exponential backoff until it succeeds or runs out of attempts.
+ */
+public class ImageUploadWorker extends Worker {
+    private static final String TAG = "ImageUploadWorker";
+    private static final String WORK_NAME_PREFIX = "image_upload_";
+    // Uploads are queued in this many lanes, which run one upload at a time each
+    private static final int MAX_CONCURRENT_UPLOADS = 2;
+    private static final int MAX_ATTEMPTS = 8;
+    private static final long BACKOFF_SECONDS = 30;
+
+    public ImageUploadWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    public static void enqueue(Context context, PendingUpload upload) {
+        Constraints constraints = new Constraints.Builder()
+            .setRequiredNetworkType(NetworkType.CONNECTED)
+            .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(ImageUploadWorker.class)
+            .setConstraints(constraints)
+            .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, BACKOFF_SECONDS, TimeUnit.SECONDS)
+            .setInputData(upload.toData())
+            .build();
+
+        int lane = Math.floorMod(upload.id.hashCode(), MAX_CONCURRENT_UPLOADS);
+        WorkManager.getInstance(context).enqueueUniqueWork(
+            WORK_NAME_PREFIX + lane, ExistingWorkPolicy.APPEND_OR_REPLACE, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        PendingUpload upload = PendingUpload.fromData(getApplicationContext(), getInputData());
+        ResumableUploader uploader = new ResumableUploader(getApplicationContext());
+        try {
+            boolean completed = uploader.upload(upload, this::isStopped);
+            Log.d(TAG, completed ? "Upload completed" : "Upload stopped, will resume");
+            return completed ? Result.success() : Result.retry();
+        } catch (Exception e) {
+            if (getRunAttemptCount() + 1 >= MAX_ATTEMPTS) {
+                Log.e(TAG, "Upload for " + upload.ownerPath + " failed, giving up", e);
+                uploader.discard(upload);
+                // Failing would also fail the uploads queued behind this one in its lane
+                return Result.success();
+            }
+            Log.w(TAG, "Upload for " + upload.ownerPath + " failed, will retry", e);
+            return Result.retry();
+        }
+    }
+}
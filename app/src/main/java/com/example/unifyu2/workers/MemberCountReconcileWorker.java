@@ -0,0 +1,68 @@
+package com.example.unifyu2.workers;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.unifyu2.utils.ClubMemberCountFixer;
+import com.google.firebase.auth.FirebaseAuth;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically reconciles club member counts in the background, on an unmetered
+ * network while charging, instead of downloading every club and membership at startup.
+ */
+public class MemberCountReconcileWorker extends Worker {
+    private static final String TAG = "MemberCountReconcile";
+    private static final String WORK_NAME = "member_count_reconcile";
+    private static final long REPEAT_INTERVAL_DAYS = 7;
+
+    public MemberCountReconcileWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /** Schedules the reconciler if it isn't already; safe to call on every launch. */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+            .setRequiredNetworkType(NetworkType.UNMETERED)
+            .setRequiresCharging(true)
+            .setRequiresBatteryNotLow(true)
+            .build();
+
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                MemberCountReconcileWorker.class, REPEAT_INTERVAL_DAYS, TimeUnit.DAYS)
+            .setConstraints(constraints)
+            .build();
+
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(
+            WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        // Database rules require a signed-in user
+        if (FirebaseAuth.getInstance().getCurrentUser() == null) {
+            Log.d(TAG, "No signed-in user, skipping reconciliation");
+            return Result.success();
+        }
+
+        try {
+            boolean completed = new ClubMemberCountFixer(getApplicationContext()).reconcile(this::isStopped);
+            Log.d(TAG, completed ? "Reconciliation completed" : "Reconciliation stopped, will resume");
+            return Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Reconciliation failed", e);
+            return Result.retry();
+        }
+    }
+}
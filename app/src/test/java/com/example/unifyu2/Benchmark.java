@@ -0,0 +1,8 @@
+package com.example.unifyu2;
+
+/**
+ * JUnit category for timing runs. They're left out of the regular unit test run; run
+ * them on demand with {@code ./gradlew test -Pbenchmarks}.
+ */
+public interface Benchmark {
+}
@@ -0,0 +1,57 @@
+package com.example.unifyu2.adapters;
+
+import com.example.unifyu2.models.Event;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class EventSectionsTest {
+    private static final long NOW = 1_000_000L;
+
+    private static Event event(String id, long date) {
+        return new Event(id, "club", id, "", "", date, 0);
+    }
+
+    private static List<String> ids(List<Event> events) {
+        List<String> ids = new ArrayList<>();
+        for (Event event : events) {
+            ids.add(event.getEventId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void split_ordersUpcomingSoonestFirstAndPastMostRecentFirst() {
+        EventSections sections = EventSections.split(Arrays.asList(
+            event("b", NOW + 20), event("x", NOW - 5), event("a", NOW + 10), event("y", NOW - 50)), NOW);
+
+        assertEquals(Arrays.asList("a", "b"), ids(sections.upcoming));
+        assertEquals(Arrays.asList("x", "y"), ids(sections.past));
+    }
+
+    @Test
+    public void split_treatsEventsStartingNowAsPast() {
+        EventSections sections = EventSections.split(Arrays.asList(event("now", NOW), event("next", NOW + 1)), NOW);
+
+        assertEquals(Collections.singletonList("next"), ids(sections.upcoming));
+        assertEquals(Collections.singletonList("now"), ids(sections.past));
+    }
+
+    @Test
+    public void firstAfter_skipsEveryEventAtTheBoundary() {
+        List<Event> byDate = Arrays.asList(
+            event("a", 1), event("b", 5), event("c", 5), event("d", 5), event("e", 9));
+
+        assertEquals(0, EventSections.firstAfter(byDate, 0));
+        assertEquals(1, EventSections.firstAfter(byDate, 4));
+        assertEquals(4, EventSections.firstAfter(byDate, 5));
+        assertEquals(5, EventSections.firstAfter(byDate, 9));
+        assertEquals(0, EventSections.firstAfter(Collections.emptyList(), 5));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.unifyu2.adapters;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class StableIdsTest {
+
+    @Test
+    public void keys_keepTheirIdOnEveryCall() {
+        StableIds ids = new StableIds();
+        long first = ids.idFor("a");
+        long second = ids.idFor("b");
+
+        assertNotEquals(first, second);
+        assertEquals(first, ids.idFor("a"));
+        assertEquals(second, ids.idFor("b"));
+    }
+
+    @Test
+    public void keyed_dropsItemsWithoutAKey() {
+        assertEquals(Arrays.asList("a", "c"),
+            StableIds.keyed(Arrays.asList("a", null, "", "c"), item -> item.isEmpty() ? null : item));
+        assertEquals(Collections.emptyList(), StableIds.<String>keyed(null, item -> item));
+    }
+}
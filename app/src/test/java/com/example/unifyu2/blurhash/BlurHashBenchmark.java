@@ -0,0 +1,73 @@
+package com.example.unifyu2.blurhash;
+
+import com.example.unifyu2.Benchmark;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Times encoding at upload size and decoding at placeholder size. Decoding runs
+ * on a background thread at bind time, so it should stay well under a frame.
+ */
+@Category(Benchmark.class)
+public class BlurHashBenchmark {
+    private static final int ITERATIONS = 2_000;
+    // Uploads encode from a downscaled copy of the image, see ImageCompressor
+    private static final int ENCODE_SIZE = 64;
+    // Adapters decode placeholders at this size, see BlurHashPlaceholders
+    private static final int DECODE_SIZE = 32;
+    private static final double ENCODE_BUDGET_MICROS = 5_000;
+    private static final double DECODE_BUDGET_MICROS = 1_000;
+
+    @Test
+    public void encode() {
+        int[] pixels = noise(ENCODE_SIZE, ENCODE_SIZE);
+        // Warm up so the measured run isn't dominated by JIT compilation
+        String hash = null;
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            hash = BlurHash.encode(pixels, ENCODE_SIZE, ENCODE_SIZE, 4, 3);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            hash = BlurHash.encode(pixels, ENCODE_SIZE, ENCODE_SIZE, 4, 3);
+        }
+        assertWithinBudget("encode", start, ENCODE_BUDGET_MICROS);
+        assertEquals(28, hash.length());
+    }
+
+    @Test
+    public void decode() {
+        String hash = BlurHash.encode(noise(ENCODE_SIZE, ENCODE_SIZE), ENCODE_SIZE, ENCODE_SIZE, 4, 3);
+        int[] pixels = null;
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            pixels = BlurHash.decode(hash, DECODE_SIZE, DECODE_SIZE, 1);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            pixels = BlurHash.decode(hash, DECODE_SIZE, DECODE_SIZE, 1);
+        }
+        assertWithinBudget("decode", start, DECODE_BUDGET_MICROS);
+        assertEquals(DECODE_SIZE * DECODE_SIZE, pixels.length);
+    }
+
+    private static void assertWithinBudget(String operation, long startNanos, double budgetMicros) {
+        double micros = (System.nanoTime() - startNanos) / 1000.0 / ITERATIONS;
+        assertTrue(operation + " took " + micros + " us per call", micros < budgetMicros);
+    }
+
+    private static int[] noise(int width, int height) {
+        Random random = new Random(42);
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xff000000 | random.nextInt(0x1000000);
+        }
+        return pixels;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.unifyu2.blurhash;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BlurHashTest {
+    // The example image hash from the reference implementation
+    private static final String REFERENCE_HASH = "LEHV6nWB2yk8pyo0adR*.7kCMdnj";
+
+    @Test
+    public void encode_lengthFollowsComponents() {
+        int[] pixels = gradient(32, 24);
+        assertEquals(28, BlurHash.encode(pixels, 32, 24, 4, 3).length());
+        assertEquals(6, BlurHash.encode(pixels, 32, 24, 1, 1).length());
+        assertEquals(4 + 2 * 81, BlurHash.encode(pixels, 32, 24, 9, 9).length());
+    }
+
+    @Test
+    public void solidColor_roundTripsThroughAverageColor() {
+        int color = 0xff3a7bd5;
+        int[] pixels = new int[16 * 16];
+        Arrays.fill(pixels, color);
+
+        int[] decoded = BlurHash.decode(BlurHash.encode(pixels, 16, 16, 1, 1), 8, 8, 1);
+        for (int pixel : decoded) {
+            assertEquals(0xff, pixel >>> 24);
+            assertClose((color >> 16) & 0xff, (pixel >> 16) & 0xff);
+            assertClose((color >> 8) & 0xff, (pixel >> 8) & 0xff);
+            assertClose(color & 0xff, pixel & 0xff);
+        }
+    }
+
+    @Test
+    public void gradient_keepsItsDirection() {
+        int[] decoded = BlurHash.decode(BlurHash.encode(gradient(32, 24), 32, 24, 4, 3), 16, 12, 1);
+        int left = decoded[6 * 16] & 0xff;
+        int right = decoded[6 * 16 + 15] & 0xff;
+        assertTrue("Expected " + left + " to be much darker than " + right, left + 100 < right);
+    }
+
+    @Test
+    public void decode_referenceHash() {
+        int[] pixels = BlurHash.decode(REFERENCE_HASH, 32, 32, 1);
+        assertEquals(32 * 32, pixels.length);
+
+        // Re-encoding the blurred image keeps the component count and average color
+        String reencoded = BlurHash.encode(pixels, 32, 32, 4, 3);
+        assertEquals(REFERENCE_HASH.charAt(0), reencoded.charAt(0));
+        assertEquals(REFERENCE_HASH.substring(2, 5), reencoded.substring(2, 5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_rejectsWrongLength() {
+        BlurHash.decode(REFERENCE_HASH.substring(0, 20), 8, 8, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_rejectsInvalidCharacters() {
+        BlurHash.decode("LEHV6nWB2yk8pyo0adR*.7kCMd\"j", 8, 8, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void encode_rejectsTooManyComponents() {
+        BlurHash.encode(gradient(8, 8), 8, 8, 10, 3);
+    }
+
+    private static int[] gradient(int width, int height) {
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int v = x * 255 / (width - 1);
+                pixels[y * width + x] = 0xff000000 | (v << 16) | (v << 8) | v;
+            }
+        }
+        return pixels;
+    }
+
+    private static void assertClose(int expected, int actual) {
+        assertTrue("Expected " + expected + " but was " + actual, Math.abs(expected - actual) <= 2);
+    }
+}
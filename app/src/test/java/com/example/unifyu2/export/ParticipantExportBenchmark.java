@@ -0,0 +1,120 @@
+package com.example.unifyu2.export;
+
+import com.example.unifyu2.Benchmark;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Exports 100k synthetic participants in each format within a time budget. Rows are
+ * streamed, so the export shouldn't slow down as the row count grows.
+ */
+@Category(Benchmark.class)
+public class ParticipantExportBenchmark {
+    private static final int ROWS = 100_000;
+    private static final long BUDGET_MILLIS = 10_000;
+    private static final String[] HEADERS = {"Name", "Email", "Phone", "Registration Date"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void exportCsv() throws IOException {
+        File file = folder.newFile("participants.csv");
+        run(ExportFormat.CSV, file);
+
+        int lines = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            while (reader.readLine() != null) lines++;
+        }
+        assertEquals(ROWS + 1, lines);
+    }
+
+    @Test
+    public void exportXlsx() throws IOException {
+        File file = folder.newFile("participants.xlsx");
+        run(ExportFormat.XLSX, file);
+
+        int rows = 0;
+        boolean hasWorkbook = false;
+        try (ZipInputStream zip = new ZipInputStream(new FileInputStream(file))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.getName().equals("xl/workbook.xml")) hasWorkbook = true;
+                if (entry.getName().equals("xl/worksheets/sheet1.xml")) {
+                    rows = countOccurrences(zip, "<row ");
+                }
+            }
+        }
+        assertTrue(hasWorkbook);
+        assertEquals(ROWS + 1, rows);
+    }
+
+    private static void run(ExportFormat format, File file) throws IOException {
+        // Warm up so the measured run isn't dominated by class loading and JIT
+        File warmup = new File(file.getPath() + ".warmup");
+        SheetExporter.writeToFile(warmup, format, "Participants", HEADERS, syntheticRows(ROWS / 10), ROWS / 10, null);
+        warmup.delete();
+
+        long start = System.nanoTime();
+        SheetExporter.writeToFile(file, format, "Participants", HEADERS, syntheticRows(ROWS), ROWS, null);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(format + " export took " + elapsedMillis + " ms", elapsedMillis < BUDGET_MILLIS);
+    }
+
+    private static Iterator<String[]> syntheticRows(int count) {
+        return new Iterator<String[]>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public String[] next() {
+                int i = next++;
+                return new String[] {
+                    "Student " + i + (i % 7 == 0 ? ", \"Jr\" <&>" : ""),
+                    "student" + i + "@university.edu",
+                    "+91 98" + String.format("%08d", i),
+                    "01 Jan 2025, 10:00"
+                };
+            }
+        };
+    }
+
+    private static int countOccurrences(ZipInputStream zip, String token) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(zip, StandardCharsets.UTF_8));
+        int count = 0;
+        int matched = 0;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (c == token.charAt(matched)) {
+                if (++matched == token.length()) {
+                    count++;
+                    matched = 0;
+                }
+            } else {
+                matched = c == token.charAt(0) ? 1 : 0;
+            }
+        }
+        return count;
+    }
+}
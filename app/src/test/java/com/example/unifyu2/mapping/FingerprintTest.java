@@ -0,0 +1,78 @@
+package com.example.unifyu2.mapping;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class FingerprintTest {
+
+    @Test
+    public void equalTrees_matchWhateverTheMapOrder() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("title", "Chess night");
+        first.put("date", 1709647662500L);
+        first.put("imageVariants", SnapshotMappersTest.eventValue(1).get("imageVariants"));
+
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("imageVariants", new HashMap<>((Map<?, ?>) first.get("imageVariants")));
+        second.put("date", 1709647662500L);
+        second.put("title", "Chess night");
+
+        assertEquals(Fingerprint.of(first), Fingerprint.of(second));
+        assertEquals(Fingerprint.of(SnapshotMappersTest.postValue(4)), Fingerprint.of(SnapshotMappersTest.postValue(4)));
+    }
+
+    @Test
+    public void changedValues_changeTheFingerprint() {
+        Map<String, Object> event = SnapshotMappersTest.eventValue(2);
+        long original = Fingerprint.of(event);
+
+        Map<String, Object> counted = SnapshotMappersTest.eventValue(2);
+        counted.put("registeredCount", 3L);
+        assertNotEquals(original, Fingerprint.of(counted));
+
+        Map<String, Object> nested = SnapshotMappersTest.eventValue(2);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> variants = (Map<String, Object>) nested.get("imageVariants");
+        variants.put("card", "https://example.com/2/card.webp");
+        assertNotEquals(original, Fingerprint.of(nested));
+
+        Map<String, Object> removed = SnapshotMappersTest.eventValue(2);
+        removed.remove("full");
+        assertNotEquals(original, Fingerprint.of(removed));
+    }
+
+    @Test
+    public void swappedValues_changeTheFingerprint() {
+        Map<String, Object> a = new HashMap<>();
+        a.put("title", "x");
+        a.put("venue", "y");
+        Map<String, Object> b = new HashMap<>();
+        b.put("title", "y");
+        b.put("venue", "x");
+
+        assertNotEquals(Fingerprint.of(a), Fingerprint.of(b));
+        assertNotEquals(Fingerprint.of(Arrays.asList("x", "y")), Fingerprint.of(Arrays.asList("y", "x")));
+    }
+
+    @Test
+    public void stringsWithTheSameHashCode_differ() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertNotEquals(Fingerprint.of("Aa"), Fingerprint.of("BB"));
+        assertNotEquals(Fingerprint.of("AaAa"), Fingerprint.of("BBBB"));
+    }
+
+    @Test
+    public void differentTypes_differ() {
+        assertNotEquals(Fingerprint.of(1L), Fingerprint.of(1.0));
+        assertNotEquals(Fingerprint.of(1L), Fingerprint.of("1"));
+        assertNotEquals(Fingerprint.of(true), Fingerprint.of("true"));
+        assertNotEquals(Fingerprint.of(null), Fingerprint.of(""));
+    }
+}
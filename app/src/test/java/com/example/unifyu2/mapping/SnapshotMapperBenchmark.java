@@ -0,0 +1,82 @@
+package com.example.unifyu2.mapping;
+
+import com.example.unifyu2.Benchmark;
+import com.example.unifyu2.models.Event;
+import com.example.unifyu2.models.Post;
+import com.google.firebase.database.core.utilities.encoding.CustomClassMapper;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the reflective class mapper behind {@code DataSnapshot.getValue(Class)} with the
+ * hand-written mappers, on the same value trees a large events or posts snapshot yields.
+ */
+@Category(Benchmark.class)
+public class SnapshotMapperBenchmark {
+    private static final int RECORDS = 500;
+    private static final int PASSES = 100;
+
+    @Test
+    public void mapEvents() {
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < RECORDS; i++) {
+            values.add(SnapshotMappersTest.eventValue(i));
+        }
+        compare("events", values, Event.class, EventMapper.INSTANCE);
+    }
+
+    @Test
+    public void mapPosts() {
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < RECORDS; i++) {
+            values.add(SnapshotMappersTest.postValue(i));
+        }
+        compare("posts", values, Post.class, PostMapper.INSTANCE);
+    }
+
+    private static <T> void compare(String name, List<Object> values, Class<T> type, SnapshotMapper<T> mapper) {
+        // Warm up both paths so the measured runs aren't dominated by JIT compilation
+        reflective(values, type, PASSES / 10);
+        mapped(values, mapper, PASSES / 10);
+
+        long start = System.nanoTime();
+        int reflectiveCount = reflective(values, type, PASSES);
+        long reflectiveNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int mappedCount = mapped(values, mapper, PASSES);
+        long mappedNanos = System.nanoTime() - start;
+
+        assertEquals(reflectiveCount, mappedCount);
+        assertTrue(name + ": mapped " + mappedNanos + " ns, reflective " + reflectiveNanos + " ns",
+            mappedNanos < reflectiveNanos);
+    }
+
+    private static <T> int reflective(List<Object> values, Class<T> type, int passes) {
+        int count = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            for (Object value : values) {
+                if (CustomClassMapper.convertToCustomClass(value, type) != null) count++;
+            }
+        }
+        return count;
+    }
+
+    private static <T> int mapped(List<Object> values, SnapshotMapper<T> mapper, int passes) {
+        int count = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            for (Object value : values) {
+                if (mapper.fromValue(value) != null) count++;
+            }
+        }
+        return count;
+    }
+}
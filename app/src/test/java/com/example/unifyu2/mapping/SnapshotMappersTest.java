@@ -0,0 +1,134 @@
+package com.example.unifyu2.mapping;
+
+import com.example.unifyu2.models.Club;
+import com.example.unifyu2.models.Event;
+import com.example.unifyu2.models.Post;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotMappersTest {
+
+    static Map<String, Object> eventValue(int i) {
+        Map<String, Object> variants = new HashMap<>();
+        variants.put("thumb", "https://example.com/" + i + "/thumb.webp");
+        variants.put("full", "https://example.com/" + i + "/full.webp");
+
+        Map<String, Object> value = new HashMap<>();
+        value.put("eventId", "event" + i);
+        value.put("clubId", "club" + (i % 10));
+        value.put("title", "Event " + i);
+        value.put("description", "Description of event " + i);
+        value.put("venue", "Hall " + (i % 4));
+        value.put("date", 1709647662500L + i * 3_600_000L);
+        value.put("imageUrl", "https://example.com/" + i + "/full.webp");
+        value.put("imageVariants", variants);
+        value.put("maxParticipants", 100L);
+        value.put("registrationOpen", true);
+        value.put("registeredCount", (long) i);
+        value.put("full", false);
+        return value;
+    }
+
+    static Map<String, Object> postValue(int i) {
+        Map<String, Object> reactions = new HashMap<>();
+        reactions.put("user1", "LIKE");
+        reactions.put("user2", "LOVE");
+
+        Map<String, Object> value = new HashMap<>();
+        value.put("postId", "post" + i);
+        value.put("userId", "user" + (i % 20));
+        value.put("userName", "User " + (i % 20));
+        value.put("content", "Post number " + i);
+        value.put("clubId", "club" + (i % 10));
+        value.put("clubName", "Club " + (i % 10));
+        value.put("postType", "TEXT");
+        value.put("timestamp", 1709647662500L + i * 60_000L);
+        value.put("likes", Collections.singletonMap("user1", true));
+        value.put("reactions", reactions);
+        return value;
+    }
+
+    @Test
+    public void event_mapsEveryProperty() {
+        Event event = EventMapper.INSTANCE.fromValue(eventValue(7));
+
+        assertEquals("event7", event.getEventId());
+        assertEquals("club7", event.getClubId());
+        assertEquals("Event 7", event.getTitle());
+        assertEquals("Hall 3", event.getVenue());
+        assertEquals(1709647662500L + 7 * 3_600_000L, event.getDate());
+        assertEquals("https://example.com/7/thumb.webp", event.getImageVariants().getThumb());
+        assertNull(event.getImageVariants().getCard());
+        assertEquals(100, event.getMaxParticipants());
+        assertTrue(event.isRegistrationOpen());
+        assertEquals(7, event.getRegisteredCount());
+        assertFalse(event.isFull());
+    }
+
+    @Test
+    public void event_keepsDefaultsForMistypedProperties() {
+        Map<String, Object> value = eventValue(1);
+        value.put("date", "tomorrow");
+        value.put("maxParticipants", 12.0);
+        value.put("registrationOpen", "yes");
+
+        Event event = EventMapper.INSTANCE.fromValue(value);
+
+        assertEquals(0L, event.getDate());
+        assertEquals(12, event.getMaxParticipants());
+        assertFalse(event.isRegistrationOpen());
+        assertEquals("Event 1", event.getTitle());
+    }
+
+    @Test
+    public void club_mapsShardsAndIgnoresUnknownProperties() {
+        Map<String, Object> shards = new HashMap<>();
+        shards.put("0", 2L);
+        shards.put("1", 3L);
+        Map<String, Object> value = new HashMap<>();
+        value.put("name", "Chess");
+        value.put("adminId", "admin");
+        value.put("memberCount", 10L);
+        value.put("memberCountShards", shards);
+        value.put("createdAt", 1L);
+
+        Club club = ClubMapper.INSTANCE.fromValue(value);
+
+        assertEquals("Chess", club.getName());
+        assertEquals("admin", club.getAdminId());
+        assertEquals(15, club.getTotalMemberCount());
+    }
+
+    @Test
+    public void post_mapsReactionsAndReactedUsers() {
+        Map<String, Object> value = postValue(3);
+        value.put("reactedUsers", Collections.singletonMap("LIKE", Arrays.asList("user1", "user2")));
+
+        Post post = PostMapper.INSTANCE.fromValue(value);
+
+        assertEquals("post3", post.getPostId());
+        assertEquals("User 3", post.getUserName());
+        assertEquals(1709647662500L + 3 * 60_000L, (long) post.getTimestampLong());
+        assertEquals(2, post.getTotalReactions());
+        assertEquals("LOVE", post.getReactionByUser("user2"));
+        assertTrue(post.isLikedBy("user1"));
+        assertEquals(Arrays.asList("user1", "user2"), post.getReactedUsers().get("LIKE"));
+    }
+
+    @Test
+    public void nonObjectValues_mapToNull() {
+        assertNull(EventMapper.INSTANCE.fromValue(null));
+        assertNull(ClubMapper.INSTANCE.fromValue("club"));
+        assertNull(PostMapper.INSTANCE.fromValue(42L));
+    }
+}
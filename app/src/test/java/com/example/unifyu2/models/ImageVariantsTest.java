@@ -0,0 +1,59 @@
+package com.example.unifyu2.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class ImageVariantsTest {
+    private static ImageVariants allSizes() {
+        ImageVariants variants = new ImageVariants();
+        variants.setThumb("thumb");
+        variants.setCard("card");
+        variants.setFull("full");
+        return variants;
+    }
+
+    @Test
+    public void urlCovering_picksSmallestCoveringSize() {
+        ImageVariants variants = allSizes();
+        assertEquals("thumb", variants.urlCovering(160, 160));
+        assertEquals("card", variants.urlCovering(720, 400));
+        assertEquals("full", variants.urlCovering(1080, 600));
+    }
+
+    @Test
+    public void urlCovering_usesLargestForOversizedOrOriginalTargets() {
+        ImageVariants variants = allSizes();
+        assertEquals("full", variants.urlCovering(2400, 1600));
+        assertEquals("full", variants.urlCovering(Integer.MIN_VALUE, Integer.MIN_VALUE));
+    }
+
+    @Test
+    public void urlCovering_skipsMissingSizes() {
+        ImageVariants variants = new ImageVariants();
+        variants.setFull("full");
+        assertEquals("full", variants.urlCovering(100, 100));
+    }
+
+    @Test
+    public void equalUrls_makeEqualModels() {
+        assertEquals(allSizes(), allSizes());
+        assertEquals(allSizes().hashCode(), allSizes().hashCode());
+        assertEquals(new ImageVariants(), new ImageVariants());
+    }
+
+    @Test
+    public void anyDifferentUrl_makesDifferentModels() {
+        ImageVariants thumb = allSizes();
+        thumb.setThumb("other");
+        ImageVariants card = allSizes();
+        card.setCard(null);
+        ImageVariants full = allSizes();
+        full.setFull("other");
+
+        assertNotEquals(allSizes(), thumb);
+        assertNotEquals(allSizes(), card);
+        assertNotEquals(allSizes(), full);
+    }
+}
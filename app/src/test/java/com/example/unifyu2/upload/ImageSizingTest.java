@@ -0,0 +1,29 @@
+package com.example.unifyu2.upload;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ImageSizingTest {
+    @Test
+    public void sampleSize_neverDecodesBelowTarget() {
+        // 12 MP camera original down to 1600: 4000 / 2 = 2000 still covers it, 4000 / 4 doesn't
+        assertEquals(2, ImageSizing.calculateInSampleSize(4000, 3000, 1600));
+        assertEquals(4, ImageSizing.calculateInSampleSize(3000, 6400, 1600));
+        assertEquals(1, ImageSizing.calculateInSampleSize(1200, 900, 1600));
+        assertEquals(1, ImageSizing.calculateInSampleSize(1600, 1600, 1600));
+    }
+
+    @Test
+    public void scaledSize_fitsLongEdgeAndKeepsAspectRatio() {
+        assertArrayEquals(new int[] {1600, 1200}, ImageSizing.scaledSize(2000, 1500, 1600));
+        assertArrayEquals(new int[] {900, 1600}, ImageSizing.scaledSize(1512, 2688, 1600));
+        assertArrayEquals(new int[] {1600, 1}, ImageSizing.scaledSize(8000, 2, 1600));
+    }
+
+    @Test
+    public void scaledSize_neverUpscales() {
+        assertArrayEquals(new int[] {800, 600}, ImageSizing.scaledSize(800, 600, 1600));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.unifyu2.utils;
+
+import com.example.unifyu2.Benchmark;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares building a SimpleDateFormat on every bind, as the adapters used to, with
+ * the shared {@link DateFormatter}, while "scrolling" a list of events back and forth.
+ */
+@Category(Benchmark.class)
+public class DateFormatterBenchmark {
+    private static final int EVENTS = 100;
+    private static final int PASSES = 200;
+    private static final long START = 1709647662500L;
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    @Test
+    public void formatPerBind() {
+        long[] dates = eventDates();
+        // Warm up both paths so the measured runs aren't dominated by JIT compilation
+        newFormatPerBind(dates, PASSES / 10);
+        sharedFormatter(dates, PASSES / 10);
+
+        long start = System.nanoTime();
+        int newFormatLength = newFormatPerBind(dates, PASSES);
+        long newFormatNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int sharedLength = sharedFormatter(dates, PASSES);
+        long sharedNanos = System.nanoTime() - start;
+
+        assertEquals(newFormatLength, sharedLength);
+        assertTrue("shared " + sharedNanos + " ns, per bind " + newFormatNanos + " ns", sharedNanos < newFormatNanos);
+    }
+
+    private static int newFormatPerBind(long[] dates, int passes) {
+        int length = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            for (long date : dates) {
+                SimpleDateFormat sdf = new SimpleDateFormat(DateFormatter.DATE_TIME_PATTERN, Locale.getDefault());
+                length += sdf.format(new Date(date)).length();
+            }
+        }
+        return length;
+    }
+
+    private static int sharedFormatter(long[] dates, int passes) {
+        int length = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            for (long date : dates) {
+                length += DateFormatter.formatDateTime(date).length();
+            }
+        }
+        return length;
+    }
+
+    private static long[] eventDates() {
+        long[] dates = new long[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            dates[i] = START + i * 7 * HOUR;
+        }
+        return dates;
+    }
+}
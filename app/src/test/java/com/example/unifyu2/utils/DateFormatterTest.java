@@ -0,0 +1,62 @@
+package com.example.unifyu2.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class DateFormatterTest {
+    // 2024-03-05T14:07:42.500Z
+    private static final long TIME = 1709647662500L;
+
+    private Locale defaultLocale;
+    private TimeZone defaultZone;
+
+    @Before
+    public void setUp() {
+        defaultLocale = Locale.getDefault();
+        defaultZone = TimeZone.getDefault();
+        Locale.setDefault(Locale.US);
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+        DateFormatter.reset();
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(defaultLocale);
+        TimeZone.setDefault(defaultZone);
+        DateFormatter.reset();
+    }
+
+    @Test
+    public void formatsToTheMinute() {
+        assertEquals("05 Mar 2024, 14:07", DateFormatter.formatDateTime(TIME));
+        assertEquals("05 Mar 2024, 14:07", DateFormatter.formatDateTime(TIME + 17_000));
+        assertEquals("05 Mar 2024, 14:08", DateFormatter.formatDateTime(TIME + 17_500));
+    }
+
+    @Test
+    public void memoizesFormattedMinutes() {
+        String first = DateFormatter.formatDateTime(TIME);
+        assertSame(first, DateFormatter.formatDateTime(TIME + 1_000));
+    }
+
+    @Test
+    public void formatsTimesBeforeTheEpoch() {
+        assertEquals("31 Dec 1969, 23:59", DateFormatter.formatDateTime(-1));
+    }
+
+    @Test
+    public void reset_picksUpTimeZoneChanges() {
+        assertEquals("05 Mar 2024, 14:07", DateFormatter.formatDateTime(TIME));
+
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Kolkata"));
+        DateFormatter.reset();
+        assertEquals("05 Mar 2024, 19:37", DateFormatter.formatDateTime(TIME));
+    }
+}
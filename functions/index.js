@@ -139,67 +139,67 @@ exports.sendTopicNotification = functions.database
         }
     });
 
-// Send notifications when a new event is created
-exports.notifyNewEvent = functions.database
-    .ref('/events/{eventId}')
+// Send a notification job written by a client to its club's topic
+exports.fanOutNotificationJob = functions.database
+    .ref('/notification_jobs/{jobId}')
     .onCreate(async (snapshot, context) => {
-        const eventId = context.params.eventId;
-        const event = snapshot.val();
+        const jobId = context.params.jobId;
+        const job = snapshot.val();
 
-        if (!event) {
-            console.log('No event data');
+        if (!job || job.type !== 'new_event' || !job.eventId) {
+            console.log('Ignoring unsupported notification job:', jobId);
             return null;
         }
 
-        console.log('New event created:', eventId);
-        console.log('Event data:', event);
+        // Claim the job so a retried invocation doesn't send it twice. The first run may
+        // see null from an empty cache, so commit it unchanged and let the server retry.
+        const claim = await snapshot.ref.child('status').transaction(status => {
+            if (status === null) return null;
+            return status === 'pending' ? 'sending' : undefined;
+        });
+        if (!claim.committed || claim.snapshot.val() !== 'sending') {
+            console.log('Notification job already handled:', jobId);
+            return null;
+        }
 
         try {
-            // Get club details
+            const eventSnapshot = await admin.database().ref(`/events/${job.eventId}`).once('value');
+            const event = eventSnapshot.val();
+            if (!event) {
+                console.log('Event no longer exists:', job.eventId);
+                await snapshot.ref.update({ status: 'cancelled', completedAt: Date.now() });
+                return null;
+            }
+
             const clubSnapshot = await admin.database().ref(`/clubs/${event.clubId}`).once('value');
             const club = clubSnapshot.val();
             const clubName = club ? club.name : 'Club';
 
-            // Notify all users via topic
+            // Data-only, so the app displays it even in the background and can coalesce bursts
             const message = {
-                notification: {
-                    title: `New Event: ${event.title}`,
-                    body: `New event in ${clubName}: ${event.description}`
-                },
                 data: {
-                    eventId: eventId,
+                    eventId: job.eventId,
                     clubId: event.clubId,
                     clubName: clubName,
+                    title: `New Event: ${event.title}`,
+                    description: `New event in ${clubName}: ${event.description}`,
                     type: 'new_event',
-                    timestamp: Date.now().toString()
+                    timestamp: String(job.createdAt || Date.now())
                 },
-                topic: 'all_users',
                 android: {
-                    priority: 'high',
-                    notification: {
-                        channelId: 'unifyu_notifications',
-                        priority: 'high',
-                        defaultSound: true,
-                        defaultVibrateTimings: true
-                    }
+                    priority: 'high'
                 }
             };
 
-            const response = await admin.messaging().send(message);
-            console.log('Successfully sent topic message:', response);
-            
-            // Also track notification history
-            await admin.database().ref(`events/${eventId}/notifications`).push({
-                title: message.notification.title,
-                body: message.notification.body,
-                sentToTopic: 'all_users',
-                timestamp: Date.now()
-            });
-            
+            // Club members are subscribed to the club's topic, so FCM does the fan-out
+            const topic = job.topic || `club_${event.clubId}`;
+            const response = await admin.messaging().send({ ...message, topic: topic });
+            console.log(`Notification job ${jobId} sent to topic ${topic}:`, response);
+            await snapshot.ref.update({ status: 'sent', completedAt: Date.now() });
             return response;
         } catch (error) {
-            console.error('Error sending event notification:', error);
-            console.error('Error details:', error.message);
+            console.error('Error processing notification job:', jobId, error);
+            await snapshot.ref.update({ status: 'failed', error: error.message, completedAt: Date.now() });
             return null;
         }
     });